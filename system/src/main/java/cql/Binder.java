@@ -0,0 +1,75 @@
+package cql;
+
+import java.nio.ByteBuffer;
+
+import cql.lexicalparser.exceptions.CQLFormatException;
+
+/*
+ * Values of a single bind of a Template. Each value is formatted when it is
+ * bound, so toCQL() only concatenates, and writeTo(ByteBuffer) only encodes
+ * the values next to the fragments the template encoded. A slot that is not
+ * bound keeps its text in the template, as an INJECT that replace did not
+ * reach.
+ *
+ * A binder is cheap and is not meant to be shared between threads; make one
+ * for each statement.
+ *
+ * */
+
+public final class Binder {
+
+	private final Template template;
+
+	private final String[] values;
+
+	// bytes of each value in UTF-8
+	private final int[] valueLengths;
+
+	Binder(Template template) {
+		this.template = template;
+		this.values = new String[template.getSlotCount()];
+		this.valueLengths = new int[values.length];
+	}
+
+	public Template getTemplate() {
+		return template;
+	}
+
+	public Binder bind(int slot, Object value) throws CQLFormatException {
+		if (slot < 0 || slot >= values.length) {
+			throw new IndexOutOfBoundsException(
+					"Invalid INJECT " + slot + ", the template has " + values.length);
+		}
+		values[slot] = template.format(value);
+		valueLengths[slot] = Utf8.length(values[slot]);
+		return this;
+	}
+
+	public Binder clear() {
+		for (int slot = 0; slot < values.length; slot++) {
+			values[slot] = null;
+		}
+		return this;
+	}
+
+	public String toCQL() {
+		return template.render(values);
+	}
+
+	// bytes that writeTo(ByteBuffer) puts
+	public int encodedLength() {
+		return template.encodedLength(values, valueLengths);
+	}
+
+	/*
+	 * Puts the statement in UTF-8 in the buffer, heap or direct, from its
+	 * position. When the remaining space is less than encodedLength() it
+	 * throws BufferOverflowException before putting anything, so the caller
+	 * can give a larger buffer and write again.
+	 */
+	public ByteBuffer writeTo(ByteBuffer buffer) {
+		template.encode(values, valueLengths, buffer);
+		return buffer;
+	}
+
+}
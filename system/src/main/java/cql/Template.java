@@ -0,0 +1,194 @@
+package cql;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import cql.lexicalparser.exceptions.CQLFormatException;
+
+/*
+ * Statement compiled once for many binds.
+ *
+ * The tree is read a single time, in the order rebuild() reads it, into the
+ * constant text between the INJECT tokens (the fragments) and a table of the
+ * INJECT slots with their offsets in the statement. A bind concatenates the
+ * fragments and the formatted values in one pass, instead of walking and
+ * rebuilding the whole tree for each value as Token.replace does.
+ *
+ * The fragments and the slots are also encoded in UTF-8 once, so a bind can
+ * write its statement to a ByteBuffer for the network encoding only its
+ * values.
+ *
+ * A template is immutable and can be shared by any number of threads. The
+ * values of a bind live in a Binder, made by binder() for each statement.
+ *
+ * */
+
+public final class Template {
+
+	private final String[] fragments;
+
+	// text of each slot when it is not bound, the ? or what replace put there
+	private final String[] slots;
+
+	private final int[] offsets;
+
+	private final int length;
+
+	// UTF-8 of the fragments and of the slots
+	private final byte[][] fragmentBytes;
+
+	private final byte[][] slotBytes;
+
+	private final Token formatter;
+
+	private Template(String[] fragments, String[] slots, int[] offsets, int length, String timeZoneGMT) {
+		this.fragments = fragments;
+		this.slots = slots;
+		this.offsets = offsets;
+		this.length = length;
+		this.formatter = new Token(TokenType.INJECT, timeZoneGMT);
+
+		this.fragmentBytes = new byte[fragments.length][];
+		for (int index = 0; index < fragments.length; index++) {
+			fragmentBytes[index] = Utf8.encode(fragments[index]);
+		}
+		this.slotBytes = new byte[slots.length][];
+		for (int index = 0; index < slots.length; index++) {
+			slotBytes[index] = Utf8.encode(slots[index]);
+		}
+	}
+
+	public static Template compile(Token token) {
+		List<String> fragments = new ArrayList<>();
+		List<String> slots = new ArrayList<>();
+		List<Integer> offsets = new ArrayList<>();
+		StringBuilder fragment = new StringBuilder();
+
+		int length = compile(token, fragment, fragments, slots, offsets, 0);
+		fragments.add(fragment.toString());
+
+		int[] slotOffsets = new int[offsets.size()];
+		for (int index = 0; index < slotOffsets.length; index++) {
+			slotOffsets[index] = offsets.get(index);
+		}
+
+		return new Template(fragments.toArray(new String[fragments.size()]), slots.toArray(new String[slots.size()]),
+				slotOffsets, length, token.getTimeZoneGMT());
+	}
+
+	// offset in the statement after the token
+	private static int compile(Token token, StringBuilder fragment, List<String> fragments, List<String> slots,
+			List<Integer> offsets, int offset) {
+		if (token.getType() == TokenType.INJECT) {
+			String content = rebuilt(token);
+			fragments.add(fragment.toString());
+			fragment.setLength(0);
+			slots.add(content);
+			offsets.add(offset);
+			return offset + content.length();
+		}
+
+		if (token.getSubTokens().isEmpty()) {
+			String content = token.getContent();
+			fragment.append(content);
+			return offset + content.length();
+		}
+
+		for (Token subToken : token.getSubTokens()) {
+			offset = compile(subToken, fragment, fragments, slots, offsets, offset);
+		}
+		return offset;
+	}
+
+	private static String rebuilt(Token token) {
+		if (token.getSubTokens().isEmpty()) {
+			return token.getContent();
+		}
+		StringBuilder content = new StringBuilder();
+		for (Token subToken : token.getSubTokens()) {
+			content.append(rebuilt(subToken));
+		}
+		return content.toString();
+	}
+
+	public int getSlotCount() {
+		return slots.length;
+	}
+
+	// offset of the slot in the statement as it was compiled
+	public int getOffset(int slot) {
+		return offsets[slot];
+	}
+
+	// constant text before the slot, or after the last one at getSlotCount()
+	public String getFragment(int index) {
+		return fragments[index];
+	}
+
+	public Binder binder() {
+		return new Binder(this);
+	}
+
+	// binds the values to the first slots, in order
+	public String bind(Object... values) throws CQLFormatException {
+		Binder binder = binder();
+		for (int slot = 0; slot < values.length; slot++) {
+			binder.bind(slot, values[slot]);
+		}
+		return binder.toCQL();
+	}
+
+	// the statement as it was compiled
+	public String toCQL() {
+		return render(new String[slots.length]);
+	}
+
+	String format(Object value) throws CQLFormatException {
+		return formatter.format(formatter, value);
+	}
+
+	String render(String[] values) {
+		int capacity = length;
+		for (int slot = 0; slot < values.length; slot++) {
+			if (values[slot] != null) {
+				capacity += values[slot].length() - slots[slot].length();
+			}
+		}
+
+		StringBuilder cql = new StringBuilder(capacity);
+		for (int slot = 0; slot < slots.length; slot++) {
+			cql.append(fragments[slot]).append((values[slot] == null) ? slots[slot] : values[slot]);
+		}
+		return cql.append(fragments[slots.length]).toString();
+	}
+
+	// bytes of the statement in UTF-8, with the lengths of the bound values
+	int encodedLength(String[] values, int[] valueLengths) {
+		int encodedLength = fragmentBytes[slots.length].length;
+		for (int slot = 0; slot < slots.length; slot++) {
+			encodedLength += fragmentBytes[slot].length;
+			encodedLength += (values[slot] == null) ? slotBytes[slot].length : valueLengths[slot];
+		}
+		return encodedLength;
+	}
+
+	void encode(String[] values, int[] valueLengths, ByteBuffer buffer) {
+		int encodedLength = encodedLength(values, valueLengths);
+		if (buffer.remaining() < encodedLength) {
+			throw new BufferOverflowException();
+		}
+
+		for (int slot = 0; slot < slots.length; slot++) {
+			buffer.put(fragmentBytes[slot]);
+			if (values[slot] == null) {
+				buffer.put(slotBytes[slot]);
+			} else {
+				Utf8.encode(values[slot], 0, values[slot].length(), buffer);
+			}
+		}
+		buffer.put(fragmentBytes[slots.length]);
+	}
+
+}
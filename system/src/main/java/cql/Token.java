@@ -1,31 +1,52 @@
 package cql;
 
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TimeZone;
+import java.util.RandomAccess;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import cql.lexicalparser.ConsumerToken;
 import cql.lexicalparser.exceptions.CQLFormatException;
 import cql.lexicalparser.exceptions.CQLReplaceException;
 
+/*
+ * Node of the tree of a statement.
+ *
+ * The content of a token is its own text, or the bounds of its source until a
+ * rebuild sets it. A token keeps its parent, set when it is added to the sub
+ * tokens of another one, and a dirty flag: setting the content of a token, or
+ * any change of the sub tokens, marks the path from there up to the root.
+ * rebuild() concatenates again only the dirty tokens, and the others keep
+ * their content, so a change costs the depth of the token instead of the
+ * whole tree. The parser adds the sub tokens too, and calls markClean() on
+ * the tree it returns, that stays within the bounds of its source. A token
+ * with no content and no source, as one built by hand, is always
+ * concatenated from its sub tokens.
+ *
+ * */
+
 public class Token {
 
 	private TokenType type = null;
 	private String content = null;
 	private String posContent = null;
-	private List<Token> subTokens = new ArrayList<>();
+	private List<Token> subTokens = new SubTokens();
+	private Token parent = null;
+	private boolean dirty = false;
 	private Token after = null;
 	private Token before = null;
 	private String timeZoneGMT = "GMT-00";
+	private String source = null;
+	private int start = 0;
+	private int end = 0;
 
 	public Token(TokenType type) {
 		this.type = type;
@@ -49,14 +70,23 @@ public class Token {
 	}
 
 	public String getContent() {
+		if (content == null && source != null) {
+			return source.substring(start, end);
+		}
 		return content;
 	}
 
 	public void setContent(String content) {
 		this.content = content;
+		if (parent != null) {
+			parent.markDirty();
+		}
 	}
 
 	public String getPosContent() {
+		if (posContent == null && source != null) {
+			return source.substring(end);
+		}
 		return posContent;
 	}
 
@@ -64,10 +94,79 @@ public class Token {
 		this.posContent = posContent;
 	}
 
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public int getStart() {
+		return start;
+	}
+
+	public void setStart(int start) {
+		this.start = start;
+	}
+
+	public int getEnd() {
+		return end;
+	}
+
+	public void setEnd(int end) {
+		this.end = end;
+	}
+
 	public List<Token> getSubTokens() {
 		return subTokens;
 	}
 
+	// token whose sub tokens have this one, null at the root
+	public Token getParent() {
+		return parent;
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	// a dirty token has every ancestor dirty, so the walk stops at the first
+	private void markDirty() {
+		for (Token token = this; token != null && !token.dirty; token = token.parent) {
+			token.dirty = true;
+		}
+	}
+
+	/*
+	 * Clears the dirty flag of the tokens whose sub tokens still cover the
+	 * bounds of their source one after the other, as the parser leaves them,
+	 * so a parsed tree is clean again with no rebuild. A token with a content
+	 * of its own, or with sub tokens that do not cover its bounds, stays dirty.
+	 * The walk also links each sub token to this token again: with memoization
+	 * an alternative that the parser discarded may have taken it as its own.
+	 * Returns whether this token renders as the bounds of its source.
+	 */
+	public boolean markClean() {
+		boolean sourced = content == null && source != null;
+		if (subTokens.isEmpty() || !dirty) {
+			return sourced;
+		}
+
+		int position = start;
+		for (Token subToken : subTokens) {
+			subToken.parent = this;
+			boolean covered = subToken.markClean();
+			sourced &= covered && subToken.source == source && subToken.start == position;
+			position = subToken.end;
+		}
+		if (sourced && position == end) {
+			dirty = false;
+			return true;
+		}
+		return false;
+	}
+
 	public Token getAfter() {
 		return after;
 	}
@@ -85,7 +184,93 @@ public class Token {
 	}
 
 	public String toString() {
-		return this.type.getName() + " [ " + this.content + " ]";
+		return this.type.getName() + " [ " + this.getContent() + " ]";
+	}
+
+	// value of a NUMBER or HEX, read straight from the source. A NUMBER takes
+	// the range of a bigint, a HEX up to 16 digits as the unsigned bits of
+	// the long, so 0xFFFFFFFFFFFFFFFF is -1
+	public long toLong() throws CQLFormatException {
+		CharSequence text = (content == null && source != null) ? source : content;
+		int index = (content == null && source != null) ? start : 0;
+		int limit = (content == null && source != null) ? end : content.length();
+
+		boolean hex = type == TokenType.HEX || type == TokenType.ABSOLUTE_HEX;
+		if (!hex && type != TokenType.NUMBER) {
+			throw new CQLFormatException("Type " + type.getName() + " is not a number");
+		}
+
+		boolean negative = false;
+		if (index < limit && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+			negative = text.charAt(index) == '-';
+			index++;
+		}
+		if (hex && index + 1 < limit && text.charAt(index) == '0'
+				&& Character.toLowerCase(text.charAt(index + 1)) == 'x') {
+			index += 2;
+		}
+
+		if (index == limit) {
+			throw new CQLFormatException("Invalid " + type.getName() + " [" + getContent() + "]");
+		}
+
+		if (hex) {
+			long value = 0;
+			int digits = 0;
+			for (; index < limit; index++) {
+				int digit = Character.digit(text.charAt(index), 16);
+				if (digit < 0 || (digits > 0 || digit > 0) && ++digits > 16) {
+					throw new CQLFormatException("Invalid " + type.getName() + " [" + getContent() + "]");
+				}
+				value = (value << 4) | digit;
+			}
+			return negative ? -value : value;
+		}
+
+		// accumulated negative, as Long.parseLong does, so Long.MIN_VALUE fits
+		long min = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		for (; index < limit; index++) {
+			int digit = Character.digit(text.charAt(index), 10);
+			if (digit < 0 || value < (min + digit) / 10) {
+				throw new CQLFormatException("Invalid " + type.getName() + " [" + getContent() + "]");
+			}
+			value = value * 10 - digit;
+		}
+
+		return negative ? value : -value;
+	}
+
+	// bytes of a HEX blob, read straight from the source
+	public byte[] toBytes() throws CQLFormatException {
+		CharSequence text = (content == null && source != null) ? source : content;
+		int index = (content == null && source != null) ? start : 0;
+		int limit = (content == null && source != null) ? end : content.length();
+
+		if (type == TokenType.HEX) {
+			if (index + 1 < limit && text.charAt(index) == '0'
+					&& Character.toLowerCase(text.charAt(index + 1)) == 'x') {
+				index += 2;
+			}
+		} else if (type != TokenType.ABSOLUTE_HEX) {
+			throw new CQLFormatException("Type " + type.getName() + " is not a blob");
+		}
+
+		if ((limit - index) % 2 != 0) {
+			throw new CQLFormatException("Invalid " + type.getName() + " [" + getContent() + "]");
+		}
+
+		byte[] bytes = new byte[(limit - index) / 2];
+		for (int position = 0; position < bytes.length; position++, index += 2) {
+			int high = Character.digit(text.charAt(index), 16);
+			int low = Character.digit(text.charAt(index + 1), 16);
+			if (high < 0 || low < 0) {
+				throw new CQLFormatException("Invalid " + type.getName() + " [" + getContent() + "]");
+			}
+			bytes[position] = (byte) ((high << 4) | low);
+		}
+
+		return bytes;
 	}
 
 	public List<Token> flatTokenList() {
@@ -99,12 +284,16 @@ public class Token {
 
 		Token ret = new Token(getType(), getTimeZoneGMT());
 
-		ret.setContent(this.getContent());
-		ret.setPosContent(this.getPosContent());
+		ret.setContent(this.content);
+		ret.setPosContent(this.posContent);
+		ret.setSource(this.getSource());
+		ret.setStart(this.getStart());
+		ret.setEnd(this.getEnd());
 
 		for (Token token : subTokens) {
 			ret.subTokens.add(token.clone());
 		}
+		ret.dirty = this.dirty;
 
 		return ret;
 	}
@@ -225,124 +414,298 @@ public class Token {
 
 	}
 
+	public String bindAll(Object... values) throws CQLReplaceException {
+		return bindAll(Arrays.asList(values));
+	}
+
+	/*
+	 * Replaces every INJECT, in order, by its value, as a replace for each
+	 * index would. The INJECT tokens are found in one walk and the tree is
+	 * rebuilt once at the end. The count of values is checked and all of them
+	 * are formatted before the tree changes, so a failure leaves it as it was.
+	 */
+	public String bindAll(List<?> values) throws CQLReplaceException {
+		List<Token> injects = new ArrayList<>(values.size());
+		collect(this, TokenType.INJECT, injects);
+
+		if (injects.size() != values.size()) {
+			throw new CQLReplaceException(
+					"Invalid count of values, expected " + injects.size() + " but was " + values.size());
+		}
+
+		String[] contents = new String[values.size()];
+		for (int index = 0; index < contents.length; index++) {
+			try {
+				contents[index] = format(injects.get(index), values.get(index));
+			} catch (CQLFormatException e) {
+				throw new CQLReplaceException(e);
+			}
+		}
+
+		for (int index = 0; index < contents.length; index++) {
+			Token inject = injects.get(index);
+			inject.getSubTokens().clear();
+			inject.setContent(contents[index]);
+		}
+
+		this.rebuild();
+		return this.getContent();
+	}
+
+	private void collect(Token token, TokenType type, List<Token> tokens) {
+		if (token.getType().equals(type)) {
+			tokens.add(token);
+			return;
+		}
+		token.getSubTokens().forEach(t -> collect(t, type, tokens));
+	}
+
 	public String format(Token token, Object value) throws CQLFormatException {
+		StringBuilder cql = new StringBuilder();
+		format(token, value, cql);
+		return cql.toString();
+	}
+
+	/*
+	 * Appends the value as CQL with the codec of its class in TypeCodecs, in
+	 * the time zone of this token. The codecs of collections call it again
+	 * for their items, so a whole value is written in place.
+	 */
+	public void format(Token token, Object value, StringBuilder cql) throws CQLFormatException {
 
 		if (value == null) {
-			return "NULL";
+			cql.append("NULL");
+			return;
 		}
-		if (value instanceof String) {
-			value = ((String) value).replace("'", "''");
-			return "'" + value + "'";
+
+		@SuppressWarnings("unchecked")
+		TypeCodec<Object> codec = (TypeCodec<Object>) TypeCodecs.get(value.getClass());
+		if (codec == null) {
+			throw new CQLFormatException("Type unknown of " + value.getClass().getCanonicalName());
 		}
-		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
-				|| value instanceof Float || value instanceof Double || value instanceof Boolean) {
-			return String.valueOf(value);
+		codec.format(this, value, cql);
+	}
+
+	// length of the content that writeTo appends, without rebuilding
+	public int length() {
+		if (isRendered()) {
+			return (content == null) ? end - start : content.length();
 		}
 
-		if (List.class.isAssignableFrom(value.getClass())) {
-			StringBuffer json = new StringBuffer();
-			@SuppressWarnings("unchecked")
-			List<Object> list = (List<Object>) value;
+		int length = 0;
+		for (Token subToken : subTokens) {
+			length += subToken.length();
+		}
+		return length;
+	}
 
-			for (Object subvalue : list) {
-				if (json.length() == 0) {
-					json.append("[");
-				} else {
-					json.append(",");
-				}
-				json.append(format(token, subvalue));
-			}
-			json.append("]");
-			return json.toString();
+	/*
+	 * Appends the text of the tree to the buffer, as rebuild() would make it,
+	 * without changing the tree. Clean tokens append their content, or the
+	 * bounds of their source with no substring, and only the dirty ones walk
+	 * their sub tokens. The buffer grows once to the length of the text, so a
+	 * buffer reused by the caller, as a thread local one, does not allocate.
+	 */
+	public StringBuilder writeTo(StringBuilder cql) {
+		cql.ensureCapacity(cql.length() + length());
+		try {
+			append(cql);
+		} catch (IOException e) {
+			// a StringBuilder does not throw
+			throw new UncheckedIOException(e);
 		}
+		return cql;
+	}
 
-		if (Set.class.isAssignableFrom(value.getClass())) {
-			StringBuffer json = new StringBuffer();
-			@SuppressWarnings("unchecked")
-			Set<Object> list = (Set<Object>) value;
+	public <A extends Appendable> A writeTo(A cql) throws IOException {
+		if (cql instanceof StringBuilder) {
+			writeTo((StringBuilder) cql);
+		} else {
+			append(cql);
+		}
+		return cql;
+	}
 
-			for (Object subvalue : list) {
-				if (json.length() == 0) {
-					json.append("{");
-				} else {
-					json.append(",");
-				}
-				json.append(format(token, subvalue));
-			}
-			json.append("}");
-			return json.toString();
-		}
-
-		if (Map.class.isAssignableFrom(value.getClass())) {
-			StringBuffer json = new StringBuffer();
-			@SuppressWarnings("unchecked")
-			Map<Object, Object> list = (Map<Object, Object>) value;
-
-			Set<Object> keys = list.keySet();
-			 
-			json.append("{");
-			boolean first = true;
-			for (Object key : keys) {
-				Object subvalue = list.get(key);
-				if (first) {
-					first = false;
-				} else {
-					json.append(",");
-				}
-				json.append(format(token, key));
-				json.append(":");
-				json.append(format(token, subvalue));
+	// bytes in UTF-8 of the content that writeTo appends
+	public int encodedLength() {
+		if (isRendered()) {
+			if (content == null && source != null) {
+				return Utf8.length(source, start, end);
 			}
-			json.append("}");
-			return json.toString();
+			return (content == null) ? 0 : Utf8.length(content);
 		}
 
-		if (value instanceof LocalDate) {
-			LocalDate dateTime = (LocalDate) value;
+		int encodedLength = 0;
+		for (Token subToken : subTokens) {
+			encodedLength += subToken.encodedLength();
+		}
+		return encodedLength;
+	}
 
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	/*
+	 * Puts the text of the tree in UTF-8 in the buffer, heap or direct, from
+	 * its position, encoding the leaves straight from their source with no
+	 * String in between. When the remaining space is less than
+	 * encodedLength() it throws BufferOverflowException before putting
+	 * anything.
+	 */
+	public ByteBuffer writeTo(ByteBuffer cql) {
+		if (cql.remaining() < encodedLength()) {
+			throw new BufferOverflowException();
+		}
+		encode(cql);
+		return cql;
+	}
 
-			String formattedDateTime = dateTime.format(formatter);
-			return "'" + formattedDateTime + "'";
+	private void encode(ByteBuffer cql) {
+		if (!isRendered()) {
+			for (Token subToken : subTokens) {
+				subToken.encode(cql);
+			}
+			return;
 		}
 
-		if (value instanceof ZonedDateTime) {
-			ZonedDateTime dateTime = (ZonedDateTime) value;
+		if (content == null && source != null) {
+			Utf8.encode(source, start, end, cql);
+		} else if (content != null) {
+			Utf8.encode(content, 0, content.length(), cql);
+		}
+	}
 
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssZ");
+	// the content of the token is its text, with no need of its sub tokens
+	private boolean isRendered() {
+		return subTokens.isEmpty() || (!dirty && (content != null || source != null));
+	}
 
-			String formattedDateTime = dateTime.format(formatter);
-			return "'" + formattedDateTime + "'";
+	private void append(Appendable cql) throws IOException {
+		if (!isRendered()) {
+			for (Token subToken : subTokens) {
+				subToken.append(cql);
+			}
+			return;
 		}
 
-		if (value instanceof Date) {
-			Date date = (Date) value;
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
-			sdf.setTimeZone(TimeZone.getTimeZone(timeZoneGMT));
-			return "'" + sdf.format(date) + "'";
+		if (content == null && source != null) {
+			cql.append(source, start, end);
+		} else if (content != null) {
+			cql.append(content);
 		}
-		throw new CQLFormatException("Type unknown of " + value.getClass().getCanonicalName());
 	}
 
 	public String rebuild() {
 
 		if (this.getSubTokens().size() == 0) {
-			return this.content;
+			this.dirty = false;
+			return this.getContent();
 		}
 
-		String oldContent = this.content;
+		String oldContent = this.getContent();
 
-		StringBuffer retBuffer = new StringBuffer();
+		if (isRendered()) {
+			return oldContent;
+		}
 
-		this.getSubTokens().stream().forEach(i -> {
-			i.rebuild();
-			retBuffer.append(i.getContent());
-		});
+		StringBuilder retBuffer = new StringBuilder();
+
+		for (Token subToken : this.getSubTokens()) {
+			subToken.rebuild();
+			retBuffer.append(subToken.getContent());
+		}
 
 		this.content = retBuffer.toString();
+		this.dirty = false;
 
 		return oldContent;
 
 	}
 
+	/*
+	 * Sub tokens that link each token to its parent. Every change of the list,
+	 * also through its iterators, sub lists and bulk methods, passes by
+	 * add(int), set or removeRange and calls modified(), that marks the owner
+	 * and its ancestors dirty.
+	 */
+	private class SubTokens extends AbstractList<Token> implements RandomAccess {
+
+		private final ArrayList<Token> tokens = new ArrayList<>();
+
+		private void modified() {
+			modCount++;
+			markDirty();
+		}
+
+		@Override
+		public Token get(int index) {
+			return tokens.get(index);
+		}
+
+		@Override
+		public int size() {
+			return tokens.size();
+		}
+
+		@Override
+		public void add(int index, Token token) {
+			tokens.add(index, token);
+			token.parent = Token.this;
+			modified();
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends Token> added) {
+			if (added.isEmpty()) {
+				return false;
+			}
+			tokens.addAll(index, added);
+			for (Token token : added) {
+				token.parent = Token.this;
+			}
+			modified();
+			return true;
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends Token> added) {
+			return addAll(tokens.size(), added);
+		}
+
+		@Override
+		public Token set(int index, Token token) {
+			Token old = tokens.set(index, token);
+			token.parent = Token.this;
+			modified();
+			return old;
+		}
+
+		@Override
+		public Token remove(int index) {
+			Token old = tokens.remove(index);
+			modified();
+			return old;
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			if (fromIndex == toIndex) {
+				return;
+			}
+			tokens.subList(fromIndex, toIndex).clear();
+			modified();
+		}
+
+		@Override
+		public void clear() {
+			removeRange(0, tokens.size());
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super Token> filter) {
+			boolean removed = tokens.removeIf(filter);
+			if (removed) {
+				modified();
+			}
+			return removed;
+		}
+	}
+
 }
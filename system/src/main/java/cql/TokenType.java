@@ -33,7 +33,8 @@ public enum TokenType {
 	TABLE_NAME_DECLARATION("TABLE NAME DECLARATION"), TRUE("TRUE"),FIELD_NAME_DECLARATION("FIELD NAME DECLARATION"), 
 	FIELD_VALUE("FIELD VALUE"), FIELD_LIST("FIELD LIST"), DROP("DROP"), DROP_COMMAND("DROP_COMMAND"), ALLOW("ALLOW"), 
 	FILTERING("FILTERING"), USING("USING"), ALLOW_PARAMETER("ALLOW PARAMETER"), TTL_PARAMETER("TTL PARAMETER"), 
-	LIMIT_OPTION("LIMIT OPTION"), LIMIT("LIMIT");
+	LIMIT_OPTION("LIMIT OPTION"), LIMIT("LIMIT"), CREATE_TABLE_NAME("CREATE TABLE NAME"), COLUMN_LIST("COLUMN LIST"), 
+	COLUMN_DEFINITION("COLUMN DEFINITION"), TABLE_OPTIONS("TABLE OPTIONS");
 	//@formatter:on
 
 	private String name = null;
@@ -0,0 +1,17 @@
+package cql;
+
+import cql.lexicalparser.exceptions.CQLFormatException;
+
+/*
+ * Writes a value of a type as a CQL literal. The token is the one formatting
+ * the value: its time zone applies, and its format(token, value, cql) writes
+ * the items of a collection with their own codecs.
+ *
+ * */
+
+@FunctionalInterface
+public interface TypeCodec<T> {
+
+	public void format(Token token, T value, StringBuilder cql) throws CQLFormatException;
+
+}
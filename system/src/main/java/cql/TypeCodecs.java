@@ -0,0 +1,207 @@
+package cql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Codecs of the values that Token.format writes, by class.
+ *
+ * The codec of a class is the one registered for it, or else for its nearest
+ * superclass, or else for the first of its interfaces, breadth first. The
+ * result is kept in a ClassValue, so formatting a value is a single lookup.
+ * Registering a codec starts a new cache, so it also applies to the classes
+ * already looked up.
+ *
+ * Built in: String, the boxed numbers and Boolean, BigDecimal, BigInteger,
+ * UUID, InetAddress, enums (by name, as text), byte[] and ByteBuffer (as
+ * blobs), LocalDate, ZonedDateTime, Date and Instant (in the time zone of the
+ * token), List, Set and Map.
+ *
+ * */
+
+public final class TypeCodecs {
+
+	private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssZ");
+
+	private static final char[] HEXA = "0123456789abcdef".toCharArray();
+
+	// zones of the timeZoneGMT of the tokens
+	private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+	private static final Map<Class<?>, TypeCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+	private static volatile ClassValue<TypeCodec<?>> cache = newCache();
+
+	static {
+		TypeCodec<Object> text = (token, value, cql) -> cql.append(value);
+		for (Class<?> type : new Class<?>[] { Integer.class, Long.class, Short.class, Byte.class, Float.class,
+				Double.class, Boolean.class, BigInteger.class, UUID.class }) {
+			CODECS.put(type, text);
+		}
+
+		register(String.class, (token, value, cql) -> quote(value, cql));
+		register(BigDecimal.class, (token, value, cql) -> cql.append(value.toPlainString()));
+		register(InetAddress.class, (token, value, cql) -> quote(value.getHostAddress(), cql));
+		register(Enum.class, (token, value, cql) -> quote(value.name(), cql));
+
+		register(byte[].class, (token, value, cql) -> {
+			cql.append("0x");
+			for (byte b : value) {
+				cql.append(HEXA[(b >> 4) & 0xF]).append(HEXA[b & 0xF]);
+			}
+		});
+		register(ByteBuffer.class, (token, value, cql) -> {
+			cql.append("0x");
+			for (int index = value.position(); index < value.limit(); index++) {
+				byte b = value.get(index);
+				cql.append(HEXA[(b >> 4) & 0xF]).append(HEXA[b & 0xF]);
+			}
+		});
+
+		register(LocalDate.class, (token, value, cql) -> {
+			cql.append('\'');
+			DATE.formatTo(value, cql);
+			cql.append('\'');
+		});
+		register(ZonedDateTime.class, (token, value, cql) -> {
+			cql.append('\'');
+			TIMESTAMP.formatTo(value, cql);
+			cql.append('\'');
+		});
+		// java.sql.Date has no toInstant()
+		register(Date.class, (token, value, cql) -> timestamp(token, Instant.ofEpochMilli(value.getTime()), cql));
+		register(Instant.class, (token, value, cql) -> timestamp(token, value, cql));
+
+		register(List.class, (token, value, cql) -> {
+			boolean first = true;
+			for (Object subvalue : value) {
+				cql.append(first ? "[" : ",");
+				first = false;
+				token.format(token, subvalue, cql);
+			}
+			cql.append("]");
+		});
+		register(Set.class, (token, value, cql) -> {
+			boolean first = true;
+			for (Object subvalue : value) {
+				cql.append(first ? "{" : ",");
+				first = false;
+				token.format(token, subvalue, cql);
+			}
+			cql.append("}");
+		});
+		register(Map.class, (token, value, cql) -> {
+			Map<?, ?> map = value;
+			cql.append("{");
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				if (first) {
+					first = false;
+				} else {
+					cql.append(",");
+				}
+				token.format(token, entry.getKey(), cql);
+				cql.append(":");
+				token.format(token, entry.getValue(), cql);
+			}
+			cql.append("}");
+		});
+	}
+
+	private TypeCodecs() {
+	}
+
+	// the codec also applies to the subclasses and implementations of the type
+	public static <T> void register(Class<T> type, TypeCodec<? super T> codec) {
+		CODECS.put(type, codec);
+		cache = newCache();
+	}
+
+	public static void remove(Class<?> type) {
+		CODECS.remove(type);
+		cache = newCache();
+	}
+
+	// null when no codec applies to the type
+	@SuppressWarnings("unchecked")
+	public static <T> TypeCodec<? super T> get(Class<T> type) {
+		return (TypeCodec<? super T>) cache.get(type);
+	}
+
+	private static ClassValue<TypeCodec<?>> newCache() {
+		return new ClassValue<TypeCodec<?>>() {
+
+			@Override
+			protected TypeCodec<?> computeValue(Class<?> type) {
+				return resolve(type);
+			}
+		};
+	}
+
+	private static TypeCodec<?> resolve(Class<?> type) {
+		for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+			TypeCodec<?> codec = CODECS.get(superclass);
+			if (codec != null) {
+				return codec;
+			}
+		}
+
+		Deque<Class<?>> pending = new ArrayDeque<>();
+		Set<Class<?>> visited = new HashSet<>();
+		for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+			pending.add(superclass);
+		}
+		while (!pending.isEmpty()) {
+			for (Class<?> implemented : pending.poll().getInterfaces()) {
+				if (!visited.add(implemented)) {
+					continue;
+				}
+				TypeCodec<?> codec = CODECS.get(implemented);
+				if (codec != null) {
+					return codec;
+				}
+				pending.add(implemented);
+			}
+		}
+		return null;
+	}
+
+	private static void quote(String text, StringBuilder cql) {
+		cql.append('\'');
+		for (int index = 0; index < text.length(); index++) {
+			char character = text.charAt(index);
+			if (character == '\'') {
+				cql.append('\'');
+			}
+			cql.append(character);
+		}
+		cql.append('\'');
+	}
+
+	private static void timestamp(Token token, Instant instant, StringBuilder cql) {
+		ZoneId zone = ZONES.computeIfAbsent(token.getTimeZoneGMT(), id -> TimeZone.getTimeZone(id).toZoneId());
+		cql.append('\'');
+		TIMESTAMP.formatTo(instant.atZone(zone), cql);
+		cql.append('\'');
+	}
+
+}
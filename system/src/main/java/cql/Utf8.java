@@ -0,0 +1,110 @@
+package cql;
+
+import java.nio.ByteBuffer;
+
+/*
+ * UTF-8 encoding of text straight into a ByteBuffer, with no String.getBytes
+ * copy. A surrogate with no pair is written as ?, as String.getBytes does.
+ *
+ * */
+
+final class Utf8 {
+
+	private static final byte REPLACEMENT = '?';
+
+	private Utf8() {
+	}
+
+	static int length(CharSequence text, int start, int end) {
+		int length = end - start;
+		for (int index = start; index < end; index++) {
+			char character = text.charAt(index);
+			if (character < 0x80) {
+				continue;
+			}
+			if (character < 0x800) {
+				length++;
+			} else if (Character.isHighSurrogate(character) && index + 1 < end
+					&& Character.isLowSurrogate(text.charAt(index + 1))) {
+				// 4 bytes for the 2 chars of the pair
+				length += 2;
+				index++;
+			} else if (!Character.isSurrogate(character)) {
+				length += 2;
+			}
+		}
+		return length;
+	}
+
+	static int length(CharSequence text) {
+		return length(text, 0, text.length());
+	}
+
+	// the buffer must have room for length(text, start, end) bytes
+	static void encode(CharSequence text, int start, int end, ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			byte[] array = buffer.array();
+			int position = buffer.arrayOffset() + buffer.position();
+			position = encode(text, start, end, array, position);
+			buffer.position(position - buffer.arrayOffset());
+			return;
+		}
+
+		for (int index = start; index < end; index++) {
+			char character = text.charAt(index);
+			if (character < 0x80) {
+				buffer.put((byte) character);
+			} else if (character < 0x800) {
+				buffer.put((byte) (0xC0 | (character >> 6)));
+				buffer.put((byte) (0x80 | (character & 0x3F)));
+			} else if (Character.isHighSurrogate(character) && index + 1 < end
+					&& Character.isLowSurrogate(text.charAt(index + 1))) {
+				int codePoint = Character.toCodePoint(character, text.charAt(++index));
+				buffer.put((byte) (0xF0 | (codePoint >> 18)));
+				buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+			} else if (Character.isSurrogate(character)) {
+				buffer.put(REPLACEMENT);
+			} else {
+				buffer.put((byte) (0xE0 | (character >> 12)));
+				buffer.put((byte) (0x80 | ((character >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (character & 0x3F)));
+			}
+		}
+	}
+
+	static byte[] encode(CharSequence text) {
+		byte[] bytes = new byte[length(text)];
+		encode(text, 0, text.length(), bytes, 0);
+		return bytes;
+	}
+
+	// position in the array after the text
+	private static int encode(CharSequence text, int start, int end, byte[] array, int position) {
+		for (int index = start; index < end; index++) {
+			char character = text.charAt(index);
+			if (character < 0x80) {
+				array[position++] = (byte) character;
+			} else if (character < 0x800) {
+				array[position++] = (byte) (0xC0 | (character >> 6));
+				array[position++] = (byte) (0x80 | (character & 0x3F));
+			} else if (Character.isHighSurrogate(character) && index + 1 < end
+					&& Character.isLowSurrogate(text.charAt(index + 1))) {
+				int codePoint = Character.toCodePoint(character, text.charAt(++index));
+				array[position++] = (byte) (0xF0 | (codePoint >> 18));
+				array[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				array[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				array[position++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(character)) {
+				array[position++] = REPLACEMENT;
+			} else {
+				array[position++] = (byte) (0xE0 | (character >> 12));
+				array[position++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+				array[position++] = (byte) (0x80 | (character & 0x3F));
+			}
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,94 @@
+package cql.lexicalparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+/*
+ * Parses many statements at once over an executor.
+ *
+ * The batch is shared by a number of tasks equal to the parallelism. Each task
+ * takes the next statement not taken yet until none is left, so a slow
+ * statement does not hold a fixed slice, and parses it over a LexicalContext of
+ * its own that it reuses for all its statements. The results come back in the
+ * order of the input, one ParseResult by statement: an invalid statement, a
+ * null one or one where an analyzer throws keeps its exception and does not
+ * stop the others.
+ *
+ * The LexicalParser is only read. A setter called while a batch runs can
+ * reach the statements in flight, so a batch that must see a single
+ * configuration takes a parser made by LexicalParser.builder().
+ * By default the batch runs on the common ForkJoinPool. Any Executor can be
+ * given instead, as a fixed pool or, from Java 21,
+ * Executors.newVirtualThreadPerTaskExecutor(): the scratch context belongs to
+ * the task and not to the thread, so it is reused with virtual threads too.
+ *
+ * */
+
+public class BatchParser {
+
+	private final LexicalParser lexicalParser;
+
+	private final Executor executor;
+
+	private final int parallelism;
+
+	public BatchParser(LexicalParser lexicalParser) {
+		this(lexicalParser, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	public BatchParser(LexicalParser lexicalParser, Executor executor, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1, not " + parallelism);
+		}
+		this.lexicalParser = lexicalParser;
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public List<ParseResult> parseAll(Stream<String> cqls) {
+		return parseAll(cqls.collect(Collectors.toList()));
+	}
+
+	public List<ParseResult> parseAll(Collection<String> cqls) {
+		String[] statements = cqls.toArray(new String[cqls.size()]);
+		ParseResult[] results = new ParseResult[statements.length];
+		AtomicInteger next = new AtomicInteger();
+
+		int tasks = Math.min(parallelism, statements.length);
+		List<CompletableFuture<Void>> futures = new ArrayList<>(tasks);
+		for (int task = 0; task < tasks; task++) {
+			futures.add(CompletableFuture.runAsync(() -> parse(statements, results, next), executor));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[tasks])).join();
+
+		return Arrays.asList(results);
+	}
+
+	private void parse(String[] statements, ParseResult[] results, AtomicInteger next) {
+		LexicalContext scratch = new LexicalContext("");
+
+		for (int index = next.getAndIncrement(); index < statements.length; index = next.getAndIncrement()) {
+			String cql = statements[index];
+			try {
+				results[index] = new ParseResult(cql, lexicalParser.isCQL(cql, scratch), null);
+			} catch (LexicalParserException | RuntimeException e) {
+				results[index] = new ParseResult(cql, null, e);
+			}
+		}
+	}
+
+}
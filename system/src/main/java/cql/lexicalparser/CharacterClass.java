@@ -0,0 +1,100 @@
+package cql.lexicalparser;
+
+/*
+ * Character classes of the lexical rules.
+ *
+ * ASCII characters are looked up in a 128 entry table of class bits, so the
+ * scanners of CHARS, SPACES, NUMBER and ABSOLUTE HEXA are a single loop over
+ * the source with no boxing and no buffer. Only CHARS accepts characters
+ * outside ASCII, and only for those it falls back to Character.isAlphabetic
+ * and Character.isDigit, reading whole code points.
+ *
+ * The scanners return the offset where the run of the class ends, which is
+ * the offset given when there is none.
+ *
+ * */
+
+final class CharacterClass {
+
+	static final int SPACE = 1;
+
+	static final int DIGIT = 1 << 1;
+
+	static final int HEXA_LETTER = 1 << 2;
+
+	static final int LETTER = 1 << 3;
+
+	static final int SYMBOL = 1 << 4;
+
+	// <CHARS> ::= (a-Z0-9_)
+	static final int CHAR = DIGIT | LETTER;
+
+	static final int HEXA_DIGIT = DIGIT | HEXA_LETTER;
+
+	private static final byte[] CLASSES = new byte[128];
+
+	static {
+		add(SPACE, " \n\t");
+		add(DIGIT, "0123456789");
+		add(HEXA_LETTER, "abcdefABCDEF");
+		add(LETTER, "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_");
+		// <SYMBOL> ::= = | < | > | ! | + | - | / | * | ( | ) | { | } | , [ | ]
+		add(SYMBOL, "=+<>!-/*(){},[]");
+	}
+
+	private CharacterClass() {
+	}
+
+	private static void add(int type, String characters) {
+		for (int index = 0; index < characters.length(); index++) {
+			CLASSES[characters.charAt(index)] |= type;
+		}
+	}
+
+	// only for ASCII, any other character is in no class
+	static boolean is(char character, int type) {
+		return character < 128 && (CLASSES[character] & type) != 0;
+	}
+
+	static boolean isSpace(char character) {
+		return is(character, SPACE);
+	}
+
+	static boolean isDigit(char character) {
+		return is(character, DIGIT);
+	}
+
+	static boolean isHexaDigit(char character) {
+		return is(character, HEXA_DIGIT);
+	}
+
+	static int scan(CharSequence text, int offset, int type) {
+		int index = offset;
+		while (index < text.length() && is(text.charAt(index), type)) {
+			index++;
+		}
+		return index;
+	}
+
+	static int scanChars(String text, int offset) {
+		int index = offset;
+		while (index < text.length()) {
+			char character = text.charAt(index);
+			if (character < 128) {
+				if ((CLASSES[character] & CHAR) == 0) {
+					break;
+				}
+				index++;
+				continue;
+			}
+
+			int codePoint = text.codePointAt(index);
+			if (!Character.isAlphabetic(codePoint) && !Character.isDigit(codePoint)) {
+				break;
+			}
+			index += Character.charCount(codePoint);
+		}
+		return index;
+	}
+
+}
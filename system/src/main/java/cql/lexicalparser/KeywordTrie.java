@@ -0,0 +1,107 @@
+package cql.lexicalparser;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/*
+ * Case insensitive trie of the reserved words.
+ *
+ * The words are compiled once into an int table with a row per node and a
+ * column per letter (A-Z and _). A match walks the text from the offset and
+ * reads at most the length of the longest word plus the stop character, with
+ * no substring or upper case copy of the text.
+ *
+ * A word only matches when it is followed by a space or the end of the text,
+ * as the RESERVED WORD rule reads it.
+ *
+ * */
+
+final class KeywordTrie {
+
+	private static final int LETTERS = 27;
+
+	private int[] children = new int[LETTERS * 16];
+
+	private boolean[] words = new boolean[16];
+
+	private int nodes = 1;
+
+	KeywordTrie(Collection<String> keywords) {
+		for (String keyword : keywords) {
+			add(keyword);
+		}
+	}
+
+	private void add(String keyword) {
+		int node = 0;
+		for (int index = 0; index < keyword.length(); index++) {
+			int letter = letter(keyword.charAt(index));
+			if (letter < 0) {
+				throw new IllegalArgumentException("Invalid keyword " + keyword);
+			}
+
+			int child = children[node * LETTERS + letter];
+			if (child == 0) {
+				child = newNode();
+				children[node * LETTERS + letter] = child;
+			}
+			node = child;
+		}
+		words[node] = true;
+	}
+
+	private int newNode() {
+		if (nodes == words.length) {
+			words = Arrays.copyOf(words, nodes * 2);
+			children = Arrays.copyOf(children, nodes * 2 * LETTERS);
+		}
+		return nodes++;
+	}
+
+	// length of the keyword at the offset, -1 when there is none
+	int match(CharSequence text, int offset) {
+		int node = 0;
+		for (int index = offset; index < text.length(); index++) {
+			char character = text.charAt(index);
+			if (character == ' ') {
+				return words[node] ? index - offset : -1;
+			}
+
+			int letter = letter(Character.toUpperCase(character));
+			if (letter < 0) {
+				return -1;
+			}
+
+			node = children[node * LETTERS + letter];
+			if (node == 0) {
+				return -1;
+			}
+		}
+		return words[node] ? text.length() - offset : -1;
+	}
+
+	// whether text[start, end) is a keyword
+	boolean contains(CharSequence text, int start, int end) {
+		int node = 0;
+		for (int index = start; index < end; index++) {
+			int letter = letter(Character.toUpperCase(text.charAt(index)));
+			if (letter < 0) {
+				return false;
+			}
+
+			node = children[node * LETTERS + letter];
+			if (node == 0) {
+				return false;
+			}
+		}
+		return words[node];
+	}
+
+	private static int letter(char character) {
+		if (character >= 'A' && character <= 'Z') {
+			return character - 'A';
+		}
+		return (character == '_') ? LETTERS - 1 : -1;
+	}
+
+}
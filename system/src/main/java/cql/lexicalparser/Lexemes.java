@@ -0,0 +1,90 @@
+package cql.lexicalparser;
+
+import java.util.Arrays;
+
+import cql.TokenType;
+
+/*
+ * Flat result of the Lexer.
+ *
+ * Three parallel int arrays keep, for each lexeme in source order, its kind
+ * (the ordinal of a TokenType) and its start and end offsets in the source.
+ * Nothing is allocated by lexeme, so a statement is lexed in a single pass
+ * over the text into a few arrays.
+ *
+ * */
+
+public class Lexemes {
+
+	private static final TokenType[] TYPES = TokenType.values();
+
+	private final String source;
+
+	private int[] kinds = new int[16];
+
+	private int[] starts = new int[16];
+
+	private int[] ends = new int[16];
+
+	private int size = 0;
+
+	Lexemes(String source) {
+		this.source = source;
+	}
+
+	void add(TokenType type, int start, int end) {
+		if (size == kinds.length) {
+			kinds = Arrays.copyOf(kinds, size * 2);
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+		}
+		kinds[size] = type.ordinal();
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public TokenType getType(int index) {
+		return TYPES[kinds[index]];
+	}
+
+	public int getStart(int index) {
+		return starts[index];
+	}
+
+	public int getEnd(int index) {
+		return ends[index];
+	}
+
+	public String getContent(int index) {
+		return source.substring(starts[index], ends[index]);
+	}
+
+	// TokenType ordinals
+	public int[] getKinds() {
+		return Arrays.copyOf(kinds, size);
+	}
+
+	public int[] getStarts() {
+		return Arrays.copyOf(starts, size);
+	}
+
+	public int[] getEnds() {
+		return Arrays.copyOf(ends, size);
+	}
+
+	// index of the lexeme that starts at the offset, -1 when none does
+	public int indexOf(int offset) {
+		int index = Arrays.binarySearch(starts, 0, size, offset);
+		return (index < 0) ? -1 : index;
+	}
+
+}
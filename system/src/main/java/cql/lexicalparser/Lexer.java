@@ -0,0 +1,117 @@
+package cql.lexicalparser;
+
+import cql.TokenType;
+
+/*
+ * Single pass tokenizer of a statement.
+ *
+ * The text is split, left to right and with no backtracking, in lexemes of
+ * these types:
+ *
+ * SPACES - a run of spaces, tabs and new lines
+ * STRING - a single or double quoted text, with doubled quotes inside
+ * HEX - 0x followed by hexa digits
+ * NUMBER - a run of digits
+ * RESERVED WORD - a word of RESERVED_WORDS, in any case
+ * CHARS - any other word of letters, digits and _
+ * INJECT, ACESSOR, DOUBLE DOT, DOT COMMA, COMMA and SYMBOL - one character
+ * ANY - any other character, or a quote that is never closed up to the end
+ *
+ * The lexemes cover the whole text. The result is meant for tools that only
+ * need the words, like syntax highlighting, and for the LexicalParser, which
+ * reuses the spaces, strings and words found here when a LexicalContext has
+ * them, instead of scanning the text again at each backtrack.
+ *
+ * */
+
+public class Lexer {
+
+	public Lexemes tokenize(String text) {
+		Lexemes lexemes = new Lexemes(text);
+
+		int index = 0;
+		while (index < text.length()) {
+			char character = text.charAt(index);
+			int start = index;
+
+			if (CharacterClass.isSpace(character)) {
+				index = CharacterClass.scan(text, index, CharacterClass.SPACE);
+				lexemes.add(TokenType.SPACES, start, index);
+				continue;
+			}
+
+			if (character == '\'' || character == '"') {
+				index = endOfString(text, index, character);
+				if (index < 0) {
+					index = text.length();
+					lexemes.add(TokenType.ANY, start, index);
+				} else {
+					lexemes.add(TokenType.STRING, start, index);
+				}
+				continue;
+			}
+
+			index = CharacterClass.scanChars(text, index);
+			if (index > start) {
+				lexemes.add(word(text, start, index), start, index);
+				continue;
+			}
+
+			index = start + Character.charCount(text.codePointAt(start));
+			lexemes.add(single(character), start, index);
+		}
+
+		return lexemes;
+	}
+
+	// end of the string, after its closing quote, or -1 when it is not closed
+	private int endOfString(String text, int offset, char quote) {
+		int index = offset + 1;
+		while (true) {
+			int next = text.indexOf(quote, index);
+			if (next < 0) {
+				return -1;
+			}
+			if (next + 1 < text.length() && text.charAt(next + 1) == quote) {
+				index = next + 2;
+				continue;
+			}
+			return next + 1;
+		}
+	}
+
+	private TokenType word(String text, int start, int end) {
+		if (CharacterClass.scan(text, start, CharacterClass.DIGIT) == end) {
+			return TokenType.NUMBER;
+		}
+
+		if (end - start > 2 && text.charAt(start) == '0' && (text.charAt(start + 1) | 0x20) == 'x'
+				&& CharacterClass.scan(text, start + 2, CharacterClass.HEXA_DIGIT) == end) {
+			return TokenType.HEX;
+		}
+
+		if (LexicalParser.KEYWORDS.contains(text, start, end)) {
+			return TokenType.RESERVED_WORD;
+		}
+
+		return TokenType.CHARS;
+	}
+
+	private TokenType single(char character) {
+		switch (character) {
+		case '?':
+			return TokenType.INJECT;
+		case '.':
+			return TokenType.ACESSOR;
+		case ':':
+			return TokenType.DOUBLE_DOT;
+		case ';':
+			return TokenType.DOT_COMMA;
+		case ',':
+			return TokenType.COMMA;
+		default:
+			return CharacterClass.is(character, CharacterClass.SYMBOL) ? TokenType.SYMBOL : TokenType.ANY;
+		}
+	}
+
+}
@@ -0,0 +1,246 @@
+package cql.lexicalparser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import cql.Token;
+import cql.TokenType;
+
+/*
+ * Shared state of a single parse.
+ *
+ * Every rule of the LexicalParser reads the same source buffer and receives an
+ * int offset instead of a substring with the remaining text, so tokens keep
+ * only their bounds in the source.
+ *
+ * A context built from the Lexemes of the Lexer lets the rules take the
+ * spaces, words and strings found there instead of scanning them again.
+ *
+ * Rules with a lookahead table count here how many alternatives the table
+ * skipped. A context made by withoutLookahead() makes them try every
+ * alternative, as the parser does with diagnostics on to name what the
+ * skipped ones expected.
+ *
+ * When memoization is on, the context also keeps the result of each memoized
+ * rule by (rule, offset), so a rule runs at most once per position even when
+ * several alternatives try it again.
+ *
+ * A rule that fails does not throw: it returns null and records here the
+ * furthest offset where some rule failed and which token types were expected
+ * there. The entry point builds the exception from it once.
+ *
+ * */
+
+public class LexicalContext {
+
+	private static final Token FAILURE = new Token(TokenType.ANY);
+
+	private String source = null;
+
+	private Lexemes lexemes = null;
+
+	// index of the lexeme that starts at each offset, -1 inside a lexeme
+	private int[] lexemeIndexes = null;
+
+	private boolean memoization = false;
+
+	private boolean lookahead = true;
+
+	private Token[][] memo = null;
+
+	private long memoHits = 0;
+
+	private long memoMisses = 0;
+
+	private long lookaheads = 0;
+
+	private long skippedAlternatives = 0;
+
+	private int failureOffset = -1;
+
+	private Set<TokenType> expected = EnumSet.noneOf(TokenType.class);
+
+	public LexicalContext(String source) {
+		this(source, false);
+	}
+
+	public LexicalContext(String source, boolean memoization) {
+		this.source = source;
+		this.memoization = memoization;
+	}
+
+	public LexicalContext(Lexemes lexemes, boolean memoization) {
+		this(lexemes.getSource(), memoization);
+		indexLexemes(lexemes);
+	}
+
+	/*
+	 * Starts a new parse of the source over this context. The memo rows and
+	 * the lexeme index that are long enough are cleared and kept, so a context
+	 * reused for many statements, as the BatchParser does for each task,
+	 * allocates them only for the longest one.
+	 */
+	void reset(String source, Lexemes lexemes, boolean memoization) {
+		this.source = source;
+		this.memoization = memoization;
+		this.lookahead = true;
+
+		if (memo != null) {
+			for (int index = 0; index < memo.length; index++) {
+				Token[] row = memo[index];
+				if (row != null && row.length > source.length()) {
+					Arrays.fill(row, 0, source.length() + 1, null);
+				} else {
+					memo[index] = null;
+				}
+			}
+		}
+
+		this.lexemes = null;
+		if (lexemes != null) {
+			indexLexemes(lexemes);
+		}
+
+		memoHits = 0;
+		memoMisses = 0;
+		lookaheads = 0;
+		skippedAlternatives = 0;
+		failureOffset = -1;
+		expected.clear();
+	}
+
+	private void indexLexemes(Lexemes lexemes) {
+		this.lexemes = lexemes;
+
+		if (lexemeIndexes == null || lexemeIndexes.length < source.length()) {
+			lexemeIndexes = new int[source.length()];
+		}
+		Arrays.fill(lexemeIndexes, -1);
+		for (int index = 0; index < lexemes.size(); index++) {
+			lexemeIndexes[lexemes.getStart(index)] = index;
+		}
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public Lexemes getLexemes() {
+		return lexemes;
+	}
+
+	public int length() {
+		return source.length();
+	}
+
+	public boolean isMemoization() {
+		return memoization;
+	}
+
+	public boolean isLookahead() {
+		return lookahead;
+	}
+
+	// a new context over the same source and lexemes whose rules try every
+	// alternative
+	LexicalContext withoutLookahead() {
+		LexicalContext context = new LexicalContext(source, memoization);
+		if (lexemes != null) {
+			context.indexLexemes(lexemes);
+		}
+		context.lookahead = false;
+		return context;
+	}
+
+	public long getMemoHits() {
+		return memoHits;
+	}
+
+	public long getMemoMisses() {
+		return memoMisses;
+	}
+
+	public double getMemoHitRatio() {
+		long total = memoHits + memoMisses;
+		return (total == 0) ? 0 : (double) memoHits / total;
+	}
+
+	public long getLookaheads() {
+		return lookaheads;
+	}
+
+	// alternatives that a lookahead table ruled out before trying them
+	public long getSkippedAlternatives() {
+		return skippedAlternatives;
+	}
+
+	public int getFailureOffset() {
+		return failureOffset;
+	}
+
+	public Set<TokenType> getExpected() {
+		return Collections.unmodifiableSet(expected);
+	}
+
+	// takes the failure recorded by another parse of the same source
+	void fail(LexicalContext context) {
+		failureOffset = context.failureOffset;
+		expected.clear();
+		expected.addAll(context.expected);
+	}
+
+	void fail(TokenType type, int offset) {
+		if (offset < failureOffset) {
+			return;
+		}
+		if (offset > failureOffset) {
+			failureOffset = offset;
+			expected.clear();
+		}
+		expected.add(type);
+	}
+
+	// index of the lexeme that starts at the offset, -1 without lexemes or when
+	// none starts there
+	int lexemeAt(int offset) {
+		return (lexemes == null || offset >= lexemeIndexes.length) ? -1 : lexemeIndexes[offset];
+	}
+
+	void predict(int skipped) {
+		lookaheads++;
+		skippedAlternatives += skipped;
+	}
+
+	boolean isMemoized(TokenType type, int offset) {
+		Token[] row = (memo == null) ? null : memo[type.ordinal()];
+		boolean memoized = row != null && row[offset] != null;
+		if (memoized) {
+			memoHits++;
+		} else {
+			memoMisses++;
+		}
+		return memoized;
+	}
+
+	// null when the rule failed at the offset
+	Token recall(TokenType type, int offset) {
+		Token token = memo[type.ordinal()][offset];
+		return (token == FAILURE) ? null : token;
+	}
+
+	Token memoize(TokenType type, int offset, Token token) {
+		if (memo == null) {
+			memo = new Token[TokenType.values().length][];
+		}
+		Token[] row = memo[type.ordinal()];
+		if (row == null) {
+			row = new Token[source.length() + 1];
+			memo[type.ordinal()] = row;
+		}
+		row[offset] = (token == null) ? FAILURE : token;
+		return token;
+	}
+
+}
@@ -0,0 +1,9 @@
+package cql.lexicalparser;
+
+import cql.Token;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@FunctionalInterface
+public interface LexicalContextTester {
+	public Token is(LexicalContext context, int offset, boolean required) throws LexicalParserException;
+}
@@ -1,7 +1,11 @@
 package cql.lexicalparser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -13,15 +17,34 @@ import cql.lexicalparser.exceptions.LexicalParserException;
  * That class implements a Lexical Analyzer and a simple Parser (Sintatical Analyzer).
  *
  * Lexical Analyzer : Scanner the string and split in a set of tokens.
- * 
+ *
  * Parser : Sort the tokens in a hierarquecal tree.
- * 
+ *
+ * Each rule has two forms: is*(String text, boolean required), that parses the
+ * start of the text, and is*(LexicalContext context, int offset, boolean required),
+ * that parses the shared source of the context from the offset. The first one
+ * only wraps the second, so both build the same tree.
+ *
+ * A parse keeps all its state in its LexicalContext and only reads the
+ * configuration of the parser, a snapshot whose fields are all final. The
+ * setters do not change a snapshot, they replace it with a copy. A parser made
+ * by LexicalParser.builder() keeps the snapshot of build() for good, its
+ * setters throw UnsupportedOperationException, so a single instance can serve
+ * any number of threads at once. A parser made with new is safe to share too:
+ * a rule always sees a whole snapshot, but a parse that runs while a setter is
+ * called can read the old one in some rules and the new one in others.
  *
  * */
 
 public class LexicalParser {
 
-	private String timeZoneGMT = "GMT-00";
+	// replaced as a whole by the setters
+	private volatile Config config;
+
+	// built by a Builder, the configuration can not change
+	private final boolean immutable;
+
+	private static final Lexer LEXER = new Lexer();
 
 	private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList("ADD", "ALL", "ALTER", "AND", "ANY",
 			"APPLY", "AS", "ASC", "ASCII", "AUTHORIZE", "BATCH", "BEGIN", "BIGINT", "BLOB", "BOOLEAN", "BY",
@@ -33,19 +56,186 @@ public class LexicalParser {
 			"TIMEUUID", "TO", "TOKEN", "THREE", "TRUNCATE", "TTL", "TWO", "TYPE", "UNLOGGED", "UPDATE", "USE", "USER",
 			"USING", "UUID", "VALUES", "VARCHAR", "VARINT", "WITH", "WRITETIME", "WHERE"));
 
-	// <SYMBOL> ::= = | + | - | / | * | ( | ) | { | } | , [ | ]
-	private static final Set<Character> SYMBOLS = new HashSet<>(
-			Arrays.asList('=', '+', '<', '>', '!', '-', '/', '*', '(', ')', '{', '}', ',', '[', ']'));
+	static final KeywordTrie KEYWORDS = new KeywordTrie(RESERVED_WORDS);
+
+	// types of the rules that look for an analyzer
+	private static final Set<TokenType> ANALYZABLE = Collections.unmodifiableSet(EnumSet.of(TokenType.ALIAS,
+			TokenType.ARRAY, TokenType.ARRAY_BRACE, TokenType.ARRAY_BRACKET, TokenType.BOOLEAN, TokenType.CHARS,
+			TokenType.CONDITIONS, TokenType.CONDITION_ITEM, TokenType.CREATE_INDEX_COMMAND,
+			TokenType.CREATE_TABLE_COMMAND, TokenType.DELETE_COMMAND, TokenType.END_COMMON_COMMAND,
+			TokenType.ENTITY_NAME, TokenType.FIELD_NAME, TokenType.FIELD_VALUE, TokenType.FUNCTION, TokenType.HEX,
+			TokenType.INSERT_COMMAND, TokenType.ITEMNAME, TokenType.ITEM_NAME_CASE_INSENSITIVE,
+			TokenType.ITEM_NAME_CASE_SENSITIVE, TokenType.KEY, TokenType.LITERAL, TokenType.MAP, TokenType.NUMBER,
+			TokenType.OTHER_COMMAND, TokenType.PROPERTIES, TokenType.PROPERTY, TokenType.RESERVED_WORD,
+			TokenType.SELECTOR_BLOCK, TokenType.SELECTOR_ITEM_STRICT, TokenType.START_DELETE_COMMAND, TokenType.STRING,
+			TokenType.TABLE_NAME, TokenType.UPDATE_COMMAND));
+
+	// types of the lexemes that the rules take from the Lexer
+	private static final Set<TokenType> SPACES = EnumSet.of(TokenType.SPACES);
+
+	private static final Set<TokenType> STRINGS = EnumSet.of(TokenType.STRING);
+
+	private static final Set<TokenType> WORDS = EnumSet.of(TokenType.CHARS, TokenType.NUMBER, TokenType.HEX,
+			TokenType.RESERVED_WORD);
 
 	public LexicalParser() {
+		this(new Builder(), false);
+	}
+
+	private LexicalParser(Builder builder, boolean immutable) {
+		this.config = new Config(builder);
+		this.immutable = immutable;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public boolean isImmutable() {
+		return immutable;
+	}
+
+	// the configuration with a change of the builder, that a setter applies
+	private Builder change() {
+		if (immutable) {
+			throw new UnsupportedOperationException("The LexicalParser was built immutable");
+		}
+		return new Builder(config);
 	}
 
 	public String getTimeZoneGMT() {
-		return timeZoneGMT;
+		return config.timeZoneGMT;
 	}
 
 	public void setTimeZoneGMT(String timeZoneGMT) {
-		this.timeZoneGMT = timeZoneGMT;
+		config = new Config(change().timeZoneGMT(timeZoneGMT));
+	}
+
+	public boolean isMemoization() {
+		return config.memoization;
+	}
+
+	/*
+	 * Keeps the result of the rules that alternatives try again at the same
+	 * position, so each one runs at most once per offset. Applies to the
+	 * parses started with a String, a LexicalContext chooses it by itself.
+	 */
+	public void setMemoization(boolean memoization) {
+		config = new Config(change().memoization(memoization));
+	}
+
+	public boolean isNestedLists() {
+		return config.nestedLists;
+	}
+
+	/*
+	 * The list rules (CONDITIONS, FIELD LIST, SELECTOR BLOCK, PROPERTIES,
+	 * OTHER COMMAND and END COMMON COMMAND) give their items as siblings. With
+	 * nested lists on, each item after the first starts a new token of the
+	 * list type with the rest of the list, as the recursive grammar reads.
+	 */
+	public void setNestedLists(boolean nestedLists) {
+		config = new Config(change().nestedLists(nestedLists));
+	}
+
+	public boolean isLookahead() {
+		return config.lookahead;
+	}
+
+	/*
+	 * The alternations (COMMAND, LITERAL, FIELD VALUE, ...) look at the next
+	 * character and only try the alternatives that can start with it. Without
+	 * lookahead every alternative is tried in order.
+	 */
+	public void setLookahead(boolean lookahead) {
+		config = new Config(change().lookahead(lookahead));
+	}
+
+	public boolean isLexer() {
+		return config.lexer;
+	}
+
+	/*
+	 * The text is first split by the Lexer in a single pass, and SPACES, CHARS
+	 * and the content of strings take the end of the lexeme found at the
+	 * offset instead of scanning the text again. Applies to the parses started
+	 * with a String, as memoization does.
+	 */
+	public void setLexer(boolean lexer) {
+		config = new Config(change().lexer(lexer));
+	}
+
+	public static Set<TokenType> getAnalyzableTypes() {
+		return ANALYZABLE;
+	}
+
+	public LexicalParserAnalyzer getAnalyzer(TokenType type) {
+		return config.analyzers[type.ordinal()];
+	}
+
+	/*
+	 * The analyzer takes the place of the rule of its type wherever the
+	 * grammar reaches it, as for a custom LITERAL. Only the rules of the
+	 * analyzable types look for one, each in a slot of an array by type, so a
+	 * rule with no analyzer costs a load and a null check. The lookahead of
+	 * the alternations always tries the alternatives that have an analyzer,
+	 * unless it starts as the grammar does.
+	 */
+	public void setAnalyzer(LexicalParserAnalyzer analyzer) {
+		config = new Config(change().analyzer(analyzer));
+	}
+
+	public void removeAnalyzer(TokenType type) {
+		config = new Config(change().removeAnalyzer(type));
+	}
+
+	public int getMaxLength() {
+		return config.maxLength;
+	}
+
+	/*
+	 * Statements longer than the limit are rejected by isCQL before any rule
+	 * runs, so an oversized input costs nothing to refuse.
+	 */
+	public void setMaxLength(int maxLength) {
+		config = new Config(change().maxLength(maxLength));
+	}
+
+	public boolean isColumnDefinitions() {
+		return config.columnDefinitions;
+	}
+
+	/*
+	 * The body of a CREATE TABLE is kept as a single token. With column
+	 * definitions on, it is split in the table name, the column list, with a
+	 * token by column, and the table options.
+	 */
+	public void setColumnDefinitions(boolean columnDefinitions) {
+		config = new Config(change().columnDefinitions(columnDefinitions));
+	}
+
+	public boolean isDiagnostics() {
+		return config.diagnostics;
+	}
+
+	/*
+	 * A lookahead table names the alternatives it skips in the expected types
+	 * of an error, where a parse with no lookahead names the rules inside
+	 * them. With diagnostics on, an invalid statement whose parse skipped
+	 * alternatives is parsed again with no lookahead, so its error is the same
+	 * whatever the configuration, at the cost of a second parse of each
+	 * invalid statement.
+	 */
+	public void setDiagnostics(boolean diagnostics) {
+		config = new Config(change().diagnostics(diagnostics));
+	}
+
+	private void checkLength(String cql) throws LexicalParserException {
+		int maxLength = config.maxLength;
+		if (cql.length() > maxLength) {
+			throw new LexicalParserException(
+					"Invalid CQL of " + cql.length() + " characters, the limit is " + maxLength);
+		}
 	}
 
 	private void buildLexicalParserException(Token token, String text) throws LexicalParserException {
@@ -58,97 +248,215 @@ public class LexicalParser {
 				"Invalid " + token.getType().getName().toUpperCase() + " in [" + text + "] " + reason);
 	}
 
-	private String consume(String text, char... stop) {
-		StringBuffer ret = new StringBuffer();
-		for (int index = 0; index < text.length(); index++) {
-			for (char stopItem : stop) {
-				if (text.charAt(index) == stopItem) {
-					return ret.toString();
-				}
+	private void buildLexicalParserException(TokenType type, LexicalContext context, int offset)
+			throws LexicalParserException {
+		if (context.getFailureOffset() < offset) {
+			throw new LexicalParserException(
+					"Invalid " + type.getName().toUpperCase() + " in [" + context.getSource().substring(offset) + "]");
+		}
+
+		StringBuilder expected = new StringBuilder();
+		for (TokenType expectedType : context.getExpected()) {
+			if (expected.length() > 0) {
+				expected.append(" | ");
 			}
-			ret.append(text.charAt(index));
+			expected.append(expectedType.getName().toUpperCase());
 		}
-		return ret.toString();
+
+		throw new LexicalParserException("Invalid " + type.getName().toUpperCase() + " in ["
+				+ context.getSource().substring(context.getFailureOffset()) + "] :Expected " + expected);
 	}
 
-	// <ACESSOR> ::= .
-	public Token isAcessor(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ACESSOR, this.timeZoneGMT);
+	// with diagnostics on, a parse that failed after the lookahead skipped some
+	// alternatives runs again over a context with no lookahead, and its
+	// failure takes the place of the first one
+	private void failWithoutLookahead(LexicalContext context, int offset, boolean required,
+			LexicalContextTester rule) throws LexicalParserException {
+		if (!config.diagnostics || context.getSkippedAlternatives() == 0) {
+			return;
+		}
 
-		if (text.length() == 0 || !text.startsWith(".")) {
-			if (required) {
-				buildLexicalParserException(token, text);
+		LexicalContext diagnosis = context.withoutLookahead();
+		try {
+			if (rule.is(diagnosis, offset, required) == null) {
+				context.fail(diagnosis);
 			}
-			return null;
+		} catch (LexicalParserException e) {
+			context.fail(diagnosis);
+			throw e;
+		}
+	}
+
+	// the rules never throw, a failure is recorded in the context and the
+	// exception is built once by the entry point
+	private Token fail(Token token, LexicalContext context, int offset) {
+		context.fail(token.getType(), offset);
+		return null;
+	}
+
+	private Token parse(TokenType type, String text, boolean required, LexicalContextTester rule)
+			throws LexicalParserException {
+		LexicalContext context = newContext(text);
+
+		Token token = rule.is(context, 0, required);
+		if (token == null && required) {
+			failWithoutLookahead(context, 0, required, rule);
+			buildLexicalParserException(type, context, 0);
+		}
+		if (token != null) {
+			token.markClean();
 		}
 
-		token.setContent(".");
-		token.setPosContent(text.substring(1));
 		return token;
 	}
 
+	private LexicalContext newContext(String text) {
+		Config config = this.config;
+		if (config.lexer) {
+			return new LexicalContext(LEXER.tokenize(text), config.memoization);
+		}
+		return new LexicalContext(text, config.memoization);
+	}
+
+	// end of the lexeme of one of the types that the Lexer found at the offset,
+	// the offset when it found another type there and -1 when the context has
+	// no lexemes or none starts at the offset
+	private int lexemeEnd(LexicalContext context, int offset, Set<TokenType> types) {
+		int lexeme = context.lexemeAt(offset);
+		if (lexeme < 0) {
+			return -1;
+		}
+
+		Lexemes lexemes = context.getLexemes();
+		return types.contains(lexemes.getType(lexeme)) ? lexemes.getEnd(lexeme) : offset;
+	}
+
+	private Token newToken(TokenType type, LexicalContext context, int offset) {
+		Token token = new Token(type, config.timeZoneGMT);
+		token.setSource(context.getSource());
+		token.setStart(offset);
+		token.setEnd(offset);
+		return token;
+	}
+
+	private int predict(Lookahead table, LexicalContext context, int offset) {
+		Config config = this.config;
+		if (!config.lookahead || !context.isLookahead()) {
+			return Lookahead.ALL;
+		}
+		return table.viable(context, offset, (config.unpredictable == 0) ? null : config.analyzers);
+	}
+
+	private Token updateBounds(Token token, int end) {
+		token.setEnd(end);
+		return token;
+	}
+
+	// entry of the rules that an analyzer can take the place of, memoized or
+	// not as the context chooses
+	private Token analyze(TokenType type, LexicalContext context, int offset, boolean required,
+			LexicalContextTester rule) throws LexicalParserException {
+		LexicalParserAnalyzer analyzer = config.analyzers[type.ordinal()];
+		return memoize(type, context, offset, required, (analyzer == null) ? rule : analyzer);
+	}
+
+	private Token memoize(TokenType type, LexicalContext context, int offset, boolean required,
+			LexicalContextTester rule) throws LexicalParserException {
+		if (!context.isMemoization()) {
+			return rule.is(context, offset, required);
+		}
+
+		if (context.isMemoized(type, offset)) {
+			Token token = context.recall(type, offset);
+			if (token != null) {
+				token.setBefore(null);
+				token.setAfter(null);
+			}
+			return token;
+		}
+
+		return context.memoize(type, offset, rule.is(context, offset, required));
+	}
+
+	// <ACESSOR> ::= .
+	public Token isAcessor(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ACESSOR, text, required, this::isAcessor);
+	}
+
+	public Token isAcessor(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.ACESSOR, context, offset);
+		String text = context.getSource();
+
+		if (offset >= text.length() || text.charAt(offset) != '.') {
+			return fail(token, context, offset);
+		}
+
+		return updateBounds(token, offset + 1);
+	}
+
 	// <AND> ::= u(AND)
 	public Token isAnd(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.AND, text, required, this::isAnd);
+	}
 
-		return isSingleText(TokenType.AND, "AND", text, false, null, required);
+	public Token isAnd(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		return isSingleText(TokenType.AND, "AND", context, offset, false, null, required);
 
 	}
 
 	// <ASTERISK> ::= *
 	public Token isAsterisk(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.ASTERISK, "*", text, required);
+		return parse(TokenType.ASTERISK, text, required, this::isAsterisk);
+	}
+
+	public Token isAsterisk(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.ASTERISK, "*", context, offset, required);
 
 	}
 
 	// <CHARS> ::= ^<EMPTY>[<CHARS>](a-Z0-9_)
 	public Token isChars(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.CHARS, this.timeZoneGMT);
-
-		StringBuffer content = new StringBuffer();
-
-		if (text.isEmpty()) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
+		return parse(TokenType.CHARS, text, required, this::isChars);
+	}
 
-		for (int index = 0; index < text.length(); index++) {
-			Character character = text.charAt(index);
-			boolean valid = Character.isAlphabetic(text.codePointAt(index))
-					|| Character.isDigit(text.codePointAt(index)) || character == '_';
+	public Token isChars(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.CHARS, context, offset, required, this::parseChars);
+	}
 
-			if (!valid) {
-				if (content.length() > 0) {
-					break;
-				}
-				if (required) {
-					buildLexicalParserException(token, text);
-				}
-				return null;
-			}
+	private Token parseChars(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.CHARS, context, offset);
 
-			content.append(character);
+		int end = lexemeEnd(context, offset, WORDS);
+		if (end < 0) {
+			end = CharacterClass.scanChars(context.getSource(), offset);
+		}
+		if (end == offset) {
+			return fail(token, context, offset);
 		}
 
-		String contentStr = content.toString();
-
-		token.setContent(contentStr);
-		token.setPosContent(text.substring(contentStr.length()));
-		return token;
+		return updateBounds(token, end);
 	}
 
 	// <DOUBLE DOT> ::= :
 	public Token isDoubleDot(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.DOUBLE_DOT, text, required, this::isDoubleDot);
+	}
+
+	public Token isDoubleDot(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.DOUBLE_DOT, ":", text, required);
+		return isSingleText(TokenType.DOUBLE_DOT, ":", context, offset, required);
 
 	}
 
 	// <COMA> ::= ,
 	public Token isComma(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.COMMA, text, required, this::isComma);
+	}
+
+	public Token isComma(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.COMMA, ",", text, required);
+		return isSingleText(TokenType.COMMA, ",", context, offset, required);
 
 	}
 
@@ -156,26 +464,34 @@ public class LexicalParser {
 	// <CONDITIONAL COMMAND> [<SPACES> <LIMIT OPTION>] [<SPACES> <ALLOW
 	// PARAMETER>]
 	public Token isCommand(final String text, final boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.COMMAND, this.timeZoneGMT);
+		return parse(TokenType.COMMAND, text, required, this::isCommand);
+	}
+
+	public Token isCommand(final LexicalContext context, final int offset, final boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token createCommand = isCreateCommand(text, false);
+		int viable = predict(LookaheadTables.COMMAND, context, offset);
 
-		leftToken = createCommand;
+		if (Lookahead.isViable(viable, 0)) {
+			Token createCommand = isCreateCommand(context, offset, false);
+			leftToken = createCommand;
+		}
 
-		if (leftToken == null) {
-			Token dropCommand = isDropCommand(text, false);
+		if (leftToken == null && Lookahead.isViable(viable, 1)) {
+			Token dropCommand = isDropCommand(context, offset, false);
 			leftToken = dropCommand;
 		}
 
-		if (leftToken == null) {
-			Token insertCommand = isInsertCommand(text, false);
+		if (leftToken == null && Lookahead.isViable(viable, 2)) {
+			Token insertCommand = isInsertCommand(context, offset, false);
 			leftToken = insertCommand;
 		}
 
-		if (leftToken == null) {
-			Token conditionalCommand = isConditionalCommand(text, required);
+		if (leftToken == null && Lookahead.isViable(viable, 3)) {
+			Token conditionalCommand = isConditionalCommand(context, offset, required);
 			leftToken = conditionalCommand;
 		}
 
@@ -185,9 +501,9 @@ public class LexicalParser {
 
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
-			Token tokenLimitOption = isLimitOption(tokenSpaces.getPosContent(), false);
+			Token tokenLimitOption = isLimitOption(context, tokenSpaces.getEnd(), false);
 			if (tokenLimitOption != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
@@ -199,10 +515,10 @@ public class LexicalParser {
 			}
 		}
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 
-			Token tokenAllowParameter = isAllowParameter(tokenSpaces.getPosContent(), false);
+			Token tokenAllowParameter = isAllowParameter(context, tokenSpaces.getEnd(), false);
 			if (tokenAllowParameter != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
@@ -215,39 +531,31 @@ public class LexicalParser {
 			}
 		}
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <LIMIT OPTION> ::= <LIMIT> <SPACES> <SPACES> (<NUMBER>|<INJECTION>)
 	public Token isLimitOption(String content, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.LIMIT_OPTION, this.timeZoneGMT);
+		return parse(TokenType.LIMIT_OPTION, content, required, this::isLimitOption);
+	}
 
-		Token limit = isLimit(content, required);
+	public Token isLimitOption(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.LIMIT_OPTION, context, offset);
+
+		Token limit = isLimit(context, offset, required);
 		Token left = null;
 
 		if (limit == null) {
-			if (required) {
-				buildLexicalParserException(token, content);
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 
 		left = limit;
 		token.getSubTokens().add(left);
 
-		Token spaces = isSpaces(left.getPosContent(), required);
+		Token spaces = isSpaces(context, left.getEnd(), required);
 
 		if (spaces == null) {
-			if (required) {
-				buildLexicalParserException(token, content);
-			}
-			return null;
+			return fail(token, context, offset);
 
 		}
 
@@ -255,7 +563,7 @@ public class LexicalParser {
 		left = spaces;
 		token.getSubTokens().add(left);
 
-		Token number = isNumber(left.getPosContent(), false);
+		Token number = isNumber(context, left.getEnd(), false);
 
 		if (number != null) {
 
@@ -263,28 +571,26 @@ public class LexicalParser {
 			left = number;
 			token.getSubTokens().add(left);
 		} else {
-			Token inject = isInject(left.getPosContent(), required);
+			Token inject = isInject(context, left.getEnd(), required);
 			if (inject == null) {
-				if (required) {
-					buildLexicalParserException(token, content);
-				}
-				return null;
+				return fail(token, context, offset);
 			}
 			updateNeighbors(left, inject);
 			left = inject;
 			token.getSubTokens().add(left);
 
 		}
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <LIMIT> ::= u(LIMIT)
 	public Token isLimit(String content, boolean required) throws LexicalParserException {
+		return parse(TokenType.LIMIT, content, required, this::isLimit);
+	}
+
+	public Token isLimit(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.LIMIT, "LIMIT", content, false, null, required);
+		return isSingleText(TokenType.LIMIT, "LIMIT", context, offset, false, null, required);
 
 	}
 
@@ -292,93 +598,102 @@ public class LexicalParser {
 	// BLOCK> | ( [<SYMBOL>] [<SPACES>] [<LITERAL>] )[<SPACES>] )
 	// [[<SPACES>]<OTHER COMMAND>]
 	public Token isOtherCommands(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.OTHER_COMMAND, this.timeZoneGMT);
-
-		Token leftToken = null;
-
-		Token where = isWhere(text, false);
-		if (where != null) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
-
-		Token insertCommand = isReservedWord(text, required);
-		if (insertCommand == null) {
-			return null;
+		return parse(TokenType.OTHER_COMMAND, text, required, this::isOtherCommands);
+	}
 
-		}
+	public Token isOtherCommands(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.OTHER_COMMAND, context, offset, required, this::parseOtherCommands);
+	}
 
-		updateNeighbors(leftToken, insertCommand);
-		leftToken = insertCommand;
-		token.getSubTokens().add(leftToken);
+	private Token parseOtherCommands(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.OTHER_COMMAND, context, offset);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
-		if (tokenSpaces != null) {
-			updateNeighbors(leftToken, tokenSpaces);
-			leftToken = tokenSpaces;
-			token.getSubTokens().add(leftToken);
-		}
+		Token leftToken = null;
+		Token tokenSpaces = null;
+		int position = offset;
 
-		// <OTHER COMMAND> ::= <RESERVED WORDS> [<SPACES>] (<SELECTOR BLOCK> | (
-		// [<SYMBOL>] [<SPACES>] [<LITERAL>] [<SPACES>] ) [<OTHER COMMAND>]
+		while (true) {
+			Token where = isWhere(context, position, false);
+			if (where != null) {
+				fail(token, context, position);
+				break;
+			}
 
-		Token tokenSelectorBlock = isSelectorBlock(leftToken.getPosContent(), false);
-		if (tokenSelectorBlock == null) {
-			Token tokenSymbol = isSymbol(leftToken.getPosContent(), false);
-			if (tokenSymbol != null) {
-				updateNeighbors(leftToken, tokenSymbol);
-				leftToken = tokenSymbol;
-				token.getSubTokens().add(leftToken);
+			Token insertCommand = isReservedWord(context, position, required && leftToken == null);
+			if (insertCommand == null) {
+				break;
 			}
 
-			tokenSpaces = isSpaces(leftToken.getPosContent(), false);
 			if (tokenSpaces != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
 				token.getSubTokens().add(leftToken);
 			}
 
-			Token tokenLiteral = isLiteral(leftToken.getPosContent(), false);
-			if (tokenLiteral != null) {
-				updateNeighbors(leftToken, tokenLiteral);
-				leftToken = tokenLiteral;
-				token.getSubTokens().add(leftToken);
-			}
+			updateNeighbors(leftToken, insertCommand);
+			leftToken = insertCommand;
+			token.getSubTokens().add(leftToken);
 
-			tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+			tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 			if (tokenSpaces != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
 				token.getSubTokens().add(leftToken);
 			}
-		} else {
-			updateNeighbors(leftToken, tokenSelectorBlock);
-			leftToken = tokenSelectorBlock;
-			token.getSubTokens().add(leftToken);
-		}
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
-		if (tokenSpaces != null) {
-			Token otherCommands = isOtherCommands(tokenSpaces.getPosContent(), false);
-			if (otherCommands != null) {
-				updateNeighbors(leftToken, tokenSpaces);
-				leftToken = tokenSpaces;
-				token.getSubTokens().add(leftToken);
+			// <OTHER COMMAND> ::= <RESERVED WORDS> [<SPACES>] (<SELECTOR BLOCK> | (
+			// [<SYMBOL>] [<SPACES>] [<LITERAL>] [<SPACES>] ) [<OTHER COMMAND>]
+
+			Token tokenSelectorBlock = isSelectorBlock(context, leftToken.getEnd(), false);
+			if (tokenSelectorBlock == null) {
+				Token tokenSymbol = isSymbol(context, leftToken.getEnd(), false);
+				if (tokenSymbol != null) {
+					updateNeighbors(leftToken, tokenSymbol);
+					leftToken = tokenSymbol;
+					token.getSubTokens().add(leftToken);
+				}
+
+				tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
+				if (tokenSpaces != null) {
+					updateNeighbors(leftToken, tokenSpaces);
+					leftToken = tokenSpaces;
+					token.getSubTokens().add(leftToken);
+				}
+
+				Token tokenLiteral = isLiteral(context, leftToken.getEnd(), false);
+				if (tokenLiteral != null) {
+					updateNeighbors(leftToken, tokenLiteral);
+					leftToken = tokenLiteral;
+					token.getSubTokens().add(leftToken);
+				}
 
-				updateNeighbors(leftToken, otherCommands);
-				leftToken = otherCommands;
+				tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
+				if (tokenSpaces != null) {
+					updateNeighbors(leftToken, tokenSpaces);
+					leftToken = tokenSpaces;
+					token.getSubTokens().add(leftToken);
+				}
+			} else {
+				updateNeighbors(leftToken, tokenSelectorBlock);
+				leftToken = tokenSelectorBlock;
 				token.getSubTokens().add(leftToken);
 			}
-		}
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
+			// the next command, after the spaces
+			tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
+			if (tokenSpaces == null) {
+				break;
+			}
+			position = tokenSpaces.getEnd();
+		}
 
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
+		if (leftToken == null) {
+			return null;
+		}
 
-		return token;
+		nest(token, TokenType.RESERVED_WORD);
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <INSERT COMMAND> ::= <INSERT> <SPACES> [<INTO> <SPACES>] <<TABLE NAME
@@ -394,11 +709,20 @@ public class LexicalParser {
 	 * @throws LexicalParserException
 	 */
 	public Token isInsertCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.INSERT_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.INSERT_COMMAND, text, required, this::isInsertCommand);
+	}
+
+	public Token isInsertCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.INSERT_COMMAND, context, offset, required, this::parseInsertCommand);
+	}
+
+	private Token parseInsertCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.INSERT_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenInsert = isInsert(text, required);
+		Token tokenInsert = isInsert(context, offset, required);
 		if (tokenInsert == null) {
 			return null;
 		}
@@ -407,7 +731,7 @@ public class LexicalParser {
 		leftToken = tokenInsert;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -415,13 +739,13 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenInto = isInto(leftToken.getPosContent(), false);
+		Token tokenInto = isInto(context, leftToken.getEnd(), false);
 		if (tokenInto != null) {
 			updateNeighbors(leftToken, tokenInto);
 			leftToken = tokenInto;
 			token.getSubTokens().add(tokenInto);
 
-			tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+			tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 			if (tokenSpaces == null) {
 				return null;
 			}
@@ -430,7 +754,7 @@ public class LexicalParser {
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token tokenTableNameDeclaration = isTableNameDeclaration(leftToken.getPosContent(), required);
+		Token tokenTableNameDeclaration = isTableNameDeclaration(context, leftToken.getEnd(), required);
 		if (tokenTableNameDeclaration == null) {
 			return null;
 		}
@@ -439,14 +763,14 @@ public class LexicalParser {
 		leftToken = tokenTableNameDeclaration;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token startParams = isStartParameters(leftToken.getPosContent(), required);
+		Token startParams = isStartParameters(context, leftToken.getEnd(), required);
 		if (startParams == null) {
 			return null;
 		}
@@ -455,14 +779,14 @@ public class LexicalParser {
 		leftToken = startParams;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token tokenFieldList = isFieldList(leftToken.getPosContent(), required);
+		Token tokenFieldList = isFieldList(context, leftToken.getEnd(), required);
 		if (tokenFieldList == null) {
 			return null;
 		}
@@ -470,14 +794,14 @@ public class LexicalParser {
 		leftToken = tokenFieldList;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token endParams = isEndParameters(leftToken.getPosContent(), required);
+		Token endParams = isEndParameters(context, leftToken.getEnd(), required);
 		if (endParams == null) {
 			return null;
 		}
@@ -485,14 +809,14 @@ public class LexicalParser {
 		leftToken = endParams;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token tokenValues = isValues(leftToken.getPosContent(), required);
+		Token tokenValues = isValues(context, leftToken.getEnd(), required);
 		if (tokenValues == null) {
 			return null;
 		}
@@ -500,14 +824,14 @@ public class LexicalParser {
 		leftToken = tokenValues;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		startParams = isStartParameters(leftToken.getPosContent(), required);
+		startParams = isStartParameters(context, leftToken.getEnd(), required);
 		if (startParams == null) {
 			return null;
 		}
@@ -515,14 +839,14 @@ public class LexicalParser {
 		leftToken = startParams;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token tokenSelectorBlock = isSelectorBlock(leftToken.getPosContent(), required);
+		Token tokenSelectorBlock = isSelectorBlock(context, leftToken.getEnd(), required);
 		if (tokenSelectorBlock == null) {
 			return null;
 		}
@@ -530,14 +854,14 @@ public class LexicalParser {
 		leftToken = tokenSelectorBlock;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(leftToken, tokenSpaces);
 			leftToken = tokenSpaces;
 			token.getSubTokens().add(leftToken);
 		}
 
-		endParams = isEndParameters(leftToken.getPosContent(), required);
+		endParams = isEndParameters(context, leftToken.getEnd(), required);
 		if (endParams == null) {
 			return null;
 		}
@@ -545,59 +869,61 @@ public class LexicalParser {
 		leftToken = endParams;
 		token.getSubTokens().add(leftToken);
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <CONDITION>::=<WHERE><SPACES><CONDITIONS>
 	public Token isCondition(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.CONDITION, this::isWhere, this::isConditions);
+		return parse(TokenType.CONDITION, text, required, this::isCondition);
+	}
+
+	public Token isCondition(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.CONDITION, this::isWhere,
+				this::isConditions);
 	}
 
 	// <CONDITION-ITEM>::= <SELECTOR ITEM>[<SPACES>]<OPTIONAL PAIR
 	// SYMBOL>[<SPACES>]<SELECTOR ITEM>
 
 	public Token isConditionItem(final String text, final boolean required) throws LexicalParserException {
+		return parse(TokenType.CONDITION_ITEM, text, required, this::isConditionItem);
+	}
+
+	public Token isConditionItem(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.CONDITION_ITEM, context, offset, required, this::parseConditionItem);
+	}
 
-		Token token = new Token(TokenType.CONDITION_ITEM, this.timeZoneGMT);
+	private Token parseConditionItem(final LexicalContext context, final int offset, final boolean required)
+			throws LexicalParserException {
 
-		Token tokenSelectorItem = isSelectorItemStrict(text, required);
+		Token token = newToken(TokenType.CONDITION_ITEM, context, offset);
 
-		String content = text;
+		Token tokenSelectorItem = isSelectorItemStrict(context, offset, required);
 
 		if (tokenSelectorItem == null) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 
 		Token left = tokenSelectorItem;
 		token.getSubTokens().add(left);
 
-		Token tokenSpaces = isSpaces(left.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, left.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(left, tokenSpaces);
 			left = tokenSpaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token tokenSymbol = isOptionalPairSymbol(left.getPosContent(), false);
+		Token tokenSymbol = isOptionalPairSymbol(context, left.getEnd(), false);
 		if (tokenSymbol == null) {
-			if (required) {
-				buildLexicalParserException(token, left.getPosContent(), "Expected OPTIONAL PAIR SYMBOL");
-			}
-			return null;
+			return fail(token, context, left.getEnd());
 		}
 
 		updateNeighbors(left, tokenSymbol);
 		left = tokenSymbol;
 		token.getSubTokens().add(left);
 
-		tokenSpaces = isSpaces(left.getPosContent(), false);
+		tokenSpaces = isSpaces(context, left.getEnd(), false);
 		if (tokenSpaces != null) {
 			updateNeighbors(left, tokenSpaces);
 			left = tokenSpaces;
@@ -605,7 +931,7 @@ public class LexicalParser {
 			token.getSubTokens().add(left);
 		}
 
-		Token tokenSelectorItem2 = isSelectorItemStrict(left.getPosContent(), false);
+		Token tokenSelectorItem2 = isSelectorItemStrict(context, left.getEnd(), false);
 		if (tokenSelectorItem2 == null) {
 			return null;
 		}
@@ -614,109 +940,117 @@ public class LexicalParser {
 		left = tokenSelectorItem2;
 		token.getSubTokens().add(left);
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <CONDITIONS>::=<CONDITION-ITEM>[<SPACES> <JOIN CONDITION> <SPACES>
 	// <CONDITIONS>]
 
 	public Token isConditions(final String text, final boolean required) throws LexicalParserException {
-		Token left = null;
-		Token token = new Token(TokenType.CONDITIONS, this.timeZoneGMT);
-		String content = text;
+		return parse(TokenType.CONDITIONS, text, required, this::isConditions);
+	}
 
-		Token tokenOptionalSpace = null;
-		Token tokenOptionalJoin = null;
-		Token tokenOptionalConditions = null;
+	public Token isConditions(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.CONDITIONS, context, offset, required, this::parseConditions);
+	}
 
-		Token tokenConditionItem = isConditionItem(text, required);
+	private Token parseConditions(final LexicalContext context, final int offset, final boolean required)
+			throws LexicalParserException {
+		Token left = null;
+		Token token = newToken(TokenType.CONDITIONS, context, offset);
+
+		Token tokenConditionItem = isConditionItem(context, offset, required);
 		updateNeighbors(left, tokenConditionItem);
 		left = tokenConditionItem;
 
 		if (left == null) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 
 		token.getSubTokens().add(left);
 
-		tokenOptionalSpace = isSpaces(left.getPosContent(), false);
-
-		if (tokenOptionalSpace != null) {
-			tokenOptionalJoin = isJoinCondition(tokenOptionalSpace.getPosContent(), false);
-
-			if (tokenOptionalJoin != null) {
-				Token tokenOptionalSpace2 = isSpaces(tokenOptionalJoin.getPosContent(), false);
-
-				if (tokenOptionalSpace2 != null) {
-					tokenOptionalConditions = isConditions(tokenOptionalSpace2.getPosContent(), false);
+		while (true) {
+			Token tokenOptionalSpace = isSpaces(context, left.getEnd(), false);
+			if (tokenOptionalSpace == null) {
+				break;
+			}
 
-					if (tokenOptionalConditions != null) {
+			Token tokenOptionalJoin = isJoinCondition(context, tokenOptionalSpace.getEnd(), false);
+			if (tokenOptionalJoin == null) {
+				break;
+			}
 
-						updateNeighbors(left, tokenOptionalSpace);
-						left = tokenOptionalSpace;
-						token.getSubTokens().add(tokenOptionalSpace);
+			Token tokenOptionalSpace2 = isSpaces(context, tokenOptionalJoin.getEnd(), false);
+			if (tokenOptionalSpace2 == null) {
+				break;
+			}
 
-						updateNeighbors(left, tokenOptionalJoin);
-						left = tokenOptionalJoin;
-						token.getSubTokens().add(tokenOptionalJoin);
+			Token tokenOptionalItem = isConditionItem(context, tokenOptionalSpace2.getEnd(), false);
+			if (tokenOptionalItem == null) {
+				fail(token, context, tokenOptionalSpace2.getEnd());
+				break;
+			}
 
-						updateNeighbors(left, tokenOptionalSpace2);
-						left = tokenOptionalSpace2;
-						token.getSubTokens().add(tokenOptionalSpace2);
+			updateNeighbors(left, tokenOptionalSpace);
+			left = tokenOptionalSpace;
+			token.getSubTokens().add(tokenOptionalSpace);
 
-						updateNeighbors(left, tokenOptionalConditions);
-						left = tokenOptionalConditions;
-						token.getSubTokens().add(tokenOptionalConditions);
+			updateNeighbors(left, tokenOptionalJoin);
+			left = tokenOptionalJoin;
+			token.getSubTokens().add(tokenOptionalJoin);
 
-						content = content.substring(0,
-								content.length() - tokenOptionalConditions.getPosContent().length());
-						token.setContent(content);
-						token.setPosContent(tokenOptionalConditions.getPosContent());
-						return token;
-					}
-				}
-			}
+			updateNeighbors(left, tokenOptionalSpace2);
+			left = tokenOptionalSpace2;
+			token.getSubTokens().add(tokenOptionalSpace2);
 
+			updateNeighbors(left, tokenOptionalItem);
+			left = tokenOptionalItem;
+			token.getSubTokens().add(tokenOptionalItem);
 		}
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		nest(token, TokenType.CONDITION_ITEM);
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <CQL>::= [<SPACES>] <COMMAND> [ <SPACES>] [<USING OPTION>] [<DOT COMMA>
 	// [<SPACES>]]
 	public Token isCQL(String cql) throws LexicalParserException {
+		checkLength(cql);
+		return isCQL(newContext(cql), 0);
+	}
 
-		Token tokenCQL = new Token(TokenType.CQL, this.timeZoneGMT);
-		tokenCQL.setContent(cql);
+	// parses over the context of a previous parse, that keeps its scratch arrays
+	Token isCQL(String cql, LexicalContext scratch) throws LexicalParserException {
+		checkLength(cql);
+		Config config = this.config;
+		scratch.reset(cql, config.lexer ? LEXER.tokenize(cql) : null, config.memoization);
+		return isCQL(scratch, 0);
+	}
+
+	public Token isCQL(LexicalContext context, int offset) throws LexicalParserException {
+
+		Token tokenCQL = newToken(TokenType.CQL, context, offset);
+		updateBounds(tokenCQL, context.length());
 		Token left = null;
 
-		Token tokenSpace = isSpaces(cql, false);
+		Token tokenSpace = isSpaces(context, offset, false);
 		if (tokenSpace != null) {
 			tokenCQL.getSubTokens().add(tokenSpace);
 			left = tokenSpace;
 		}
 
-		Token tokenCommand = isCommand((left == null) ? cql : left.getPosContent(), true);
+		Token tokenCommand = isCommand(context, (left == null) ? offset : left.getEnd(), true);
 		if (tokenCommand == null) {
-			throw new LexicalParserException("Token command not found");
+			failWithoutLookahead(context, offset, true, (diagnosis, start, required) -> isCQL(diagnosis, start));
+			buildLexicalParserException(TokenType.CQL, context, offset);
 		}
 
 		updateNeighbors(left, tokenCommand);
 		left = tokenCommand;
 		tokenCQL.getSubTokens().add(left);
 
-		tokenSpace = isSpaces(left.getPosContent(), false);
+		tokenSpace = isSpaces(context, left.getEnd(), false);
 		if (tokenSpace != null) {
 
 			updateNeighbors(left, tokenSpace);
@@ -725,7 +1059,7 @@ public class LexicalParser {
 
 		}
 
-		Token tokenUsingOption = isUsingOption(left.getPosContent(), false);
+		Token tokenUsingOption = isUsingOption(context, left.getEnd(), false);
 
 		if (tokenUsingOption != null) {
 
@@ -734,7 +1068,7 @@ public class LexicalParser {
 			tokenCQL.getSubTokens().add(left);
 		}
 
-		Token tokenDotcomma = isDotComma(left.getPosContent(), false);
+		Token tokenDotcomma = isDotComma(context, left.getEnd(), false);
 
 		if (tokenDotcomma != null) {
 
@@ -743,7 +1077,7 @@ public class LexicalParser {
 			tokenCQL.getSubTokens().add(left);
 		}
 
-		tokenSpace = isSpaces(left.getPosContent(), false);
+		tokenSpace = isSpaces(context, left.getEnd(), false);
 		if (tokenSpace != null) {
 
 			updateNeighbors(left, tokenSpace);
@@ -751,52 +1085,66 @@ public class LexicalParser {
 			tokenCQL.getSubTokens().add(left);
 		}
 
-		if (!left.getPosContent().isEmpty()) {
-			throw new LexicalParserException("CEU Lexical Error near [" + left.getPosContent() + "]");
+		if (left.getEnd() < context.length()) {
+			failWithoutLookahead(context, offset, true, (diagnosis, start, required) -> isCQL(diagnosis, start));
+			buildLexicalParserException(TokenType.CQL, context, left.getEnd());
 		}
 
+		tokenCQL.markClean();
 		return tokenCQL;
 	}
 
 	// <DOUBLE QUOTED> ::= "
 	public Token isDoubleQuoted(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.DOUBLE_QUOTED, "\"", text, required);
+		return parse(TokenType.DOUBLE_QUOTED, text, required, this::isDoubleQuoted);
+	}
+
+	public Token isDoubleQuoted(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isSingleText(TokenType.DOUBLE_QUOTED, "\"", context, offset, required);
 	}
 
 	// <END PARAMETERS>::=)
 	public Token isEndParameters(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.END_PARAMETERS, text, required, this::isEndParameters);
+	}
 
-		return isSingleText(TokenType.END_PARAMETERS, ")", text, required);
+	public Token isEndParameters(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		return isSingleText(TokenType.END_PARAMETERS, ")", context, offset, required);
 
 	}
 
 	// <FUNCTION>::=<ITEM NAME>[<SPACES>]<START_PARAMETERS>[<SPACES>][<SELECTOR
 	// BLOCK>][<SPACES>]<END_PARAMETERS>
 	public Token isFunction(String content, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.FUNCTION, this.timeZoneGMT);
+		return parse(TokenType.FUNCTION, content, required, this::isFunction);
+	}
 
-		if (content.length() < 3) {
-			if (required) {
-				buildLexicalParserException(token, content);
-			}
-			return null;
+	public Token isFunction(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.FUNCTION, context, offset, required, this::parseFunction);
+	}
+
+	private Token parseFunction(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.FUNCTION, context, offset);
+
+		if (context.length() - offset < 3) {
+			return fail(token, context, offset);
 		}
 
 		Token left = null;
 
-		Token itemName = isItemName(content, required);
+		Token itemName = isItemName(context, offset, required);
 
 		if (itemName == null) {
-			if (required) {
-				buildLexicalParserException(token, content);
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 
 		left = itemName;
 		token.getSubTokens().add(left);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
@@ -804,19 +1152,16 @@ public class LexicalParser {
 			token.getSubTokens().add(left);
 		}
 
-		Token startParameters = isStartParameters(left.getPosContent(), required);
+		Token startParameters = isStartParameters(context, left.getEnd(), required);
 
 		if (startParameters == null) {
-			if (required) {
-				buildLexicalParserException(token, left.getPosContent());
-			}
-			return null;
+			return fail(token, context, left.getEnd());
 		}
 		updateNeighbors(left, startParameters);
 		left = startParameters;
 		token.getSubTokens().add(left);
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
@@ -824,7 +1169,7 @@ public class LexicalParser {
 			token.getSubTokens().add(left);
 		}
 
-		Token selectorBlock = isSelectorBlock(left.getPosContent(), required);
+		Token selectorBlock = isSelectorBlock(context, left.getEnd(), required);
 
 		if (selectorBlock != null) {
 			updateNeighbors(left, selectorBlock);
@@ -832,7 +1177,7 @@ public class LexicalParser {
 			token.getSubTokens().add(left);
 		}
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
@@ -840,31 +1185,33 @@ public class LexicalParser {
 			token.getSubTokens().add(left);
 		}
 
-		Token endParameters = isEndParameters(left.getPosContent(), required);
+		Token endParameters = isEndParameters(context, left.getEnd(), required);
 
 		if (endParameters == null) {
-			if (required) {
-				buildLexicalParserException(token, left.getPosContent());
-			}
-			return null;
+			return fail(token, context, left.getEnd());
 		}
 
 		updateNeighbors(left, endParameters);
 		left = endParameters;
 		token.getSubTokens().add(left);
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <HEXA>::= [<SIGN>] <START HEX> <ABSOLUTE HEXA>
 	public Token isHexa(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.HEX, this.timeZoneGMT);
+		return parse(TokenType.HEX, text, required, this::isHexa);
+	}
+
+	public Token isHexa(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.HEX, context, offset, required, this::parseHexa);
+	}
+
+	private Token parseHexa(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.HEX, context, offset);
 		Token left = null;
 
-		Token sign = isSign(text, false);
+		Token sign = isSign(context, offset, false);
 		if (sign != null) {
 
 			updateNeighbors(left, sign);
@@ -875,9 +1222,9 @@ public class LexicalParser {
 
 		}
 
-		String posContent = (left == null) ? text : left.getPosContent();
+		int posContent = (left == null) ? offset : left.getEnd();
 
-		Token startHex = isStartHexa(posContent, required);
+		Token startHex = isStartHexa(context, posContent, required);
 		if (startHex == null) {
 			return null;
 		}
@@ -887,7 +1234,7 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		Token absoluteHex = isAbsoluteHexa(left.getPosContent(), required);
+		Token absoluteHex = isAbsoluteHexa(context, left.getEnd(), required);
 
 		if (absoluteHex == null) {
 			return null;
@@ -897,33 +1244,29 @@ public class LexicalParser {
 		left = absoluteHex;
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <INJECT> ::= ?
 	public Token isInject(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.INJECT, this.timeZoneGMT);
+		return parse(TokenType.INJECT, text, required, this::isInject);
+	}
 
-		if (text.length() == 0 || text.charAt(0) != '?') {
-			if (required) {
-				buildLexicalParserException(token, text);
+	public Token isInject(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.INJECT, context, offset);
+		String text = context.getSource();
 
-			}
-			return null;
+		if (offset >= text.length() || text.charAt(offset) != '?') {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(String.valueOf('?'));
-		token.setPosContent(text.substring(1));
-
-		return token;
+		return updateBounds(token, offset + 1);
 	}
 
 	public Token isInputCharacter(Function<String, String> testerException, Function<String, Token> testerBase,
 			TokenType type, String text, boolean required) throws LexicalParserException {
 
-		Token token = new Token(type, this.timeZoneGMT);
+		Token token = new Token(type, config.timeZoneGMT);
 
 		if (text.length() == 0) {
 			if (required) {
@@ -939,7 +1282,7 @@ public class LexicalParser {
 		if (tokenTester != null) {
 			content = tokenTester;
 			subText = text.substring(tokenTester.length());
-			Token subToken = new Token(type, this.timeZoneGMT);
+			Token subToken = new Token(type, config.timeZoneGMT);
 			subToken.setContent(content);
 			subToken.setPosContent(text.substring(content.length()));
 
@@ -971,184 +1314,155 @@ public class LexicalParser {
 	}
 
 	/*
-	 * 
+	 *
 	 * <INPUT CHARACTER EXCEPT DOUBLE>::= (<DOUBLE QUOTED><DOUBLE QUOTED> |
 	 * (^<DOUBLE QUOTED><ANY>))[<INPUT CHARACTER EXCEPT DOUBLE>]
 	 */
 	public Token isInputCharacterExceptDouble(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, text, required, this::isInputCharacterExceptDouble);
+	}
 
-		Token token = new Token(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, this.timeZoneGMT);
-
-		Token left = null;
-
-		Token tokenQuoted = isDoubleQuoted(text, false);
-
-		if (tokenQuoted != null) {
-			Token anotherTokenQuoted = isDoubleQuoted(tokenQuoted.getPosContent(), false);
-			if (anotherTokenQuoted != null) {
-				left = tokenQuoted;
-				token.getSubTokens().add(left);
-				updateNeighbors(left, anotherTokenQuoted);
-				left = anotherTokenQuoted;
-				token.getSubTokens().add(left);
-			} else {
-				if (required) {
-					buildLexicalParserException(token, text);
-				}
-				return null;
-			}
-		}
-
-		if (left == null) {
-			Token tokenAny = isAny(text, required);
-
-			if (tokenAny == null) {
-				return null;
-			}
-
-			left = tokenAny;
-			token.getSubTokens().add(left);
-		}
-
-		Token tokenAnotherInputCharacterExceptDouble = isInputCharacterExceptDouble(left.getPosContent(), false);
-
-		if (tokenAnotherInputCharacterExceptDouble != null) {
-			updateNeighbors(left, tokenAnotherInputCharacterExceptDouble);
-
-			left = tokenAnotherInputCharacterExceptDouble;
-			token.getSubTokens().add(left);
-		}
-
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
-
+	public Token isInputCharacterExceptDouble(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isInputCharacterExcept(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, '"', context, offset);
 	}
 
 	/*
-	 * 
+	 *
 	 * <INPUT CHARACTER EXCEPT SINGLE>::= (<SINGLE QUOTED><SINGLE QUOTED> |
 	 * (^<SINGLE QUOTED><ANY>))[<INPUT CHARACTER EXCEPT SINGLE>]
 	 */
 	public Token isInputCharacterExceptSingle(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, text, required, this::isInputCharacterExceptSingle);
+	}
 
-		Token token = new Token(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, this.timeZoneGMT);
-
-		Token left = null;
+	public Token isInputCharacterExceptSingle(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isInputCharacterExcept(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, '\'', context, offset);
+	}
 
-		Token tokenSingleQuoted = isSingleQuoted(text, false);
+	// one pass up to the closing quote, a doubled quote is part of the text
+	private Token isInputCharacterExcept(TokenType type, char quote, LexicalContext context, int offset) {
+		Token token = newToken(type, context, offset);
+		String text = context.getSource();
 
-		if (tokenSingleQuoted != null) {
-			Token anotherTokenSingleQuoted = isSingleQuoted(tokenSingleQuoted.getPosContent(), false);
-			if (anotherTokenSingleQuoted != null) {
-				left = tokenSingleQuoted;
-				token.getSubTokens().add(left);
-				updateNeighbors(left, anotherTokenSingleQuoted);
-				left = anotherTokenSingleQuoted;
-				token.getSubTokens().add(left);
-			} else {
-				if (required) {
-					buildLexicalParserException(token, text);
-				}
-				return null;
+		// the string that the Lexer found from the opening quote
+		if (offset > 0 && text.charAt(offset - 1) == quote) {
+			int end = lexemeEnd(context, offset - 1, STRINGS);
+			if (end > offset) {
+				return (end - 1 == offset) ? fail(token, context, offset) : updateBounds(token, end - 1);
 			}
 		}
 
-		if (left == null) {
-			Token tokenAny = isAny(text, required);
-
-			if (tokenAny == null) {
-				return null;
+		int index = offset;
+		while (index < text.length()) {
+			int next = text.indexOf(quote, index);
+			if (next < 0) {
+				index = text.length();
+				break;
 			}
-
-			left = tokenAny;
-			token.getSubTokens().add(left);
+			if (next + 1 < text.length() && text.charAt(next + 1) == quote) {
+				index = next + 2;
+				continue;
+			}
+			index = next;
+			break;
 		}
 
-		Token tokenAnotherInputCharacterExceptSingle = isInputCharacterExceptSingle(left.getPosContent(), false);
-
-		if (tokenAnotherInputCharacterExceptSingle != null) {
-			updateNeighbors(left, tokenAnotherInputCharacterExceptSingle);
-
-			left = tokenAnotherInputCharacterExceptSingle;
-			token.getSubTokens().add(left);
+		if (index == offset) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
-
+		return updateBounds(token, index);
 	}
 
 	// <ITEM NAME> ::= <ITEM NAME CASE SENSITIVE> | <ITEM NAME CASE
 	// INSENSITIVE> | <ASTERISK>
 	public Token isItemName(final String content, final boolean required) throws LexicalParserException {
+		return parse(TokenType.ITEMNAME, content, required, this::isItemName);
+	}
+
+	public Token isItemName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ITEMNAME, context, offset, required, this::parseItemName);
+	}
 
-		Token tokenItemName = new Token(TokenType.ITEMNAME, this.timeZoneGMT);
+	private Token parseItemName(final LexicalContext context, final int offset, final boolean required)
+			throws LexicalParserException {
+
+		Token tokenItemName = newToken(TokenType.ITEMNAME, context, offset);
 
-		Token tokenCaseSensitive = isItemNameCaseSensitive(content, false);
+		int viable = predict(LookaheadTables.ITEM_NAME, context, offset);
+
+		Token tokenCaseSensitive = Lookahead.isViable(viable, 0) ? isItemNameCaseSensitive(context, offset, false)
+				: null;
 
 		if (tokenCaseSensitive != null) {
 
 			tokenItemName.getSubTokens().add(tokenCaseSensitive);
-			tokenItemName.setContent(tokenCaseSensitive.getContent());
-			tokenItemName.setPosContent(content.substring(tokenItemName.getContent().length()));
-			return tokenItemName;
+			return updateBounds(tokenItemName, tokenCaseSensitive.getEnd());
 		}
 
-		Token tokenCaseInsensitive = isItemNameCaseInsensitive(content, false);
+		Token tokenCaseInsensitive = Lookahead.isViable(viable, 1)
+				? isItemNameCaseInsensitive(context, offset, false) : null;
 		if (tokenCaseInsensitive != null) {
 
 			tokenItemName.getSubTokens().add(tokenCaseInsensitive);
-			tokenItemName.setContent(tokenCaseInsensitive.getContent());
-			tokenItemName.setPosContent(content.substring(tokenItemName.getContent().length()));
-			return tokenItemName;
+			return updateBounds(tokenItemName, tokenCaseInsensitive.getEnd());
 		}
 
-		Token asterisc = isAsterisk(content, required);
+		Token asterisc = Lookahead.isViable(viable, 2) ? isAsterisk(context, offset, required) : null;
 		if (asterisc == null) {
 			return null;
 		}
 
 		tokenItemName.getSubTokens().add(asterisc);
-		tokenItemName.setContent(asterisc.getContent());
-		tokenItemName.setPosContent(content.substring(asterisc.getContent().length()));
-		return tokenItemName;
+		return updateBounds(tokenItemName, asterisc.getEnd());
 	}
 
 	// <ITEM NAME CASE INSENSITIVE> ::= ^<NUMBER> <CHARS>
 	public Token isItemNameCaseInsensitive(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ITEM_NAME_CASE_INSENSITIVE, this.timeZoneGMT);
+		return parse(TokenType.ITEM_NAME_CASE_INSENSITIVE, text, required, this::isItemNameCaseInsensitive);
+	}
 
-		Token numberToken = isNumber(text, false);
+	public Token isItemNameCaseInsensitive(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ITEM_NAME_CASE_INSENSITIVE, context, offset, required, this::parseItemNameCaseInsensitive);
+	}
+
+	private Token parseItemNameCaseInsensitive(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.ITEM_NAME_CASE_INSENSITIVE, context, offset);
+
+		Token numberToken = isNumber(context, offset, false);
 		if (numberToken != null) {
-			if (required) {
-				buildLexicalParserException(token, text, "Expected not number in [" + text + "]");
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 
-		Token charToken = isChars(text, required);
+		Token charToken = isChars(context, offset, required);
 		if (charToken == null) {
 			return null;
 		}
 
 		token.getSubTokens().add(charToken);
-		token.setContent(charToken.getContent());
-		token.setPosContent(text.substring(charToken.getContent().length()));
-		return token;
+		return updateBounds(token, charToken.getEnd());
 
 	}
 
 	// <ITEM NAME CASE SENSITIVE>::= <DOUBLE QUOTED><CHARS><DOUBLE QUOTED>
 	public Token isItemNameCaseSensitive(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ITEM_NAME_CASE_SENSITIVE, text, required, this::isItemNameCaseSensitive);
+	}
+
+	public Token isItemNameCaseSensitive(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ITEM_NAME_CASE_SENSITIVE, context, offset, required, this::parseItemNameCaseSensitive);
+	}
 
-		Token token = new Token(TokenType.ITEM_NAME_CASE_SENSITIVE, this.timeZoneGMT);
+	private Token parseItemNameCaseSensitive(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		Token token = newToken(TokenType.ITEM_NAME_CASE_SENSITIVE, context, offset);
 		Token left = null;
 
-		Token startDoubleQuoted = isDoubleQuoted(text, required);
+		Token startDoubleQuoted = isDoubleQuoted(context, offset, required);
 
 		if (startDoubleQuoted == null) {
 			return null;
@@ -1157,7 +1471,7 @@ public class LexicalParser {
 		left = startDoubleQuoted;
 		token.getSubTokens().add(left);
 
-		Token tokenChars = isChars(left.getPosContent(), required);
+		Token tokenChars = isChars(context, left.getEnd(), required);
 		if (tokenChars == null) {
 
 			return null;
@@ -1167,7 +1481,7 @@ public class LexicalParser {
 		left = tokenChars;
 		token.getSubTokens().add(left);
 
-		Token stopDoubleQuoted = isDoubleQuoted(left.getPosContent(), required);
+		Token stopDoubleQuoted = isDoubleQuoted(context, left.getEnd(), required);
 
 		if (stopDoubleQuoted == null) {
 			return null;
@@ -1177,19 +1491,23 @@ public class LexicalParser {
 		left = stopDoubleQuoted;
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <JOIN CONDITION>::= <AND> | <OR>
 	public Token isJoinCondition(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.JOIN_CONDITION, this.timeZoneGMT);
+		return parse(TokenType.JOIN_CONDITION, text, required, this::isJoinCondition);
+	}
 
-		Token left = isAnd(text, false);
-		if (left == null) {
-			left = isOr(text, required);
+	public Token isJoinCondition(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.JOIN_CONDITION, context, offset);
+
+		int viable = predict(LookaheadTables.JOIN_CONDITION, context, offset);
+
+		Token left = Lookahead.isViable(viable, 0) ? isAnd(context, offset, false) : null;
+		if (left == null && Lookahead.isViable(viable, 1)) {
+			left = isOr(context, offset, required);
 		}
 
 		if (left == null) {
@@ -1197,10 +1515,8 @@ public class LexicalParser {
 		}
 
 		token.getSubTokens().add(left);
-		token.setPosContent(left.getPosContent());
-		token.setContent(left.getContent());
 
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
@@ -1209,221 +1525,239 @@ public class LexicalParser {
 	 */
 
 	public Token isLiteral(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.LITERAL, text, required, this::isLiteral);
+	}
 
-		Token token = new Token(TokenType.LITERAL, this.timeZoneGMT);
+	public Token isLiteral(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.LITERAL, context, offset, required, this::parseLiteral);
+	}
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			} else {
-				return null;
-			}
+	private Token parseLiteral(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		Token token = newToken(TokenType.LITERAL, context, offset);
+
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
+		}
+
+		int viable = predict(LookaheadTables.LITERAL, context, offset);
+
+		// before NUMBER, which would stop at the 0 of a 0x blob
+		Token tokenHexa = Lookahead.isViable(viable, 0) ? isHexa(context, offset, false) : null;
+		if (tokenHexa != null) {
+
+			token.getSubTokens().add(tokenHexa);
+
+			return updateBounds(token, tokenHexa.getEnd());
 		}
 
-		Token tokenNumber = isNumber(text, false);
+		Token tokenNumber = Lookahead.isViable(viable, 1) ? isNumber(context, offset, false) : null;
 		if (tokenNumber != null) {
 
-			token.setContent(tokenNumber.getContent());
-			token.setPosContent(tokenNumber.getPosContent());
 			token.getSubTokens().add(tokenNumber);
 
-			return token;
+			return updateBounds(token, tokenNumber.getEnd());
 		}
 
-		Token tokenString = isString(text, false);
+		Token tokenString = Lookahead.isViable(viable, 2) ? isString(context, offset, false) : null;
 		if (tokenString != null) {
 
-			token.setContent(tokenString.getContent());
-			token.setPosContent(tokenString.getPosContent());
 			token.getSubTokens().add(tokenString);
 
-			return token;
+			return updateBounds(token, tokenString.getEnd());
 		}
 
-		Token tokenInject = isInject(text, false);
+		Token tokenInject = Lookahead.isViable(viable, 3) ? isInject(context, offset, false) : null;
 		if (tokenInject != null) {
 			token.getSubTokens().add(tokenInject);
-			token.setContent(tokenInject.getContent());
-			token.setPosContent(tokenInject.getPosContent());
 
-			return token;
+			return updateBounds(token, tokenInject.getEnd());
 		}
 
-		Token tokenBoolean = isBoolean(text, false);
-		if (tokenBoolean != null) {
-			token.getSubTokens().add(tokenBoolean);
-			token.setContent(tokenBoolean.getContent());
-			token.setPosContent(tokenBoolean.getPosContent());
-
-			return token;
+		if (!Lookahead.isViable(viable, 4)) {
+			return null;
 		}
 
-		Token tokenHexa = isHexa(text, required);
-		if (tokenHexa == null) {
+		Token tokenBoolean = isBoolean(context, offset, required);
+		if (tokenBoolean == null) {
 			return null;
 		}
 
-		token.setContent(tokenHexa.getContent());
-		token.setPosContent(tokenHexa.getPosContent());
-		token.getSubTokens().add(tokenHexa);
+		token.getSubTokens().add(tokenBoolean);
 
-		return token;
+		return updateBounds(token, tokenBoolean.getEnd());
 	}
 
 	// <BOOLEAN> ::= <TRUE> | <FALSE>
 	public Token isBoolean(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.BOOLEAN, this.timeZoneGMT);
+		return parse(TokenType.BOOLEAN, text, required, this::isBoolean);
+	}
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			} else {
-				return null;
-			}
+	public Token isBoolean(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.BOOLEAN, context, offset, required, this::parseBoolean);
+	}
+
+	private Token parseBoolean(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.BOOLEAN, context, offset);
+
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 		}
 
-		Token tokenTrue = isTrue(text, false);
+		int viable = predict(LookaheadTables.BOOLEAN, context, offset);
+
+		Token tokenTrue = Lookahead.isViable(viable, 0) ? isTrue(context, offset, false) : null;
 		if (tokenTrue != null) {
 
-			token.setContent(tokenTrue.getContent());
-			token.setPosContent(tokenTrue.getPosContent());
 			token.getSubTokens().add(tokenTrue);
 
-			return token;
+			return updateBounds(token, tokenTrue.getEnd());
 		}
 
-		Token tokenFalse = isFalse(text, required);
+		if (!Lookahead.isViable(viable, 1)) {
+			return null;
+		}
+
+		Token tokenFalse = isFalse(context, offset, required);
 		if (tokenFalse == null) {
 			return null;
 		}
 
-		token.setContent(tokenFalse.getContent());
-		token.setPosContent(tokenFalse.getPosContent());
 		token.getSubTokens().add(tokenFalse);
 
-		return token;
+		return updateBounds(token, tokenFalse.getEnd());
 	}
 
 	// <FALSE> ::= u(FALSE)
 	public Token isFalse(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.FALSE, "FALSE", text, false, null, required);
+		return parse(TokenType.FALSE, text, required, this::isFalse);
+	}
+
+	public Token isFalse(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.FALSE, "FALSE", context, offset, false, null, required);
 	}
 
 	// <TRUE> ::= u(TRUE)
 	public Token isTrue(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.TRUE, "TRUE", text, false, null, required);
+		return parse(TokenType.TRUE, text, required, this::isTrue);
+	}
+
+	public Token isTrue(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.TRUE, "TRUE", context, offset, false, null, required);
 	}
 
 	// <NUMBER> ::= <DIGIT>[<NUMBER>]
 	public Token isNumber(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.NUMBER, text, required, this::isNumber);
+	}
 
-		Token token = new Token(TokenType.NUMBER, this.timeZoneGMT);
-
-		Token digit = isDigit(text, required);
-
-		if (digit == null) {
-			return null;
-		}
-
-		Token left = digit;
-
-		token.getSubTokens().add(digit);
-
-		Token anotherNumber = isNumber(digit.getPosContent(), false);
+	public Token isNumber(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.NUMBER, context, offset, required, this::parseNumber);
+	}
 
-		if (anotherNumber != null) {
-			token.getSubTokens().add(anotherNumber);
+	private Token parseNumber(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-			updateNeighbors(left, anotherNumber);
+		Token token = newToken(TokenType.NUMBER, context, offset);
 
-			left = anotherNumber;
+		int end = CharacterClass.scan(context.getSource(), offset, CharacterClass.DIGIT);
+		if (end == offset) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, end);
 	}
 
 	// <OR> ::= u(OR)
 	public Token isOr(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.OR, text, required, this::isOr);
+	}
+
+	public Token isOr(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.OR, "OR", text, false, null, required);
+		return isSingleText(TokenType.OR, "OR", context, offset, false, null, required);
 
 	}
 
 	// <RESERVED WORD> ::= SELECT,INSERT,...
 	public Token isReservedWord(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.RESERVED_WORD, this.timeZoneGMT);
+		return parse(TokenType.RESERVED_WORD, text, required, this::isReservedWord);
+	}
 
-		String word = consume(text, ' ');
-		if (!RESERVED_WORDS.contains(word.toUpperCase())) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+	public Token isReservedWord(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.RESERVED_WORD, context, offset, required, this::parseReservedWord);
+	}
+
+	private Token parseReservedWord(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.RESERVED_WORD, context, offset);
+
+		int length = KEYWORDS.match(context.getSource(), offset);
+		if (length < 0) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(word);
-		token.setPosContent(text.substring(word.length()));
-		return token;
+		return updateBounds(token, offset + length);
 
 	}
 
 	// <RESERVED WORDS>: <RESERVED WORD> [<SPACES> <RESERVED WORDS>]
 	public Token isReservedWords(String command, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.RESERVED_WORDS, this.timeZoneGMT);
+		return parse(TokenType.RESERVED_WORDS, command, required, this::isReservedWords);
+	}
 
-		token.setContent(command);
+	public Token isReservedWords(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.RESERVED_WORDS, context, offset);
 
-		Token tokenReservedWord = isReservedWord(command, required);
+		Token tokenReservedWord = isReservedWord(context, offset, required);
 
 		if (tokenReservedWord == null) {
 			return null;
 		}
 
-		StringBuffer content = new StringBuffer();
-
+		Token left = tokenReservedWord;
 		token.getSubTokens().add(tokenReservedWord);
-		content.append(tokenReservedWord.getContent());
-		token.setContent(content.toString());
 
-		Token spaces = isSpaces(tokenReservedWord.getPosContent(), false);
+		Token spaces = isSpaces(context, tokenReservedWord.getEnd(), false);
 
 		while (spaces != null) {
 			Token tokenReservedWordPrevious = tokenReservedWord;
 
-			tokenReservedWord = isReservedWord(spaces.getPosContent(), false);
+			tokenReservedWord = isReservedWord(context, spaces.getEnd(), false);
 			if (tokenReservedWord == null) {
 				break;
 			}
 			token.getSubTokens().add(spaces);
 			updateNeighbors(tokenReservedWordPrevious, spaces);
-			content.append(spaces.getContent());
 
 			token.getSubTokens().add(tokenReservedWord);
 			updateNeighbors(spaces, tokenReservedWord);
-			content.append(tokenReservedWord.getContent());
-			token.setContent(content.toString());
+			left = tokenReservedWord;
 
-			spaces = isSpaces(tokenReservedWord.getPosContent(), false);
+			spaces = isSpaces(context, tokenReservedWord.getEnd(), false);
 		}
 
-		token.setContent(content.toString());
-		token.setPosContent(command.substring(content.length()));
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <SELECTOR BLOCK> ::= <FIELD VALUE> [[<SPACES>] <COMMA> [<SPACES>]
 	// <SELECTOR BLOCK>]
 	public Token isSelectorBlock(final String text, final boolean required) throws LexicalParserException {
+		return parse(TokenType.SELECTOR_BLOCK, text, required, this::isSelectorBlock);
+	}
+
+	public Token isSelectorBlock(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.SELECTOR_BLOCK, context, offset, required, this::parseSelectorBlock);
+	}
+
+	private Token parseSelectorBlock(final LexicalContext context, final int offset, final boolean required)
+			throws LexicalParserException {
 
-		Token token = new Token(TokenType.SELECTOR_BLOCK, this.timeZoneGMT);
+		Token token = newToken(TokenType.SELECTOR_BLOCK, context, offset);
 
 		Token leftToken = null;
 
-		Token fieldValue = isFieldValue(text, required);
+		Token fieldValue = isFieldValue(context, offset, required);
 		if (fieldValue == null) {
 			return null;
 		}
@@ -1433,50 +1767,48 @@ public class LexicalParser {
 		leftToken = fieldValue;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
-
-		String content = (tokenSpaces == null) ? fieldValue.getPosContent() : tokenSpaces.getPosContent();
+		while (true) {
+			Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 
-		Token comma = isComma(content, false);
-		if (comma != null) {
+			int content = (tokenSpaces == null) ? leftToken.getEnd() : tokenSpaces.getEnd();
 
-			Token tokenSpaces2 = isSpaces(comma.getPosContent(), false);
-
-			content = (tokenSpaces2 == null) ? comma.getPosContent() : tokenSpaces2.getPosContent();
+			Token comma = isComma(context, content, false);
+			if (comma == null) {
+				break;
+			}
 
-			Token anotherSelectorBlock = isSelectorBlock(content, false);
+			Token tokenSpaces2 = isSpaces(context, comma.getEnd(), false);
 
-			if (anotherSelectorBlock != null) {
+			content = (tokenSpaces2 == null) ? comma.getEnd() : tokenSpaces2.getEnd();
 
-				if (tokenSpaces != null) {
-					updateNeighbors(leftToken, tokenSpaces);
-					leftToken = tokenSpaces;
-					token.getSubTokens().add(leftToken);
-				}
+			Token anotherFieldValue = isFieldValue(context, content, false);
+			if (anotherFieldValue == null) {
+				break;
+			}
 
-				updateNeighbors(leftToken, comma);
-				leftToken = comma;
+			if (tokenSpaces != null) {
+				updateNeighbors(leftToken, tokenSpaces);
+				leftToken = tokenSpaces;
 				token.getSubTokens().add(leftToken);
+			}
 
-				if (tokenSpaces2 != null) {
-					updateNeighbors(leftToken, tokenSpaces2);
-					leftToken = tokenSpaces2;
-					token.getSubTokens().add(leftToken);
-				}
+			updateNeighbors(leftToken, comma);
+			leftToken = comma;
+			token.getSubTokens().add(leftToken);
 
-				updateNeighbors(leftToken, anotherSelectorBlock);
-				leftToken = anotherSelectorBlock;
+			if (tokenSpaces2 != null) {
+				updateNeighbors(leftToken, tokenSpaces2);
+				leftToken = tokenSpaces2;
 				token.getSubTokens().add(leftToken);
-
 			}
 
+			updateNeighbors(leftToken, anotherFieldValue);
+			leftToken = anotherFieldValue;
+			token.getSubTokens().add(leftToken);
 		}
 
-		content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setPosContent(leftToken.getPosContent());
-		token.setContent(content);
-		return token;
+		nest(token, TokenType.FIELD_VALUE);
+		return updateBounds(token, leftToken.getEnd());
 
 	}
 
@@ -1484,12 +1816,16 @@ public class LexicalParser {
 	 * <SELECTOR ITEM>::= <SELECTOR ITEM STRICT> [<SPACES><ALIAS>]
 	 */
 	public Token isSelectorItem(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.SELECTOR_ITEM, text, required, this::isSelectorItem);
+	}
 
-		Token token = new Token(TokenType.SELECTOR_ITEM, this.timeZoneGMT);
+	public Token isSelectorItem(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		Token token = newToken(TokenType.SELECTOR_ITEM, context, offset);
 		Token left = null;
-		String content = text;
 
-		Token selectorItemStrict = isSelectorItemStrict(text, required);
+		Token selectorItemStrict = isSelectorItemStrict(context, offset, required);
 
 		if (selectorItemStrict == null) {
 			return null;
@@ -1498,9 +1834,9 @@ public class LexicalParser {
 		left = selectorItemStrict;
 		token.getSubTokens().add(selectorItemStrict);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
-			Token alias = isAlias(spaces.getPosContent(), false);
+			Token alias = isAlias(context, spaces.getEnd(), false);
 			if (alias != null) {
 
 				updateNeighbors(left, spaces);
@@ -1514,33 +1850,33 @@ public class LexicalParser {
 			}
 		}
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <SELECTOR ITEM STRICT> ::= ^<RESERVED WORD> <FIELD VALUE>
 	public Token isSelectorItemStrict(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.SELECTOR_ITEM_STRICT, text, required, this::isSelectorItemStrict);
+	}
+
+	public Token isSelectorItemStrict(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.SELECTOR_ITEM_STRICT, context, offset, required, this::parseSelectorItemStrict);
+	}
+
+	private Token parseSelectorItemStrict(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
 
-		Token token = new Token(TokenType.SELECTOR_ITEM_STRICT, this.timeZoneGMT);
+		Token token = newToken(TokenType.SELECTOR_ITEM_STRICT, context, offset);
 		Token left = null;
-		String content = text;
 
 		// ^<RESERVED WORD>
-		Token reservedWord = isReservedWord(text, false);
+		Token reservedWord = isReservedWord(context, offset, false);
 
 		if (reservedWord != null) {
-			if (required) {
-				buildLexicalParserException(token, "Unexpected reserved word in " + text);
-			} else {
-				return null;
-			}
+			return fail(token, context, offset);
 		}
 
-		Token tokenFieldValue = isFieldValue(text, required);
+		Token tokenFieldValue = isFieldValue(context, offset, required);
 
 		if (tokenFieldValue == null) {
 			return null;
@@ -1551,102 +1887,75 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <SINGLE QUOTED> ::= '
 	public Token isSingleQuoted(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.SINGLE_QUOTED, "'", text, required);
+		return parse(TokenType.SINGLE_QUOTED, text, required, this::isSingleQuoted);
 	}
 
-	private Token isSingleText(TokenType tokenType, String singleText, String text, boolean required)
+	public Token isSingleQuoted(LexicalContext context, int offset, boolean required)
 			throws LexicalParserException {
-		return isSingleText(tokenType, singleText, text, true, null, required);
+		return isSingleText(TokenType.SINGLE_QUOTED, "'", context, offset, required);
 	}
 
-	private Token isSingleText(TokenType tokenType, String singleText, String text, boolean caseSensitive, String scape,
+	private Token isSingleText(TokenType tokenType, String singleText, LexicalContext context, int offset,
 			boolean required) throws LexicalParserException {
+		return isSingleText(tokenType, singleText, context, offset, true, null, required);
+	}
 
-		Token token = new Token(tokenType, this.timeZoneGMT);
-		String originalText = text;
-
-		if (text.length() < singleText.length()) {
-			if (required) {
-
-				buildLexicalParserException(token, text);
-
-			}
-			return null;
-		}
+	private Token isSingleText(TokenType tokenType, String singleText, LexicalContext context, int offset,
+			boolean caseSensitive, String scape, boolean required) throws LexicalParserException {
 
-		String candidateTokenContent = text.substring(0, singleText.length());
+		Token token = newToken(tokenType, context, offset);
+		String text = context.getSource();
 
-		if (!caseSensitive) {
-			text = text.toUpperCase();
-			singleText = singleText.toUpperCase();
+		if (text.length() - offset < singleText.length()) {
+			return fail(token, context, offset);
 		}
 
-		if (scape != null) {
-			if (text.startsWith(scape)) {
-				if (required) {
-
-					buildLexicalParserException(token, text);
-
-				}
-				return null;
-			}
+		// compared in place, a case insensitive keyword does not copy the text
+		if (scape != null && text.regionMatches(!caseSensitive, offset, scape, 0, scape.length())) {
+			return fail(token, context, offset);
 		}
 
-		if (!text.startsWith(singleText)) {
-			if (required) {
-
-				buildLexicalParserException(token, text);
-
-			}
-			return null;
+		if (!text.regionMatches(!caseSensitive, offset, singleText, 0, singleText.length())) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(candidateTokenContent);
-		token.setPosContent(originalText.substring(singleText.length()));
-		return token;
+		return updateBounds(token, offset + singleText.length());
 	}
 
 	// <SPACES> ::= <SPACE> [<SPACES>]
 	public Token isSpaces(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.SPACES, this.timeZoneGMT);
+		return parse(TokenType.SPACES, text, required, this::isSpaces);
+	}
 
-		StringBuffer content = new StringBuffer();
+	public Token isSpaces(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.SPACES, context, offset);
 
-		for (int index = 0; index < text.length(); index++) {
-			char c = text.charAt(index);
-			if (c == ' ' || c == '\n' || c == '\t') {
-				content.append(c);
-			} else {
-				break;
-			}
+		int end = lexemeEnd(context, offset, SPACES);
+		if (end < 0) {
+			end = CharacterClass.scan(context.getSource(), offset, CharacterClass.SPACE);
 		}
-
-		if (content.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+		if (end == offset) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(content.toString());
-		token.setPosContent(text.substring(content.length()));
-		return token;
+		return updateBounds(token, end);
 	}
 
 	// <START_PARAMETERS>::=(
 	public Token isStartParameters(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.START_PARAMETERS, text, required, this::isStartParameters);
+	}
 
-		return isSingleText(TokenType.START_PARAMETERS, "(", text, required);
+	public Token isStartParameters(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		return isSingleText(TokenType.START_PARAMETERS, "(", context, offset, required);
 
 	}
 
@@ -1654,98 +1963,92 @@ public class LexicalParser {
 	// QUOTED>) | (<DOUBLE QUOTED>[<INPUT CHARACTER EXCEPT DOUBLE>]<DOUBLE
 	// QUOTED>)
 	public Token isString(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.STRING, this.timeZoneGMT);
+		return parse(TokenType.STRING, text, required, this::isString);
+	}
+
+	public Token isString(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.STRING, context, offset, required, this::parseString);
+	}
+
+	private Token parseString(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.STRING, context, offset);
 		Token left = null;
-		String content = text;
 
-		Token singleQuoted = isSingleQuoted(text, false);
+		Token singleQuoted = isSingleQuoted(context, offset, false);
 
 		if (singleQuoted == null) {
-			content = "";
-			Token doubleQuoted = isDoubleQuoted(text, required);
+			Token doubleQuoted = isDoubleQuoted(context, offset, required);
 			if (doubleQuoted == null) {
 				return null;
 			}
 			updateNeighbors(left, doubleQuoted);
 			left = doubleQuoted;
-			content += left.getContent();
 			token.getSubTokens().add(left);
-			Token inputToken = isInputCharacterExceptDouble(left.getPosContent(), required);
+			Token inputToken = isInputCharacterExceptDouble(context, left.getEnd(), required);
 			if (inputToken != null) {
 				updateNeighbors(left, inputToken);
 				left = inputToken;
 				token.getSubTokens().add(left);
-				content += left.getContent();
 			}
 
-			doubleQuoted = isDoubleQuoted(left.getPosContent(), required);
+			doubleQuoted = isDoubleQuoted(context, left.getEnd(), required);
 			if (doubleQuoted == null) {
-				if (required) {
-					buildLexicalParserException(token, text);
-				}
-				return null;
+				return fail(token, context, offset);
 			}
 			updateNeighbors(left, doubleQuoted);
 			left = doubleQuoted;
-			content += left.getContent();
 			token.getSubTokens().add(left);
-			token.setContent(content);
-			token.setPosContent(text.substring(content.length()));
-			return token;
+			return updateBounds(token, left.getEnd());
 		} else {
 			left = singleQuoted;
 		}
 		token.getSubTokens().add(left);
 
-		Token inputToken = isInputCharacterExceptSingle(left.getPosContent(), required);
+		Token inputToken = isInputCharacterExceptSingle(context, left.getEnd(), required);
 		if (inputToken != null) {
 			updateNeighbors(left, inputToken);
 			left = inputToken;
 			token.getSubTokens().add(left);
 		}
 
-		singleQuoted = isSingleQuoted(left.getPosContent(), required);
+		singleQuoted = isSingleQuoted(context, left.getEnd(), required);
 		if (singleQuoted == null) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+			return fail(token, context, offset);
 		}
 		updateNeighbors(left, singleQuoted);
 		left = singleQuoted;
 		token.getSubTokens().add(left);
-		content = text.substring(0, text.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <SYMBOL> ::= = | < | > | ! | + | - | / | * | ( | ) | { | } | , [ | ]
 	public Token isSymbol(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.SYMBOL, this.timeZoneGMT);
-
-		if (text.length() == 0 || !SYMBOLS.contains(text.charAt(0))) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
+		return parse(TokenType.SYMBOL, text, required, this::isSymbol);
+	}
 
-		token.setContent(String.valueOf(text.charAt(0)));
+	public Token isSymbol(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.SYMBOL, context, offset);
+		String text = context.getSource();
 
-		token.setPosContent(text.substring(1));
+		if (offset >= text.length() || !CharacterClass.is(text.charAt(offset), CharacterClass.SYMBOL)) {
+			return fail(token, context, offset);
+		}
 
-		return token;
+		return updateBounds(token, offset + 1);
 	}
 
 	// <OPTIONAL PAIR SIMBOL> ::= <SYMBOL>[<SYMBOL>]
 	public Token isOptionalPairSymbol(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.OPTIONAL_PAIR_SYMBOL, text, required, this::isOptionalPairSymbol);
+	}
+
+	public Token isOptionalPairSymbol(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
 
-		Token token = new Token(TokenType.OPTIONAL_PAIR_SYMBOL, this.timeZoneGMT);
+		Token token = newToken(TokenType.OPTIONAL_PAIR_SYMBOL, context, offset);
 		Token left = null;
-		String content = text;
 
-		Token symbolA = isSymbol(text, required);
+		Token symbolA = isSymbol(context, offset, required);
 
 		if (symbolA == null) {
 			return null;
@@ -1754,13 +2057,10 @@ public class LexicalParser {
 		left = symbolA;
 		token.getSubTokens().add(symbolA);
 
-		Token symbolB = isSymbol(left.getPosContent(), false);
+		Token symbolB = isSymbol(context, left.getEnd(), false);
 
 		if (symbolB == null) {
-			content = content.substring(0, content.length() - left.getPosContent().length());
-			token.setContent(content);
-			token.setPosContent(left.getPosContent());
-			return token;
+			return updateBounds(token, left.getEnd());
 		}
 
 		left = symbolB;
@@ -1768,31 +2068,81 @@ public class LexicalParser {
 
 		updateNeighbors(left, symbolB);
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <INSERT> ::= u(INSERT)
 	public Token isInsert(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.INSERT, text, required, this::isInsert);
+	}
+
+	public Token isInsert(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.INSERT, "INSERT", text, false, null, required);
+		return isSingleText(TokenType.INSERT, "INSERT", context, offset, false, null, required);
 
 	}
 
 	// <WHERE> ::= u(WHERE)
 	public Token isWhere(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.WHERE, text, required, this::isWhere);
+	}
+
+	public Token isWhere(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.WHERE, "WHERE", text, false, null, required);
+		return isSingleText(TokenType.WHERE, "WHERE", context, offset, false, null, required);
 
 	}
 
 	// <VALUES> ::= u(VALUES)
 	public Token isValues(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.VALUES, text, required, this::isValues);
+	}
+
+	public Token isValues(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		return isSingleText(TokenType.VALUES, "VALUES", context, offset, false, null, required);
+
+	}
+
+	// folds the sibling items of a list into the nested shape, from the last
+	// item back, so the stack does not grow with the list
+	private void nest(Token token, TokenType... items) {
+		if (!config.nestedLists) {
+			return;
+		}
+
+		List<TokenType> itemTypes = Arrays.asList(items);
+		List<Token> subTokens = token.getSubTokens();
+		int end = subTokens.get(subTokens.size() - 1).getEnd();
+		Token tail = null;
+
+		for (int index = subTokens.size() - 1; index > 0; index--) {
+			Token item = subTokens.get(index);
+			if (!itemTypes.contains(item.getType())) {
+				continue;
+			}
 
-		return isSingleText(TokenType.VALUES, "VALUES", text, false, null, required);
+			Token nested = new Token(token.getType(), config.timeZoneGMT);
+			nested.setSource(token.getSource());
+			nested.setStart(item.getStart());
+			nested.setEnd(end);
 
+			List<Token> rest = subTokens.subList(index, subTokens.size());
+			nested.getSubTokens().addAll(rest);
+			rest.clear();
+			item.setBefore(null);
+
+			if (tail != null) {
+				updateNeighbors(nested.getSubTokens().get(nested.getSubTokens().size() - 1), tail);
+				nested.getSubTokens().add(tail);
+			}
+			tail = nested;
+		}
+
+		if (tail != null) {
+			updateNeighbors(subTokens.get(subTokens.size() - 1), tail);
+			subTokens.add(tail);
+		}
 	}
 
 	private void updateNeighbors(Token before, Token after) {
@@ -1806,43 +2156,74 @@ public class LexicalParser {
 
 	// <INTO> ::= u(INTO)
 	public Token isInto(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.INTO, text, required, this::isInto);
+	}
 
-		return isSingleText(TokenType.INTO, "INTO", text, false, null, required);
+	public Token isInto(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		return isSingleText(TokenType.INTO, "INTO", context, offset, false, null, required);
 
 	}
 
 	// <START BRACKET>::=[
 	public Token isStartBracket(String cql, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.START_BRACKET, "[", cql, required);
+		return parse(TokenType.START_BRACKET, cql, required, this::isStartBracket);
+	}
+
+	public Token isStartBracket(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isSingleText(TokenType.START_BRACKET, "[", context, offset, required);
 	}
 
 	// <END BRACKET>::=]
 	public Token isEndBracket(String cql, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.END_BRACKET, "]", cql, required);
+		return parse(TokenType.END_BRACKET, cql, required, this::isEndBracket);
+	}
+
+	public Token isEndBracket(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.END_BRACKET, "]", context, offset, required);
 	}
 
 	// <START BRACE>::={
 	public Token isStartBrace(String cql, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.START_BRACE, "{", cql, required);
+		return parse(TokenType.START_BRACE, cql, required, this::isStartBrace);
+	}
+
+	public Token isStartBrace(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.START_BRACE, "{", context, offset, required);
 	}
 
 	// <END BRACE>::= }
 	public Token isEndBrace(String cql, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.END_BRACE, "}", cql, required);
+		return parse(TokenType.END_BRACE, cql, required, this::isEndBrace);
+	}
+
+	public Token isEndBrace(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.END_BRACE, "}", context, offset, required);
 	}
 
 	// <ARRAY>::= <ARRAY BRACKET> | <ARRAY BRACE>
 	public Token isArray(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ARRAY, text, required, this::isArray);
+	}
+
+	public Token isArray(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ARRAY, context, offset, required, this::parseArray);
+	}
+
+	private Token parseArray(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token token = new Token(TokenType.ARRAY, this.timeZoneGMT);
+		Token token = newToken(TokenType.ARRAY, context, offset);
 		Token left = null;
 
-		Token arrayBracket = isArrayBracket(text, false);
+		int viable = predict(LookaheadTables.ARRAY, context, offset);
+
+		Token arrayBracket = Lookahead.isViable(viable, 0) ? isArrayBracket(context, offset, false) : null;
 
 		if (arrayBracket != null) {
 			left = arrayBracket;
 		} else {
-			Token arrayBrace = isArrayBrace(text, required);
+			Token arrayBrace = Lookahead.isViable(viable, 1) ? isArrayBrace(context, offset, required) : null;
 
 			if (arrayBrace == null) {
 				return null;
@@ -1852,21 +2233,26 @@ public class LexicalParser {
 		}
 
 		token.getSubTokens().add(left);
-		token.setContent(left.getContent());
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <MAP>::= <START BRACE>[<SPACES>][<PROPERTIES>][<SPACES>]<END BRACE>
 	public Token isMap(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.MAP, text, required, this::isMap);
+	}
 
-		Token token = new Token(TokenType.MAP, this.timeZoneGMT);
+	public Token isMap(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.MAP, context, offset, required, this::parseMap);
+	}
+
+	private Token parseMap(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		Token token = newToken(TokenType.MAP, context, offset);
 		Token left = null;
-		String content = text;
 
 		// START MAP
-		Token startMap = isStartBrace(text, required);
+		Token startMap = isStartBrace(context, offset, required);
 
 		if (startMap == null) {
 			return null;
@@ -1875,21 +2261,21 @@ public class LexicalParser {
 		left = startMap;
 		token.getSubTokens().add(startMap);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token properties = isProperties(left.getPosContent(), false);
+		Token properties = isProperties(context, left.getEnd(), false);
 		if (properties != null) {
 			updateNeighbors(left, properties);
 			left = properties;
 			token.getSubTokens().add(left);
 		}
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
@@ -1897,7 +2283,7 @@ public class LexicalParser {
 		}
 
 		// END MAP
-		Token endBrace = isEndBrace(left.getPosContent(), required);
+		Token endBrace = isEndBrace(context, left.getEnd(), required);
 
 		if (endBrace == null) {
 			return null;
@@ -1906,22 +2292,26 @@ public class LexicalParser {
 		updateNeighbors(left, endBrace);
 		left = endBrace;
 		token.getSubTokens().add(endBrace);
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <PROPERTIES> ::= <PROPERTY> [[<SPACES>]<COMMA>[<SPACES>] <PROPERTIES>]
 	public Token isProperties(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.PROPERTIES, text, required, this::isProperties);
+	}
+
+	public Token isProperties(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.PROPERTIES, context, offset, required, this::parseProperties);
+	}
+
+	private Token parseProperties(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token token = new Token(TokenType.PROPERTIES, this.timeZoneGMT);
+		Token token = newToken(TokenType.PROPERTIES, context, offset);
 		Token left = null;
-		String content = text;
 
 		// START ARRAY
-		Token property = isProperty(text, required);
+		Token property = isProperty(context, offset, required);
 
 		if (property == null) {
 			return null;
@@ -1930,54 +2320,64 @@ public class LexicalParser {
 		left = property;
 		token.getSubTokens().add(property);
 
-		Token originalToken = token.clone();
-		Token originalLeft = left.clone();
+		while (true) {
+			Token spaces = isSpaces(context, left.getEnd(), false);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
-		if (spaces != null) {
-			updateNeighbors(left, spaces);
-			left = spaces;
-			token.getSubTokens().add(left);
-		}
+			int content = (spaces == null) ? left.getEnd() : spaces.getEnd();
+
+			Token commaToken = isComma(context, content, false);
+			if (commaToken == null) {
+				break;
+			}
 
-		Token commaToken = isComma(left.getPosContent(), false);
-		if (commaToken != null) {
+			Token spaces2 = isSpaces(context, commaToken.getEnd(), false);
 
-			updateNeighbors(left, commaToken);
-			left = commaToken;
-			token.getSubTokens().add(left);
+			content = (spaces2 == null) ? commaToken.getEnd() : spaces2.getEnd();
+
+			Token otherProperty = isProperty(context, content, false);
+			if (otherProperty == null) {
+				break;
+			}
 
-			spaces = isSpaces(left.getPosContent(), false);
 			if (spaces != null) {
 				updateNeighbors(left, spaces);
 				left = spaces;
 				token.getSubTokens().add(left);
 			}
 
-			Token otherProperties = isProperties(left.getPosContent(), false);
-			if (otherProperties != null) {
+			updateNeighbors(left, commaToken);
+			left = commaToken;
+			token.getSubTokens().add(left);
 
-				updateNeighbors(left, otherProperties);
-				left = otherProperties;
+			if (spaces2 != null) {
+				updateNeighbors(left, spaces2);
+				left = spaces2;
 				token.getSubTokens().add(left);
-
-				originalToken = token;
-				originalLeft = left;
 			}
+
+			updateNeighbors(left, otherProperty);
+			left = otherProperty;
+			token.getSubTokens().add(left);
 		}
 
-		content = content.substring(0, content.length() - originalLeft.getPosContent().length());
-		originalToken.setContent(content);
-		originalToken.setPosContent(originalLeft.getPosContent());
-		return originalToken;
+		nest(token, TokenType.PROPERTY);
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <PROPERTY> ::= <KEY>[<SPACES>]<DOUBLE DOT>[<SPACES>]<LITERAL>
 	public Token isProperty(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.PROPERTY, this.timeZoneGMT);
+		return parse(TokenType.PROPERTY, text, required, this::isProperty);
+	}
+
+	public Token isProperty(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.PROPERTY, context, offset, required, this::parseProperty);
+	}
+
+	private Token parseProperty(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.PROPERTY, context, offset);
 		Token left = null;
 
-		Token key = isKey(text, required);
+		Token key = isKey(context, offset, required);
 
 		if (key == null) {
 			return null;
@@ -1986,14 +2386,14 @@ public class LexicalParser {
 		left = key;
 		token.getSubTokens().add(left);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token doubleDot = isDoubleDot(left.getPosContent(), required);
+		Token doubleDot = isDoubleDot(context, left.getEnd(), required);
 		if (doubleDot == null) {
 			return null;
 		}
@@ -2002,14 +2402,14 @@ public class LexicalParser {
 		left = doubleDot;
 		token.getSubTokens().add(left);
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token literal = isLiteral(left.getPosContent(), required);
+		Token literal = isLiteral(context, left.getEnd(), required);
 		if (literal == null) {
 			return null;
 		}
@@ -2018,23 +2418,29 @@ public class LexicalParser {
 		left = literal;
 		token.getSubTokens().add(left);
 
-		String content = text.substring(0, text.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <KEY> ::= <CHARS>|<LITERAL>
 	public Token isKey(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.KEY, text, required, this::isKey);
+	}
+
+	public Token isKey(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.KEY, context, offset, required, this::parseKey);
+	}
+
+	private Token parseKey(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token token = new Token(TokenType.KEY, this.timeZoneGMT);
+		Token token = newToken(TokenType.KEY, context, offset);
 		Token left = null;
 
-		Token chars = isChars(text, false);
+		int viable = predict(LookaheadTables.KEY, context, offset);
+
+		Token chars = Lookahead.isViable(viable, 0) ? isChars(context, offset, false) : null;
 
 		if (chars == null) {
-			Token literal = isLiteral(text, required);
+			Token literal = Lookahead.isViable(viable, 1) ? isLiteral(context, offset, required) : null;
 			if (literal == null) {
 				return null;
 			}
@@ -2044,51 +2450,50 @@ public class LexicalParser {
 		}
 
 		token.getSubTokens().add(left);
-		String content = text.substring(0, text.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
 
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <AS> :: = AS
 	public Token isAs(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.AS, "AS", text, false, null, required);
+		return parse(TokenType.AS, text, required, this::isAs);
+	}
+
+	public Token isAs(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.AS, "AS", context, offset, false, null, required);
 	}
 
 	// <ALIAS>::=[<AS> <SPACES>] <ENTITY NAME>
 	public Token isAlias(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ALIAS, text, required, this::isAlias);
+	}
 
-		Token token = new Token(TokenType.ALIAS, this.timeZoneGMT);
-		Token left = null;
+	public Token isAlias(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ALIAS, context, offset, required, this::parseAlias);
+	}
 
-		Token as = isAs(text, false);
+	private Token parseAlias(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token tokenOriginal = token;
-		token = token.clone();
+		Token token = newToken(TokenType.ALIAS, context, offset);
+		Token left = null;
 
-		boolean backToOrigin = true;
+		Token as = isAs(context, offset, false);
 
 		if (as != null) {
-			updateNeighbors(left, as);
 			left = as;
-			token.getSubTokens().add(left);
 
-			Token spaces = isSpaces(left.getPosContent(), false);
+			// AS only belongs to the alias when SPACES follow it
+			Token spaces = isSpaces(context, as.getEnd(), false);
 			if (spaces != null) {
-				updateNeighbors(left, spaces);
+				updateNeighbors(as, spaces);
 				left = spaces;
-				token.getSubTokens().add(left);
-				backToOrigin = false;
+				token.getSubTokens().add(as);
+				token.getSubTokens().add(spaces);
 			}
 		}
 
-		if (backToOrigin) {
-			token = tokenOriginal;
-		}
-
-		String content = (left == null) ? text : left.getPosContent();
-		Token fieldNameToken = isEntityName(content, required);
+		int content = (left == null) ? offset : left.getEnd();
+		Token fieldNameToken = isEntityName(context, content, required);
 		if (fieldNameToken == null) {
 			return null;
 		}
@@ -2096,18 +2501,23 @@ public class LexicalParser {
 		left = fieldNameToken;
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <FIELD NAME> ::= [<TABLE NAME>[<SPACES>]<ACESSOR>[<SPACES>]] (<ENTITY
 	// NAME>|<ASTERISK>)
 	public Token isFieldName(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.FIELD_NAME, this.timeZoneGMT);
+		return parse(TokenType.FIELD_NAME, text, required, this::isFieldName);
+	}
+
+	public Token isFieldName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.FIELD_NAME, context, offset, required, this::parseFieldName);
+	}
 
-		Token tokenTableName = isTableName(text, false);
+	private Token parseFieldName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.FIELD_NAME, context, offset);
+
+		Token tokenTableName = isTableName(context, offset, false);
 		Token left = null;
 		Token tokenAcessor = null;
 
@@ -2115,7 +2525,7 @@ public class LexicalParser {
 
 			left = tokenTableName;
 
-			Token tokenSpaces = isSpaces(left.getPosContent(), false);
+			Token tokenSpaces = isSpaces(context, left.getEnd(), false);
 
 			if (tokenSpaces != null) {
 				updateNeighbors(left, tokenSpaces);
@@ -2123,7 +2533,7 @@ public class LexicalParser {
 
 			}
 
-			tokenAcessor = isAcessor(left.getPosContent(), false);
+			tokenAcessor = isAcessor(context, left.getEnd(), false);
 
 			if (tokenAcessor != null) {
 				updateNeighbors(left, tokenAcessor);
@@ -2135,7 +2545,7 @@ public class LexicalParser {
 				}
 				token.getSubTokens().add(tokenAcessor);
 
-				tokenSpaces = isSpaces(left.getPosContent(), false);
+				tokenSpaces = isSpaces(context, left.getEnd(), false);
 
 				if (tokenSpaces != null) {
 					updateNeighbors(left, tokenSpaces);
@@ -2147,9 +2557,9 @@ public class LexicalParser {
 			}
 		}
 
-		String content = (tokenAcessor == null) ? text : tokenAcessor.getPosContent();
+		int content = (tokenAcessor == null) ? offset : tokenAcessor.getEnd();
 
-		Token tokenEntityName = isEntityName(content, false);
+		Token tokenEntityName = isEntityName(context, content, false);
 
 		updateNeighbors(tokenAcessor, tokenEntityName);
 
@@ -2157,7 +2567,7 @@ public class LexicalParser {
 
 		if (left == null) {
 
-			Token tokenAsterisk = isAsterisk(text, required);
+			Token tokenAsterisk = isAsterisk(context, offset, required);
 			if (tokenAsterisk == null) {
 				return null;
 			}
@@ -2167,90 +2577,231 @@ public class LexicalParser {
 
 		}
 
-		token.getSubTokens().add(left);
-		token.setPosContent(left.getPosContent());
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		return token;
+		token.getSubTokens().add(left);
+		return updateBounds(token, left.getEnd());
+	}
+
+	public Token isDigit(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.DIGIT, text, required, this::isDigit);
+	}
+
+	public Token isDigit(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.DIGIT, context, offset);
+		String text = context.getSource();
+
+		if (offset >= text.length()) {
+			return fail(token, context, offset);
+		}
+
+		if (!CharacterClass.isDigit(text.charAt(offset))) {
+			return fail(token, context, offset);
+		}
+
+		return updateBounds(token, offset + 1);
+	}
+
+	// <END CREATE TABLE>::=^<DOT COMMA> <ANY> [<END CREATE TABLE>]
+	public Token isEndCreateTable(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.END_CREATE_TABLE, text, required, this::isEndCreateTable);
+	}
+
+	public Token isEndCreateTable(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		Token token = newToken(TokenType.END_CREATE_TABLE, context, offset);
+
+		int end = endOfCommand(context, offset);
+		if (end == offset) {
+			return fail(token, context, offset);
+		}
+
+		if (config.columnDefinitions) {
+			addColumnDefinitions(token, context, offset, end);
+		}
+
+		return updateBounds(token, end);
 	}
 
-	public Token isDigit(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.DIGIT, this.timeZoneGMT);
-
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
+	// the body of a create runs up to the next ; out of quotes or to the end of
+	// the text
+	private int endOfCommand(LexicalContext context, int offset) {
+		String text = context.getSource();
+		for (int index = offset; index < text.length(); index++) {
+			char character = text.charAt(index);
+			if (character == ';') {
+				return index;
+			}
+			if (character == '\'' || character == '"') {
+				index = endOfQuote(text, index, text.length());
+				if (index < 0) {
+					break;
+				}
 			}
-			return null;
 		}
+		return text.length();
+	}
 
-		char character = text.charAt(0);
-
-		boolean number = character >= '0' && character <= '9';
+	// offset of the quote that closes the one at the index, -1 when there is
+	// none before the end; a doubled quote is read as two quoted texts
+	private int endOfQuote(String text, int index, int end) {
+		int quote = text.indexOf(text.charAt(index), index + 1);
+		return (quote < 0 || quote >= end) ? -1 : quote;
+	}
 
-		if (!number) {
-			if (required) {
-				buildLexicalParserException(token, text);
+	// whether the parentheses out of quotes between from and to are balanced
+	private boolean isBalanced(String text, int from, int to) {
+		int depth = 0;
+		for (int index = from; index < to && depth >= 0; index++) {
+			char character = text.charAt(index);
+			if (character == '\'' || character == '"') {
+				index = endOfQuote(text, index, to);
+				if (index < 0) {
+					return false;
+				}
+			} else if (character == '(') {
+				depth++;
+			} else if (character == ')') {
+				depth--;
 			}
-			return null;
 		}
+		return depth == 0;
+	}
 
-		token.setContent(String.valueOf(character));
-		token.setPosContent(text.substring(1));
-
-		return token;
+	// the options after the column list are empty or start with WITH
+	private boolean isTableOptions(String text, int from, int to) {
+		int start = from;
+		while (start < to && CharacterClass.isSpace(text.charAt(start))) {
+			start++;
+		}
+		if (start == to) {
+			return true;
+		}
+		int keyword = start + "WITH".length();
+		return keyword <= to && text.regionMatches(true, start, "WITH", 0, "WITH".length())
+				&& (keyword == to || CharacterClass.isSpace(text.charAt(keyword))) && isBalanced(text, keyword, to);
 	}
 
-	// <END CREATE TABLE>::=^<DOT COMMA> <ANY> [<END CREATE TABLE>]
-	public Token isEndCreateTable(String text, boolean required) throws LexicalParserException {
+	// [<SPACES>] <CREATE TABLE NAME> [<SPACES>] <COLUMN LIST> [<SPACES>] [<TABLE OPTIONS>] [<SPACES>]
+	// keeps the body as a single token when it does not have that shape
+	private void addColumnDefinitions(Token token, LexicalContext context, int offset, int end) {
+		String text = context.getSource();
 
-		Token token = new Token(TokenType.END_CREATE_TABLE, this.timeZoneGMT);
-		Token left = null;
+		int open = text.indexOf('(', offset);
+		if (open < 0 || open >= end || !isBalanced(text, offset, open)) {
+			return;
+		}
 
-		Token dotComma = isDotComma(text, false);
+		List<Token> subTokens = new ArrayList<>();
+		if (!addTrimmed(subTokens, TokenType.CREATE_TABLE_NAME, context, offset, open)) {
+			return;
+		}
 
-		if (dotComma != null) {
-			if (required) {
-				buildLexicalParserException(token, text);
+		Token columnList = newToken(TokenType.COLUMN_LIST, context, open);
+		List<Token> columns = columnList.getSubTokens();
+		columns.add(updateBounds(newToken(TokenType.START_PARAMETERS, context, open), open + 1));
+
+		int depth = 1;
+		int column = open + 1;
+		int index = open + 1;
+		for (; index < end && depth > 0; index++) {
+			char character = text.charAt(index);
+			if (character == '\'' || character == '"') {
+				index = endOfQuote(text, index, end);
+				if (index < 0) {
+					return;
+				}
+			} else if (character == '(' || character == '<') {
+				depth++;
+			} else if (character == '>') {
+				if (depth == 1) {
+					return;
+				}
+				depth--;
+			} else if (character == ')') {
+				depth--;
+				if (depth == 0 && !addTrimmed(columns, TokenType.COLUMN_DEFINITION, context, column, index)) {
+					return;
+				}
+			} else if (character == ',' && depth == 1) {
+				if (!addTrimmed(columns, TokenType.COLUMN_DEFINITION, context, column, index)) {
+					return;
+				}
+				columns.add(updateBounds(newToken(TokenType.COMMA, context, index), index + 1));
+				column = index + 1;
 			}
-			return null;
 		}
 
-		Token anyToken = isAny(text, required);
-		if (anyToken == null) {
-			return null;
+		if (depth != 0 || !isTableOptions(text, index, end)) {
+			return;
 		}
 
-		left = anyToken;
-		token.getSubTokens().add(left);
+		columns.add(updateBounds(newToken(TokenType.END_PARAMETERS, context, index - 1), index));
+		linkNeighbors(columns);
+		subTokens.add(updateBounds(columnList, index));
 
-		Token nextEndCreateTable = isEndCreateTable(text.substring(1), false);
-		if (nextEndCreateTable != null) {
-			updateNeighbors(left, nextEndCreateTable);
-			left = nextEndCreateTable;
-			token.getSubTokens().add(left);
+		addTrimmed(subTokens, TokenType.TABLE_OPTIONS, context, index, end);
+		linkNeighbors(subTokens);
+		token.getSubTokens().addAll(subTokens);
+	}
+
+	// adds the text between from and to as a token of the type, with the spaces
+	// around it as SPACES tokens, false when there is only spaces
+	private boolean addTrimmed(List<Token> tokens, TokenType type, LexicalContext context, int from, int to) {
+		String text = context.getSource();
+
+		int start = from;
+		while (start < to && CharacterClass.isSpace(text.charAt(start))) {
+			start++;
+		}
+		int end = to;
+		while (end > start && CharacterClass.isSpace(text.charAt(end - 1))) {
+			end--;
 		}
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
+		if (start > from) {
+			tokens.add(updateBounds(newToken(TokenType.SPACES, context, from), start));
+		}
+		if (end > start) {
+			tokens.add(updateBounds(newToken(type, context, start), end));
+		}
+		if (to > end) {
+			tokens.add(updateBounds(newToken(TokenType.SPACES, context, end), to));
+		}
 
-		return token;
+		return end > start;
+	}
+
+	private void linkNeighbors(List<Token> tokens) {
+		for (int index = 1; index < tokens.size(); index++) {
+			updateNeighbors(tokens.get(index - 1), tokens.get(index));
+		}
 	}
 
 	// <DOT COMMA> :: = ;
 	public Token isDotComma(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.DOT_COMMA, ";", text, false, null, required);
+		return parse(TokenType.DOT_COMMA, text, required, this::isDotComma);
+	}
+
+	public Token isDotComma(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.DOT_COMMA, ";", context, offset, false, null, required);
 	}
 
 	// <ALLOW PARAMETER> ::= <ALLOW><SPACES><FILTERING>
 	public Token isAllowParameter(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.ALLOW_PARAMETER, this::isAllow, this::isFiltering);
+		return parse(TokenType.ALLOW_PARAMETER, text, required, this::isAllowParameter);
+	}
+
+	public Token isAllowParameter(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.ALLOW_PARAMETER, this::isAllow,
+				this::isFiltering);
 	}
 
 	// <X> ::= <A> <SPACES> <B>
 	public Token isDoubleTokensSpaced(String text, boolean required, TokenType type, LexicalTester testerA,
 			LexicalTester testerB) throws LexicalParserException {
 
-		Token token = new Token(type, this.timeZoneGMT);
+		Token token = new Token(type, config.timeZoneGMT);
 		Token left = null;
 
 		if (text.length() == 0) {
@@ -2295,36 +2846,99 @@ public class LexicalParser {
 		return token;
 	}
 
+	// <X> ::= <A> <SPACES> <B>
+	public Token isDoubleTokensSpaced(LexicalContext context, int offset, boolean required, TokenType type,
+			LexicalContextTester testerA, LexicalContextTester testerB) throws LexicalParserException {
+
+		Token token = newToken(type, context, offset);
+		Token left = null;
+
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
+		}
+
+		Token a = testerA.is(context, offset, required);
+		left = a;
+
+		if (left == null) {
+			return null;
+		}
+
+		token.getSubTokens().add(left);
+
+		Token spaces = isSpaces(context, left.getEnd(), required);
+		updateNeighbors(left, spaces);
+		left = spaces;
+
+		if (left == null) {
+			return null;
+		}
+
+		token.getSubTokens().add(left);
+
+		Token b = testerB.is(context, left.getEnd(), required);
+		updateNeighbors(left, b);
+		left = b;
+
+		if (left == null) {
+			return null;
+		}
+
+		token.getSubTokens().add(left);
+
+		return updateBounds(token, left.getEnd());
+	}
+
 	// <START CREATE TABLE> ::= <CREATE> <SPACES> <TABLE>
 	public Token isStartCreateTable(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.START_CREATE_TABLE, this::isCreate, this::isTable);
+		return parse(TokenType.START_CREATE_TABLE, text, required, this::isStartCreateTable);
+	}
+
+	public Token isStartCreateTable(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.START_CREATE_TABLE, this::isCreate,
+				this::isTable);
 
 	}
 
 	// <CREATE> :: = CREATE
 	public Token isCreate(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.CREATE, "CREATE", text, false, null, required);
+		return parse(TokenType.CREATE, text, required, this::isCreate);
+	}
+
+	public Token isCreate(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.CREATE, "CREATE", context, offset, false, null, required);
 	}
 
 	// <TABLE> :: = TABLE
 	public Token isTable(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.TABLE, "TABLE", text, false, null, required);
+		return parse(TokenType.TABLE, text, required, this::isTable);
+	}
+
+	public Token isTable(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.TABLE, "TABLE", context, offset, false, null, required);
 	}
 
 	// <CREATE TABLE COMMAND> ::= <START CREATE TABLE> <END CREATE TABLE>
 	public Token isCreateTableCommand(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.CREATE_TABLE_COMMAND, text, required, this::isCreateTableCommand);
+	}
+
+	public Token isCreateTableCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.CREATE_TABLE_COMMAND, context, offset, required, this::parseCreateTableCommand);
+	}
 
-		Token token = new Token(TokenType.CREATE_TABLE_COMMAND, this.timeZoneGMT);
+	private Token parseCreateTableCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		Token token = newToken(TokenType.CREATE_TABLE_COMMAND, context, offset);
 		Token left = null;
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 		}
 
-		Token startCreateTable = isStartCreateTable(text, required);
+		Token startCreateTable = isStartCreateTable(context, offset, required);
 		left = startCreateTable;
 
 		if (left == null) {
@@ -2333,7 +2947,7 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		Token endCreateTable = isEndCreateTable(left.getPosContent(), required);
+		Token endCreateTable = isEndCreateTable(context, left.getEnd(), required);
 		updateNeighbors(left, endCreateTable);
 		left = endCreateTable;
 
@@ -2343,80 +2957,57 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <SIGN>::=+|-
 	public Token isSign(String text, boolean required) throws LexicalParserException {
-		Token plus = isSingleText(TokenType.SIGN, "+", text, false);
+		return parse(TokenType.SIGN, text, required, this::isSign);
+	}
+
+	public Token isSign(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token plus = isSingleText(TokenType.SIGN, "+", context, offset, false);
 		if (plus != null) {
 			return plus;
 		}
-		return isSingleText(TokenType.SIGN, "-", text, required);
+		return isSingleText(TokenType.SIGN, "-", context, offset, required);
 
 	}
 
 	// <ABSOLUTE HEXA>::= (<HEXA CHAR>|<DIGIT>)[<ABSOLUTE HEXA>]
 	public Token isAbsoluteHexa(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ABSOLUTE_HEX, this.timeZoneGMT);
-		Token left = null;
-
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
-
-		Token hexaChar = isHexaChar(text, false);
-
-		if (hexaChar != null) {
-			left = hexaChar;
-			token.getSubTokens().add(left);
-		}
-
-		if (left == null) {
-			Token digit = isDigit(text, false);
-			if (digit != null) {
-				left = digit;
-				token.getSubTokens().add(left);
-			}
-		}
-
-		if (left == null) {
-			if (required) {
-				buildLexicalParserException(token, text);
+		return parse(TokenType.ABSOLUTE_HEX, text, required, this::isAbsoluteHexa);
+	}
 
-			}
-			return null;
-		}
+	public Token isAbsoluteHexa(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.ABSOLUTE_HEX, context, offset);
 
-		Token anotherAbsoluteHexa = isAbsoluteHexa(left.getPosContent(), false);
-		if (anotherAbsoluteHexa != null) {
-			updateNeighbors(left, anotherAbsoluteHexa);
-			left = anotherAbsoluteHexa;
-			token.getSubTokens().add(left);
+		int end = CharacterClass.scan(context.getSource(), offset, CharacterClass.HEXA_DIGIT);
+		if (end == offset) {
+			return fail(token, context, offset);
 		}
 
-		token.setPosContent(left.getPosContent());
-		token.setContent(text.substring(0, text.length() - token.getPosContent().length()));
-
-		return token;
+		return updateBounds(token, end);
 	}
 
 	// //<ARRAY BRACE> ::= <START BRACE>[<SPACES>][<SELECTOR
 	// BLOCK>][<SPACES>]<END BRACE>
 	public Token isArrayBrace(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ARRAY_BRACE, text, required, this::isArrayBrace);
+	}
 
-		Token token = new Token(TokenType.ARRAY_BRACE, this.timeZoneGMT);
+	public Token isArrayBrace(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ARRAY_BRACE, context, offset, required, this::parseArrayBrace);
+	}
+
+	private Token parseArrayBrace(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		Token token = newToken(TokenType.ARRAY_BRACE, context, offset);
 		Token left = null;
-		String content = text;
 
 		// START
-		Token startArray = isStartBrace(text, required);
+		Token startArray = isStartBrace(context, offset, required);
 
 		if (startArray == null) {
 			return null;
@@ -2425,21 +3016,21 @@ public class LexicalParser {
 		left = startArray;
 		token.getSubTokens().add(startArray);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token selectorBlock = isSelectorBlock(left.getPosContent(), false);
+		Token selectorBlock = isSelectorBlock(context, left.getEnd(), false);
 		if (selectorBlock != null) {
 			updateNeighbors(left, selectorBlock);
 			left = selectorBlock;
 			token.getSubTokens().add(left);
 		}
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
@@ -2447,7 +3038,7 @@ public class LexicalParser {
 		}
 
 		// END
-		Token endArray = isEndBrace(left.getPosContent(), required);
+		Token endArray = isEndBrace(context, left.getEnd(), required);
 
 		if (endArray == null) {
 			return null;
@@ -2456,22 +3047,27 @@ public class LexicalParser {
 		updateNeighbors(left, endArray);
 		left = endArray;
 		token.getSubTokens().add(endArray);
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <ARRAY BRACKET>::= <START BRACKET>[<SPACES>][<SELECTOR
 	// BLOCK>][<SPACES>]<END BRACKET>
 	public Token isArrayBracket(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ARRAY_BRACKET, this.timeZoneGMT);
+		return parse(TokenType.ARRAY_BRACKET, text, required, this::isArrayBracket);
+	}
+
+	public Token isArrayBracket(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ARRAY_BRACKET, context, offset, required, this::parseArrayBracket);
+	}
+
+	private Token parseArrayBracket(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.ARRAY_BRACKET, context, offset);
 		Token left = null;
-		String content = text;
 
 		// START ARRAY
-		Token startArray = isStartBracket(text, required);
+		Token startArray = isStartBracket(context, offset, required);
 
 		if (startArray == null) {
 			return null;
@@ -2480,21 +3076,21 @@ public class LexicalParser {
 		left = startArray;
 		token.getSubTokens().add(startArray);
 
-		Token spaces = isSpaces(left.getPosContent(), false);
+		Token spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
 			token.getSubTokens().add(left);
 		}
 
-		Token selectorBlock = isSelectorBlock(left.getPosContent(), false);
+		Token selectorBlock = isSelectorBlock(context, left.getEnd(), false);
 		if (selectorBlock != null) {
 			updateNeighbors(left, selectorBlock);
 			left = selectorBlock;
 			token.getSubTokens().add(left);
 		}
 
-		spaces = isSpaces(left.getPosContent(), false);
+		spaces = isSpaces(context, left.getEnd(), false);
 		if (spaces != null) {
 			updateNeighbors(left, spaces);
 			left = spaces;
@@ -2502,7 +3098,7 @@ public class LexicalParser {
 		}
 
 		// END ARRAY
-		Token endArray = isEndBracket(left.getPosContent(), required);
+		Token endArray = isEndBracket(context, left.getEnd(), required);
 
 		if (endArray == null) {
 			return null;
@@ -2511,19 +3107,21 @@ public class LexicalParser {
 		updateNeighbors(left, endArray);
 		left = endArray;
 		token.getSubTokens().add(endArray);
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <TTL PARAMETER>::=<TTL> <SPACES> (<NUMBER> | <INJECT> )
 	public Token isTTLParameter(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.TTL_PARAMETER, text, required, this::isTTLParameter);
+	}
+
+	public Token isTTLParameter(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
 
-		Token token = new Token(TokenType.TTL_PARAMETER, this.timeZoneGMT);
+		Token token = newToken(TokenType.TTL_PARAMETER, context, offset);
 		Token left = null;
 
-		Token startTtl = isTTL(text, required);
+		Token startTtl = isTTL(context, offset, required);
 		if (startTtl == null) {
 			return null;
 		}
@@ -2531,7 +3129,7 @@ public class LexicalParser {
 		left = startTtl;
 		token.getSubTokens().add(left);
 
-		Token spaces = isSpaces(text.substring(3), required);
+		Token spaces = isSpaces(context, offset + 3, required);
 
 		if (spaces == null) {
 			return null;
@@ -2541,10 +3139,10 @@ public class LexicalParser {
 		left = spaces;
 		token.getSubTokens().add(left);
 
-		Token number = isNumber(left.getPosContent(), required);
+		Token number = isNumber(context, left.getEnd(), required);
 
 		if (number == null) {
-			Token inject = isInject(spaces.getPosContent(), required);
+			Token inject = isInject(context, spaces.getEnd(), required);
 			if (inject == null) {
 				return null;
 			}
@@ -2556,88 +3154,80 @@ public class LexicalParser {
 		updateNeighbors(spaces, left);
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <USING OPTION>::=<START USING> <SPACES> <END USING>
 	public Token isUsingOption(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.USING_OPTION, this::isStartUsing, this::isEndUsing);
+		return parse(TokenType.USING_OPTION, text, required, this::isUsingOption);
+	}
+
+	public Token isUsingOption(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.USING_OPTION, this::isStartUsing,
+				this::isEndUsing);
 
 	}
 
 	// <END CREATE INDEX COMMAND>::=^<DOT COMMA> <ANY> [<END CREATE INDEX
 	// COMMAND>]
 	public Token isEndCreateIndexCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.END_CREATE_INDEX_COMMAND, this.timeZoneGMT);
-		Token left = null;
-
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
-
-		Token dotComma = isDotComma(text, false);
-
-		if (dotComma != null) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
-		}
-
-		Token anyToken = isAny(text, required);
-
-		if (anyToken == null) {
-			return null;
-		}
+		return parse(TokenType.END_CREATE_INDEX_COMMAND, text, required, this::isEndCreateIndexCommand);
+	}
 
-		left = anyToken;
-		token.getSubTokens().add(left);
+	public Token isEndCreateIndexCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.END_CREATE_INDEX_COMMAND, context, offset);
 
-		Token nextEndCreateTable = isEndCreateIndexCommand(left.getPosContent(), false);
-		if (nextEndCreateTable != null) {
-			updateNeighbors(left, nextEndCreateTable);
-			left = nextEndCreateTable;
-			token.getSubTokens().add(left);
+		int end = endOfCommand(context, offset);
+		if (end == offset) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, end);
 	}
 
 	// <INDEX> ::= u(INDEX)
 	public Token isIndex(String text, boolean required) throws LexicalParserException {
-		return isSingleText(TokenType.INDEX, "INDEX", text, false, null, required);
+		return parse(TokenType.INDEX, text, required, this::isIndex);
+	}
+
+	public Token isIndex(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return isSingleText(TokenType.INDEX, "INDEX", context, offset, false, null, required);
 	}
 
 	// <START CREATE INDEX COMMAND> ::= <CREATE> <SPACES> <INDEX>
 	public Token isStartCreateIndexCommand(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.START_CREATE_INDEX_COMMAND, this::isCreate,
-				this::isIndex);
+		return parse(TokenType.START_CREATE_INDEX_COMMAND, text, required, this::isStartCreateIndexCommand);
+	}
+
+	public Token isStartCreateIndexCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.START_CREATE_INDEX_COMMAND,
+				this::isCreate, this::isIndex);
 
 	}
 
 	// <CREATE INDEX COMMAND> ::= <START CREATE INDEX COMMAND> <END CREATE INDEX
 	// COMMAND>
 	public Token isCreateIndexCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.CREATE_INDEX_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.CREATE_INDEX_COMMAND, text, required, this::isCreateIndexCommand);
+	}
+
+	public Token isCreateIndexCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.CREATE_INDEX_COMMAND, context, offset, required, this::parseCreateIndexCommand);
+	}
+
+	private Token parseCreateIndexCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.CREATE_INDEX_COMMAND, context, offset);
 		Token left = null;
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 		}
 
-		Token startCreateIndex = isStartCreateIndexCommand(text, required);
+		Token startCreateIndex = isStartCreateIndexCommand(context, offset, required);
 		left = startCreateIndex;
 
 		if (left == null) {
@@ -2646,7 +3236,7 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		Token endCreateIndex = isEndCreateIndexCommand(left.getPosContent(), required);
+		Token endCreateIndex = isEndCreateIndexCommand(context, left.getEnd(), required);
 		updateNeighbors(left, endCreateIndex);
 		left = endCreateIndex;
 
@@ -2656,29 +3246,28 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <CREATE COMMAND> ::= <CREATE TABLE COMMAND> | <CREATE INDEX COMMAND>
 	public Token isCreateCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.CREATE_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.CREATE_COMMAND, text, required, this::isCreateCommand);
+	}
+
+	public Token isCreateCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.CREATE_COMMAND, context, offset);
 		Token left = null;
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 		}
 
-		Token createTableCommand = isCreateTableCommand(text, false);
+		Token createTableCommand = isCreateTableCommand(context, offset, false);
 		left = createTableCommand;
 
 		if (left == null) {
-			Token createIndexCommand = isCreateIndexCommand(text, required);
+			Token createIndexCommand = isCreateIndexCommand(context, offset, required);
 			left = createIndexCommand;
 			if (left == null) {
 				return null;
@@ -2688,71 +3277,68 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		token.setContent(text.substring(0, text.length() - left.getPosContent().length()));
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <HEXA CHAR> :: = u(a-f)
 	public Token isHexaChar(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.HEXA_CHAR, this.timeZoneGMT);
+		return parse(TokenType.HEXA_CHAR, text, required, this::isHexaChar);
+	}
 
-		char character = text.charAt(0);
-		boolean characterSmall = character >= 'a' && character <= 'f';
-		boolean characterBig = character >= 'A' && character <= 'F';
-		if (!characterSmall && !characterBig) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
-			return null;
+	public Token isHexaChar(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.HEXA_CHAR, context, offset);
+
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(String.valueOf(character));
-		token.setPosContent(text.substring(1));
-		return token;
+		if (!CharacterClass.is(context.getSource().charAt(offset), CharacterClass.HEXA_LETTER)) {
+			return fail(token, context, offset);
+		}
+
+		return updateBounds(token, offset + 1);
 	}
 
 	// <START HEX> ::= u(0X)
 	public Token isStartHexa(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.START_HEX, this.timeZoneGMT);
+		return parse(TokenType.START_HEX, text, required, this::isStartHexa);
+	}
 
-		if (!text.toLowerCase().startsWith("0x")) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+	public Token isStartHexa(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.START_HEX, context, offset);
 
-			return null;
+		if (!context.getSource().regionMatches(true, offset, "0x", 0, 2)) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, 2));
-		token.setPosContent(text.substring(2));
-		return token;
+		return updateBounds(token, offset + 2);
 	}
 
 	// <ANY> ::= ?
 	public Token isAny(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ANY, this.timeZoneGMT);
+		return parse(TokenType.ANY, text, required, this::isAny);
+	}
 
-		if (text.length() == 0) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+	public Token isAny(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.ANY, context, offset);
 
-			return null;
+		if (offset >= context.length()) {
+			return fail(token, context, offset);
 
 		}
 
-		token.setContent(text.substring(0, 1));
-		token.setPosContent(text.substring(1));
-		return token;
+		return updateBounds(token, offset + 1);
 	}
 
 	// <START USING> ::= <USING>
 	public Token isStartUsing(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.START_USING, this.timeZoneGMT);
+		return parse(TokenType.START_USING, text, required, this::isStartUsing);
+	}
+
+	public Token isStartUsing(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.START_USING, context, offset);
 
-		Token left = isUsing(text, required);
+		Token left = isUsing(context, offset, required);
 
 		if (left == null) {
 			return null;
@@ -2760,17 +3346,18 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		token.setContent(left.getContent());
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <END USING>::=<TTL PARAMETER>
 	public Token isEndUsing(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.END_USING, this.timeZoneGMT);
+		return parse(TokenType.END_USING, text, required, this::isEndUsing);
+	}
 
-		Token left = isTTLParameter(text, required);
+	public Token isEndUsing(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.END_USING, context, offset);
+
+		Token left = isTTLParameter(context, offset, required);
 
 		if (left == null) {
 			return null;
@@ -2778,39 +3365,38 @@ public class LexicalParser {
 
 		token.getSubTokens().add(left);
 
-		token.setContent(left.getContent());
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <SET>::=u(SET)
 	public Token isSet(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.SET, text, required, this::isSet);
+	}
 
-		Token token = new Token(TokenType.SET, this.timeZoneGMT);
+	public Token isSet(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		if (!text.toUpperCase().startsWith("SET")) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+		Token token = newToken(TokenType.SET, context, offset);
 
-			return null;
+		if (!context.getSource().regionMatches(true, offset, "SET", 0, 3)) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, 3));
-		token.setPosContent(text.substring(3));
-		return token;
+		return updateBounds(token, offset + 3);
 	}
 
 	// <SET COMMAND>::=[<USING OPTION><SPACES>] <SET>
 	public Token isSetCommand(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.SET_COMMAND, text, required, this::isSetCommand);
+	}
+
+	public Token isSetCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 		Token leftToken = null;
-		Token token = new Token(TokenType.SET_COMMAND, this.timeZoneGMT);
+		Token token = newToken(TokenType.SET_COMMAND, context, offset);
 
-		Token using = isUsingOption(text, false);
+		Token using = isUsingOption(context, offset, false);
 
 		if (using != null) {
-			Token space = isSpaces(using.getPosContent(), required);
+			Token space = isSpaces(context, using.getEnd(), required);
 			if (space == null) {
 				return null;
 			}
@@ -2824,9 +3410,9 @@ public class LexicalParser {
 
 		}
 
-		String postContent = (leftToken == null) ? text : leftToken.getPosContent();
+		int postContent = (leftToken == null) ? offset : leftToken.getEnd();
 
-		Token set = isSet(postContent, required);
+		Token set = isSet(context, postContent, required);
 
 		if (set == null) {
 			return null;
@@ -2836,90 +3422,99 @@ public class LexicalParser {
 		leftToken = set;
 		token.getSubTokens().add(leftToken);
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <FROM>::=u(FROM)
 	public Token isFrom(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.FROM, this.timeZoneGMT);
+		return parse(TokenType.FROM, text, required, this::isFrom);
+	}
 
-		if (!text.toUpperCase().startsWith("FROM")) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+	public Token isFrom(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.FROM, context, offset);
 
-			return null;
+		if (!context.getSource().regionMatches(true, offset, "FROM", 0, 4)) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, 4));
-		token.setPosContent(text.substring(4));
-		return token;
+		return updateBounds(token, offset + 4);
 	}
 
 	// <END COMMON COMMAND>::= (<SELECTOR BLOCK> | <SYMBOL> | <LITERAL> )
 	// [[<SPACES>]<END COMMON COMMAND>]]
 	public Token isEndCommonCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.END_COMMON_COMMAND, this.timeZoneGMT);
-
-		Token leftToken = null;
-
-		Token tokenSelectorBlock = isSelectorBlock(text, false);
-		if (tokenSelectorBlock != null) {
-			leftToken = tokenSelectorBlock;
-		}
-
-		if (leftToken == null) {
-
-			Token tokenSymbol = isSymbol(text, false);
-			leftToken = tokenSymbol;
-		}
+		return parse(TokenType.END_COMMON_COMMAND, text, required, this::isEndCommonCommand);
+	}
 
-		if (leftToken == null) {
+	public Token isEndCommonCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.END_COMMON_COMMAND, context, offset, required, this::parseEndCommonCommand);
+	}
 
-			Token tokenLiteral = isLiteral(text, required);
-			leftToken = tokenLiteral;
-		}
+	private Token parseEndCommonCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.END_COMMON_COMMAND, context, offset);
 
+		Token leftToken = isEndCommonItem(context, offset, required);
 		if (leftToken == null) {
 			return null;
 		}
 
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
-		String content = (tokenSpaces == null) ? leftToken.getPosContent() : tokenSpaces.getPosContent();
+		while (true) {
+			Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
+			int content = (tokenSpaces == null) ? leftToken.getEnd() : tokenSpaces.getEnd();
+
+			Token tokenItem = isEndCommonItem(context, content, false);
+			if (tokenItem == null) {
+				break;
+			}
 
-		Token tokenEndCommonCommand = isEndCommonCommand(content, false);
-		if (tokenEndCommonCommand != null) {
 			if (tokenSpaces != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
 				token.getSubTokens().add(leftToken);
 			}
 
-			updateNeighbors(leftToken, tokenEndCommonCommand);
-			leftToken = tokenEndCommonCommand;
+			updateNeighbors(leftToken, tokenItem);
+			leftToken = tokenItem;
 			token.getSubTokens().add(leftToken);
 		}
-		content = text.substring(0, text.length() - leftToken.getPosContent().length());
 
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
+		nest(token, TokenType.SELECTOR_BLOCK, TokenType.SYMBOL, TokenType.LITERAL);
+		return updateBounds(token, leftToken.getEnd());
+	}
 
-		return token;
+	// <SELECTOR BLOCK> | <SYMBOL> | <LITERAL>
+	private Token isEndCommonItem(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		int viable = predict(LookaheadTables.END_COMMON_COMMAND, context, offset);
+
+		Token tokenSelectorBlock = Lookahead.isViable(viable, 0) ? isSelectorBlock(context, offset, false) : null;
+		if (tokenSelectorBlock != null) {
+			return tokenSelectorBlock;
+		}
+
+		Token tokenSymbol = Lookahead.isViable(viable, 1) ? isSymbol(context, offset, false) : null;
+		if (tokenSymbol != null) {
+			return tokenSymbol;
+		}
+
+		return Lookahead.isViable(viable, 2) ? isLiteral(context, offset, required) : null;
 	}
 
 	// <START UPDATE COMMAND> ::= <UPDATE> <SPACES> <TABLE NAME> <SPACES> <SET>
 	public Token isStartUpdateCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.START_UPDATE_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.START_UPDATE_COMMAND, text, required, this::isStartUpdateCommand);
+	}
+
+	public Token isStartUpdateCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.START_UPDATE_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenUpdate = isUpdate(text, required);
+		Token tokenUpdate = isUpdate(context, offset, required);
 		if (tokenUpdate == null) {
 			return null;
 		}
@@ -2928,7 +3523,7 @@ public class LexicalParser {
 		leftToken = tokenUpdate;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -2936,7 +3531,7 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenTableName = isTableName(leftToken.getPosContent(), required);
+		Token tokenTableName = isTableName(context, leftToken.getEnd(), required);
 		if (tokenTableName == null) {
 			return null;
 		}
@@ -2945,7 +3540,7 @@ public class LexicalParser {
 		leftToken = tokenTableName;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -2953,7 +3548,7 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSet = isSetCommand(leftToken.getPosContent(), required);
+		Token tokenSet = isSetCommand(context, leftToken.getEnd(), required);
 		if (tokenSet == null) {
 			return null;
 		}
@@ -2962,47 +3557,38 @@ public class LexicalParser {
 		leftToken = tokenSet;
 		token.getSubTokens().add(leftToken);
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <UPDATE>::=u(UPDATE)
 	public Token isUpdate(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.UPDATE, this.timeZoneGMT);
+		return parse(TokenType.UPDATE, text, required, this::isUpdate);
+	}
 
-		if (!text.toUpperCase().startsWith("UPDATE")) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+	public Token isUpdate(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.UPDATE, context, offset);
 
-			return null;
+		if (!context.getSource().regionMatches(true, offset, "UPDATE", 0, 6)) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, 6));
-		token.setPosContent(text.substring(6));
-		return token;
+		return updateBounds(token, offset + 6);
 
 	}
 
 	// <DELETE>::=u(DELETE)
 	public Token isDelete(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.DELETE, this.timeZoneGMT);
+		return parse(TokenType.DELETE, text, required, this::isDelete);
+	}
 
-		if (!text.toUpperCase().startsWith("DELETE")) {
-			if (required) {
-				buildLexicalParserException(token, text);
-			}
+	public Token isDelete(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.DELETE, context, offset);
 
-			return null;
+		if (!context.getSource().regionMatches(true, offset, "DELETE", 0, 6)) {
+			return fail(token, context, offset);
 		}
 
-		token.setContent(text.substring(0, 6));
-		token.setPosContent(text.substring(6));
-		return token;
+		return updateBounds(token, offset + 6);
 
 	}
 
@@ -3010,12 +3596,21 @@ public class LexicalParser {
 	// NAME>
 
 	public Token isStartDeleteCommand(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.START_DELETE_COMMAND, text, required, this::isStartDeleteCommand);
+	}
+
+	public Token isStartDeleteCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.START_DELETE_COMMAND, context, offset, required, this::parseStartDeleteCommand);
+	}
 
-		Token token = new Token(TokenType.START_DELETE_COMMAND, this.timeZoneGMT);
+	private Token parseStartDeleteCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+
+		Token token = newToken(TokenType.START_DELETE_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenDelete = isDelete(text, required);
+		Token tokenDelete = isDelete(context, offset, required);
 		if (tokenDelete == null) {
 			return null;
 		}
@@ -3024,7 +3619,7 @@ public class LexicalParser {
 		leftToken = tokenDelete;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -3032,9 +3627,9 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenFrom = isFrom(leftToken.getPosContent(), false);
+		Token tokenFrom = isFrom(context, leftToken.getEnd(), false);
 		if (tokenFrom != null) {
-			tokenSpaces = isSpaces(tokenFrom.getPosContent(), required);
+			tokenSpaces = isSpaces(context, tokenFrom.getEnd(), required);
 			if (tokenSpaces == null) {
 				return null;
 			}
@@ -3047,7 +3642,7 @@ public class LexicalParser {
 			token.getSubTokens().add(leftToken);
 		}
 
-		Token tokenTableName = isTableName(leftToken.getPosContent(), required);
+		Token tokenTableName = isTableName(context, leftToken.getEnd(), required);
 		if (tokenTableName == null) {
 			return null;
 		}
@@ -3055,29 +3650,42 @@ public class LexicalParser {
 		leftToken = tokenTableName;
 		token.getSubTokens().add(leftToken);
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 
 	}
 
 	// <UPDATE COMMAND>::=<START UPDATE COMMAND> <SPACES> <END COMMON COMMAND>
 	public Token isUpdateCommand(String text, boolean required) throws LexicalParserException {
-		return isDoubleTokensSpaced(text, required, TokenType.UPDATE_COMMAND, this::isStartUpdateCommand,
+		return parse(TokenType.UPDATE_COMMAND, text, required, this::isUpdateCommand);
+	}
+
+	public Token isUpdateCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.UPDATE_COMMAND, context, offset, required, this::parseUpdateCommand);
+	}
+
+	private Token parseUpdateCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		return isDoubleTokensSpaced(context, offset, required, TokenType.UPDATE_COMMAND, this::isStartUpdateCommand,
 				this::isEndCommonCommand);
 
 	}
 
 	// <DELETE COMMAND>::=<START DELETE COMMAND> [<SPACES> <END COMMON COMMAND>]
 	public Token isDeleteCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.DELETE_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.DELETE_COMMAND, text, required, this::isDeleteCommand);
+	}
+
+	public Token isDeleteCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.DELETE_COMMAND, context, offset, required, this::parseDeleteCommand);
+	}
+
+	private Token parseDeleteCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.DELETE_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenStartDeleteCommand = isStartDeleteCommand(text, required);
+		Token tokenStartDeleteCommand = isStartDeleteCommand(context, offset, required);
 		if (tokenStartDeleteCommand == null) {
 			return null;
 		}
@@ -3086,9 +3694,9 @@ public class LexicalParser {
 		leftToken = tokenStartDeleteCommand;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
-			Token tokenEndCommonCommand = isEndCommonCommand(tokenSpaces.getPosContent(), false);
+			Token tokenEndCommonCommand = isEndCommonCommand(context, tokenSpaces.getEnd(), false);
 			if (tokenEndCommonCommand != null) {
 				updateNeighbors(leftToken, tokenSpaces);
 				leftToken = tokenSpaces;
@@ -3101,35 +3709,39 @@ public class LexicalParser {
 			}
 		}
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <CONDITIONAL COMMAND> ::= (<DELETE COMMAND> | <UPDATE COMMAND> | <OTHER
 	// COMMAND>) [ <SPACES> <CONDITION> ]
 	public Token isConditionalCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.CONDITIONAL_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.CONDITIONAL_COMMAND, text, required, this::isConditionalCommand);
+	}
+
+	public Token isConditionalCommand(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.CONDITIONAL_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenDeleteCommand = isDeleteCommand(text, false);
-		if (tokenDeleteCommand != null) {
-			leftToken = tokenDeleteCommand;
+		int viable = predict(LookaheadTables.CONDITIONAL_COMMAND, context, offset);
+
+		if (Lookahead.isViable(viable, 0)) {
+			Token tokenDeleteCommand = isDeleteCommand(context, offset, false);
+			if (tokenDeleteCommand != null) {
+				leftToken = tokenDeleteCommand;
+			}
 		}
 
-		if (leftToken == null) {
-			Token tokenUpdateCommand = isUpdateCommand(text, false);
+		if (leftToken == null && Lookahead.isViable(viable, 1)) {
+			Token tokenUpdateCommand = isUpdateCommand(context, offset, false);
 			if (tokenUpdateCommand != null) {
 				leftToken = tokenUpdateCommand;
 			}
 		}
 
-		if (leftToken == null) {
-			Token tokenOtherCommand = isOtherCommands(text, required);
+		if (leftToken == null && Lookahead.isViable(viable, 2)) {
+			Token tokenOtherCommand = isOtherCommands(context, offset, required);
 			if (tokenOtherCommand != null) {
 				leftToken = tokenOtherCommand;
 			}
@@ -3141,9 +3753,9 @@ public class LexicalParser {
 
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
-			Token tokenConditional = isCondition(tokenSpaces.getPosContent(), false);
+			Token tokenConditional = isCondition(context, tokenSpaces.getEnd(), false);
 
 			if (tokenConditional != null) {
 				updateNeighbors(leftToken, tokenSpaces);
@@ -3157,31 +3769,30 @@ public class LexicalParser {
 			}
 		}
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <ENTITY NAME> ::= ^<RESERVED WORD> (<ITEM NAME CASE SENSITIVE> | <ITEM
 	// NAME CASE INSENSITIVE>)
 
 	public Token isEntityName(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.ENTITY_NAME, this.timeZoneGMT);
+		return parse(TokenType.ENTITY_NAME, text, required, this::isEntityName);
+	}
 
-		Token tokenReservedWorld = isReservedWord(text, false);
+	public Token isEntityName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.ENTITY_NAME, context, offset, required, this::parseEntityName);
+	}
 
-		if (tokenReservedWorld != null) {
-			if (required) {
-				buildLexicalParserException(tokenReservedWorld, text);
-			}
+	private Token parseEntityName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.ENTITY_NAME, context, offset);
 
-			return null;
+		Token tokenReservedWorld = isReservedWord(context, offset, false);
+
+		if (tokenReservedWorld != null) {
+			return fail(token, context, offset);
 		}
 
-		Token tokenCaseSensitive = isItemNameCaseSensitive(text, false);
+		Token tokenCaseSensitive = isItemNameCaseSensitive(context, offset, false);
 
 		Token left = null;
 
@@ -3191,7 +3802,7 @@ public class LexicalParser {
 		}
 
 		if (left == null) {
-			Token tokenCaseInsensitive = isItemNameCaseInsensitive(text, required);
+			Token tokenCaseInsensitive = isItemNameCaseInsensitive(context, offset, required);
 			if (tokenCaseInsensitive == null) {
 				return null;
 			} else {
@@ -3199,18 +3810,24 @@ public class LexicalParser {
 			}
 		}
 		token.getSubTokens().add(left);
-		token.setContent(left.getContent());
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <TABLE NAME>::=<ENTITY NAME>|<INJECT>
 
 	public Token isTableName(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.TABLE_NAME, this.timeZoneGMT);
+		return parse(TokenType.TABLE_NAME, text, required, this::isTableName);
+	}
+
+	public Token isTableName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.TABLE_NAME, context, offset, required, this::parseTableName);
+	}
+
+	private Token parseTableName(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.TABLE_NAME, context, offset);
 		Token left = null;
-		Token tokenEntityName = isEntityName(text, false);
+		Token tokenEntityName = isEntityName(context, offset, false);
 
 		if (tokenEntityName != null) {
 
@@ -3218,7 +3835,7 @@ public class LexicalParser {
 		}
 
 		if (left == null) {
-			Token tokenInject = isInject(text, required);
+			Token tokenInject = isInject(context, offset, required);
 
 			if (tokenInject != null) {
 
@@ -3231,17 +3848,20 @@ public class LexicalParser {
 		}
 
 		token.getSubTokens().add(left);
-		token.setContent(left.getContent());
-		token.setPosContent(left.getPosContent());
-		return token;
+		return updateBounds(token, left.getEnd());
 	}
 
 	// <TABLE NAME DECLARATION>::= <TABLE NAME> [<SPACES>] <ALIAS>]
 	public Token isTableNameDeclaration(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.TABLE_NAME_DECLARATION, this.timeZoneGMT);
+		return parse(TokenType.TABLE_NAME_DECLARATION, text, required, this::isTableNameDeclaration);
+	}
+
+	public Token isTableNameDeclaration(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.TABLE_NAME_DECLARATION, context, offset);
 		Token leftToken = null;
 
-		Token tableName = isTableName(text, required);
+		Token tableName = isTableName(context, offset, required);
 
 		if (tableName == null) {
 			return null;
@@ -3250,9 +3870,9 @@ public class LexicalParser {
 		leftToken = tableName;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
-			Token tokenAlias = isAlias(tokenSpaces.getPosContent(), false);
+			Token tokenAlias = isAlias(context, tokenSpaces.getEnd(), false);
 
 			if (tokenAlias != null) {
 				updateNeighbors(leftToken, tokenSpaces);
@@ -3266,17 +3886,20 @@ public class LexicalParser {
 			}
 		}
 
-		token.setContent(text.substring(0, text.length() - leftToken.getPosContent().length()));
-		token.setPosContent(leftToken.getPosContent());
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <FIELD NAME DECLARATION> ::= <FIELD VALUE> [<SPACES>] <ALIAS>]
 	public Token isFieldNameDeclaration(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.FIELD_NAME_DECLARATION, this.timeZoneGMT);
+		return parse(TokenType.FIELD_NAME_DECLARATION, text, required, this::isFieldNameDeclaration);
+	}
+
+	public Token isFieldNameDeclaration(LexicalContext context, int offset, boolean required)
+			throws LexicalParserException {
+		Token token = newToken(TokenType.FIELD_NAME_DECLARATION, context, offset);
 		Token leftToken = null;
 
-		Token tokenFieldValue = isFieldValue(text, required);
+		Token tokenFieldValue = isFieldValue(context, offset, required);
 
 		if (tokenFieldValue == null) {
 			return null;
@@ -3285,9 +3908,9 @@ public class LexicalParser {
 		leftToken = tokenFieldValue;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), false);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), false);
 		if (tokenSpaces != null) {
-			Token tokenAlias = isAlias(tokenSpaces.getPosContent(), false);
+			Token tokenAlias = isAlias(context, tokenSpaces.getEnd(), false);
 
 			if (tokenAlias != null) {
 				updateNeighbors(leftToken, tokenSpaces);
@@ -3301,69 +3924,78 @@ public class LexicalParser {
 			}
 		}
 
-		token.setContent(text.substring(0, text.length() - leftToken.getPosContent().length()));
-		token.setPosContent(leftToken.getPosContent());
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <FIELD VALUE> ::= <FUNCTION> | <ARRAY> | <MAP> | <LITERAL> | <FIELD NAME>
 	public Token isFieldValue(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.FIELD_VALUE, text, required, this::isFieldValue);
+	}
 
-		Token token = new Token(TokenType.FIELD_VALUE, this.timeZoneGMT);
-		String content = text;
+	public Token isFieldValue(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		return analyze(TokenType.FIELD_VALUE, context, offset, required, this::parseFieldValue);
+	}
 
-		Token tokenFunction = isFunction(text, false);
+	private Token parseFieldValue(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token left = tokenFunction;
+		Token token = newToken(TokenType.FIELD_VALUE, context, offset);
 
-		if (left == null) {
-			Token tokenarray = isArray(text, false);
+		int viable = predict(LookaheadTables.FIELD_VALUE, context, offset);
+
+		Token left = null;
+
+		if (Lookahead.isViable(viable, 0)) {
+			Token tokenFunction = isFunction(context, offset, false);
+			left = tokenFunction;
+		}
+
+		if (left == null && Lookahead.isViable(viable, 1)) {
+			Token tokenarray = isArray(context, offset, false);
 			updateNeighbors(left, tokenarray);
 			left = tokenarray;
 		}
 
-		if (left == null) {
-			Token tokenmap = isMap(text, false);
+		if (left == null && Lookahead.isViable(viable, 2)) {
+			Token tokenmap = isMap(context, offset, false);
 			updateNeighbors(left, tokenmap);
 			left = tokenmap;
 		}
 
-		if (left == null) {
-			Token tokenLiteral = isLiteral(text, false);
+		if (left == null && Lookahead.isViable(viable, 3)) {
+			Token tokenLiteral = isLiteral(context, offset, false);
 			updateNeighbors(left, tokenLiteral);
 			left = tokenLiteral;
 
 		}
 
-		if (left == null) {
-			Token tokenFieldName = isFieldName(text, required);
+		if (left == null && Lookahead.isViable(viable, 4)) {
+			Token tokenFieldName = isFieldName(context, offset, required);
 			updateNeighbors(left, tokenFieldName);
 			left = tokenFieldName;
+		}
 
-			if (left == null) {
-				return null;
-			}
+		if (left == null) {
+			return null;
 		}
 
 		token.getSubTokens().add(left);
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// <FIELD LIST> ::= <FIELD NAME> [[<SPACES>] <COMMA> [<SPACES>] <FIELD
 	// LIST>]
 	public Token isFieldList(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.FIELD_LIST, text, required, this::isFieldList);
+	}
+
+	public Token isFieldList(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		Token token = new Token(TokenType.FIELD_LIST, this.timeZoneGMT);
+		Token token = newToken(TokenType.FIELD_LIST, context, offset);
 		Token left = null;
-		String content = text;
 
-		Token tokenFieldName = isFieldName(text, required);
+		Token tokenFieldName = isFieldName(context, offset, required);
 
 		if (tokenFieldName == null) {
 			return null;
@@ -3373,73 +4005,83 @@ public class LexicalParser {
 		left = tokenFieldName;
 		token.getSubTokens().add(left);
 
-		Token tokenSpaces = isSpaces(left.getPosContent(), false);
+		while (true) {
+			Token tokenSpaces = isSpaces(context, left.getEnd(), false);
 
-		Token left2 = left;
+			Token left2 = left;
 
-		if (tokenSpaces != null) {
+			if (tokenSpaces != null) {
 
-			left2 = tokenSpaces;
-		}
+				left2 = tokenSpaces;
+			}
 
-		Token tokenComma = isComma(left2.getPosContent(), false);
+			Token tokenComma = isComma(context, left2.getEnd(), false);
+
+			if (tokenComma == null) {
+				break;
+			}
 
-		if (tokenComma != null) {
 			left2 = tokenComma;
-			Token tokenSpaces2 = isSpaces(left2.getPosContent(), false);
+			Token tokenSpaces2 = isSpaces(context, left2.getEnd(), false);
 
 			if (tokenSpaces2 != null) {
 				left2 = tokenSpaces2;
 			}
 
-			Token tokenFieldList = isFieldList(left2.getPosContent(), false);
+			Token tokenOtherFieldName = isFieldName(context, left2.getEnd(), false);
 
-			if (tokenFieldList != null) {
-				if (tokenSpaces != null) {
-					updateNeighbors(left, tokenSpaces);
-					left = tokenSpaces;
-					token.getSubTokens().add(left);
-				}
+			if (tokenOtherFieldName == null) {
+				break;
+			}
 
-				updateNeighbors(left, tokenComma);
-				left = tokenComma;
+			if (tokenSpaces != null) {
+				updateNeighbors(left, tokenSpaces);
+				left = tokenSpaces;
 				token.getSubTokens().add(left);
+			}
 
-				if (tokenSpaces2 != null) {
-					updateNeighbors(left, tokenSpaces2);
-					left = tokenSpaces2;
-					token.getSubTokens().add(left);
-				}
+			updateNeighbors(left, tokenComma);
+			left = tokenComma;
+			token.getSubTokens().add(left);
 
-				updateNeighbors(left, tokenFieldList);
-				left = tokenFieldList;
+			if (tokenSpaces2 != null) {
+				updateNeighbors(left, tokenSpaces2);
+				left = tokenSpaces2;
 				token.getSubTokens().add(left);
 			}
 
+			updateNeighbors(left, tokenOtherFieldName);
+			left = tokenOtherFieldName;
+			token.getSubTokens().add(left);
 		}
 
-		content = content.substring(0, content.length() - left.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(left.getPosContent());
-
-		return token;
+		nest(token, TokenType.FIELD_NAME);
+		return updateBounds(token, left.getEnd());
 
 	}
 
 	// // <DROP> ::= u(DROP)
 	public Token isDrop(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.DROP, text, required, this::isDrop);
+	}
 
-		return isSingleText(TokenType.DROP, "DROP", text, false, null, required);
+	public Token isDrop(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+
+		return isSingleText(TokenType.DROP, "DROP", context, offset, false, null, required);
 
 	}
 
 	// // <DROP COMMAND> ::= <DROP><SPACES><RESERVED WORD><SPACES><ENTITY NAME>
 	public Token isDropCommand(String text, boolean required) throws LexicalParserException {
-		Token token = new Token(TokenType.DROP_COMMAND, this.timeZoneGMT);
+		return parse(TokenType.DROP_COMMAND, text, required, this::isDropCommand);
+	}
+
+	public Token isDropCommand(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		Token token = newToken(TokenType.DROP_COMMAND, context, offset);
 
 		Token leftToken = null;
 
-		Token tokenDrop = isDrop(text, required);
+		Token tokenDrop = isDrop(context, offset, required);
 		if (tokenDrop == null) {
 			return null;
 		}
@@ -3448,7 +4090,7 @@ public class LexicalParser {
 		leftToken = tokenDrop;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		Token tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -3456,7 +4098,7 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenReservedWord = isReservedWord(leftToken.getPosContent(), required);
+		Token tokenReservedWord = isReservedWord(context, leftToken.getEnd(), required);
 		if (tokenReservedWord == null) {
 			return null;
 		}
@@ -3464,7 +4106,7 @@ public class LexicalParser {
 		leftToken = tokenReservedWord;
 		token.getSubTokens().add(leftToken);
 
-		tokenSpaces = isSpaces(leftToken.getPosContent(), required);
+		tokenSpaces = isSpaces(context, leftToken.getEnd(), required);
 		if (tokenSpaces == null) {
 			return null;
 		}
@@ -3472,7 +4114,7 @@ public class LexicalParser {
 		leftToken = tokenSpaces;
 		token.getSubTokens().add(leftToken);
 
-		Token tokenEntityName = isEntityName(leftToken.getPosContent(), required);
+		Token tokenEntityName = isEntityName(context, leftToken.getEnd(), required);
 		if (tokenEntityName == null) {
 			return null;
 		}
@@ -3480,38 +4122,211 @@ public class LexicalParser {
 		leftToken = tokenEntityName;
 		token.getSubTokens().add(leftToken);
 
-		String content = text.substring(0, text.length() - leftToken.getPosContent().length());
-		token.setContent(content);
-		token.setPosContent(leftToken.getPosContent());
-
-		return token;
+		return updateBounds(token, leftToken.getEnd());
 	}
 
 	// <ALLOW>::=u(ALLOW)
 	public Token isAllow(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.ALLOW, text, required, this::isAllow);
+	}
+
+	public Token isAllow(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.ALLOW, "ALLOW", text, false, null, required);
+		return isSingleText(TokenType.ALLOW, "ALLOW", context, offset, false, null, required);
 
 	}
 
 	// <FILTERING>::=u(FILTERING)
 	public Token isFiltering(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.FILTERING, text, required, this::isFiltering);
+	}
+
+	public Token isFiltering(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.FILTERING, "FILTERING", text, false, null, required);
+		return isSingleText(TokenType.FILTERING, "FILTERING", context, offset, false, null, required);
 
 	}
 
 	// <USING>::=u(USING)
 	public Token isUsing(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.USING, text, required, this::isUsing);
+	}
+
+	public Token isUsing(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.USING, "USING", text, false, null, required);
+		return isSingleText(TokenType.USING, "USING", context, offset, false, null, required);
 
 	}
 
 	// <TTL>::=u(TTL)
 	public Token isTTL(String text, boolean required) throws LexicalParserException {
+		return parse(TokenType.TTL, text, required, this::isTTL);
+	}
+
+	public Token isTTL(LexicalContext context, int offset, boolean required) throws LexicalParserException {
 
-		return isSingleText(TokenType.TTL, "TTL", text, false, null, required);
+		return isSingleText(TokenType.TTL, "TTL", context, offset, false, null, required);
 
 	}
-}
\ No newline at end of file
+
+	/*
+	 * Configuration of an immutable LexicalParser. Each build() makes a new
+	 * parser, so a builder can be reused and changed for the next one.
+	 */
+	public static class Builder {
+
+		private String timeZoneGMT = "GMT-00";
+
+		private boolean memoization = false;
+
+		private boolean columnDefinitions = false;
+
+		private boolean nestedLists = false;
+
+		private boolean lookahead = true;
+
+		private boolean lexer = false;
+
+		private int maxLength = Integer.MAX_VALUE;
+
+		private boolean diagnostics = false;
+
+		private final List<LexicalParserAnalyzer> analyzers = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		private Builder(Config config) {
+			this.timeZoneGMT = config.timeZoneGMT;
+			this.memoization = config.memoization;
+			this.columnDefinitions = config.columnDefinitions;
+			this.nestedLists = config.nestedLists;
+			this.lookahead = config.lookahead;
+			this.lexer = config.lexer;
+			this.maxLength = config.maxLength;
+			this.diagnostics = config.diagnostics;
+			for (LexicalParserAnalyzer analyzer : config.analyzers) {
+				if (analyzer != null) {
+					analyzers.add(analyzer);
+				}
+			}
+		}
+
+		public Builder timeZoneGMT(String timeZoneGMT) {
+			this.timeZoneGMT = timeZoneGMT;
+			return this;
+		}
+
+		public Builder memoization(boolean memoization) {
+			this.memoization = memoization;
+			return this;
+		}
+
+		public Builder columnDefinitions(boolean columnDefinitions) {
+			this.columnDefinitions = columnDefinitions;
+			return this;
+		}
+
+		public Builder nestedLists(boolean nestedLists) {
+			this.nestedLists = nestedLists;
+			return this;
+		}
+
+		public Builder lookahead(boolean lookahead) {
+			this.lookahead = lookahead;
+			return this;
+		}
+
+		public Builder lexer(boolean lexer) {
+			this.lexer = lexer;
+			return this;
+		}
+
+		public Builder maxLength(int maxLength) {
+			this.maxLength = maxLength;
+			return this;
+		}
+
+		public Builder diagnostics(boolean diagnostics) {
+			this.diagnostics = diagnostics;
+			return this;
+		}
+
+		// takes the place of the analyzer of the same type
+		public Builder analyzer(LexicalParserAnalyzer analyzer) {
+			removeAnalyzer(analyzer.getType());
+			analyzers.add(analyzer);
+			return this;
+		}
+
+		private Builder removeAnalyzer(TokenType type) {
+			analyzers.removeIf(analyzer -> analyzer.getType() == type);
+			return this;
+		}
+
+		public LexicalParser build() {
+			return new LexicalParser(this, true);
+		}
+	}
+
+	/*
+	 * Snapshot of the configuration that the rules read. All its fields are
+	 * final and the array of analyzers is never written after the
+	 * constructor, so any thread that reads a snapshot sees it whole.
+	 */
+	private static final class Config {
+
+		private final String timeZoneGMT;
+
+		private final boolean memoization;
+
+		private final boolean columnDefinitions;
+
+		private final boolean nestedLists;
+
+		private final boolean lookahead;
+
+		private final boolean lexer;
+
+		// longest statement that isCQL accepts
+		private final int maxLength;
+
+		private final boolean diagnostics;
+
+		// analyzers by TokenType ordinal, null where the rule of the parser
+		// applies
+		private final LexicalParserAnalyzer[] analyzers = new LexicalParserAnalyzer[TokenType.values().length];
+
+		// analyzers that the lookahead can not skip
+		private final int unpredictable;
+
+		private Config(Builder builder) {
+			if (builder.maxLength < 0) {
+				throw new IllegalArgumentException("Invalid max length " + builder.maxLength);
+			}
+
+			int unpredictable = 0;
+			for (LexicalParserAnalyzer analyzer : builder.analyzers) {
+				if (!ANALYZABLE.contains(analyzer.getType())) {
+					throw new IllegalArgumentException("No analyzer for " + analyzer.getType().getName().toUpperCase()
+							+ ", only for " + ANALYZABLE);
+				}
+				analyzers[analyzer.getType().ordinal()] = analyzer;
+				if (!analyzer.isFirstOfGrammar()) {
+					unpredictable++;
+				}
+			}
+
+			this.timeZoneGMT = builder.timeZoneGMT;
+			this.memoization = builder.memoization;
+			this.columnDefinitions = builder.columnDefinitions;
+			this.nestedLists = builder.nestedLists;
+			this.lookahead = builder.lookahead;
+			this.lexer = builder.lexer;
+			this.maxLength = builder.maxLength;
+			this.diagnostics = builder.diagnostics;
+			this.unpredictable = unpredictable;
+		}
+	}
+
+}
@@ -1,13 +1,65 @@
 package cql.lexicalparser;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import cql.Token;
 import cql.TokenType;
 import cql.lexicalparser.exceptions.LexicalParserException;
 
-public interface LexicalParserAnalyzer {
-	
+/*
+ * Rule of a type, that takes the place of the rule of the LexicalParser once
+ * set with LexicalParser.setAnalyzer.
+ *
+ * Only check(text, required) is required: the offset form copies the rest of
+ * the source from the offset into a text, on every call, calls check(text,
+ * false) and moves the tokens to the offset. That copy makes a parse with an
+ * analyzer that only has check quadratic in the length of the statement, so
+ * analyzers on a hot path should override the offset form and read the source
+ * of the context in place, as the rules of the LexicalParser do. The offset
+ * form does not throw on a failure: it records it in the context and returns
+ * null, and the entry point of the parse builds the exception.
+ *
+ * The alternations try an analyzer at any character, unless it declares to
+ * start as the rule of the grammar does.
+ *
+ * */
+
+public interface LexicalParserAnalyzer extends LexicalContextTester {
+
 	public Token check(String text, boolean required) throws LexicalParserException;
-	
+
 	public TokenType getType();
 
+	// whether the analyzer only accepts texts that start as the grammar says,
+	// so the lookahead of the alternations can skip it as it skips the rule
+	public default boolean isFirstOfGrammar() {
+		return false;
+	}
+
+	@Override
+	public default Token is(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+		String source = context.getSource();
+		String text = source.substring(offset);
+
+		Token token = check(text, false);
+		if (token == null) {
+			context.fail(getType(), offset);
+			return null;
+		}
+
+		Deque<Token> pending = new ArrayDeque<>();
+		pending.push(token);
+		while (!pending.isEmpty()) {
+			Token moved = pending.pop();
+			if (moved.getSource() == text) {
+				moved.setSource(source);
+				moved.setStart(moved.getStart() + offset);
+				moved.setEnd(moved.getEnd() + offset);
+			}
+			moved.getSubTokens().forEach(pending::push);
+		}
+		return token;
+	}
+
 }
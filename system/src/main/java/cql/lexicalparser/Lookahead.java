@@ -0,0 +1,95 @@
+package cql.lexicalparser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cql.TokenType;
+
+/*
+ * LL(1) table of an alternation.
+ *
+ * Each alternative of a rule is declared, in the order the rule tries them,
+ * with its FIRST set: the characters that can start it according to
+ * doc/BNF.txt. The table maps the character at an offset to a bit mask with
+ * the alternatives that may match there, so the rule skips the others without
+ * calling them. The tables of the parser are in LookaheadTables, generated
+ * from the grammar.
+ *
+ * Characters outside ASCII only start the alternatives declared with unicode,
+ * the ones that begin with <CHARS>, which accepts any alphabetic character.
+ *
+ * A skipped alternative is recorded as a failure at the offset, so the
+ * expected types of a parse error still name it. A parse with no lookahead
+ * names the rules inside the alternative instead; with diagnostics on, the
+ * LexicalParser fails an invalid statement again with no lookahead so its
+ * error is the same with the tables or without them.
+ *
+ * */
+
+final class Lookahead {
+
+	static final int ALL = -1;
+
+	private final List<TokenType> alternatives = new ArrayList<>();
+
+	private final int[] ascii = new int[128];
+
+	private int unicode = 0;
+
+	Lookahead alternative(TokenType type, String first) {
+		return alternative(type, first, false);
+	}
+
+	Lookahead alternative(TokenType type, String first, boolean unicode) {
+		int bit = 1 << alternatives.size();
+		alternatives.add(type);
+
+		for (int index = 0; index < first.length(); index++) {
+			ascii[first.charAt(index)] |= bit;
+		}
+
+		if (unicode) {
+			this.unicode |= bit;
+		}
+
+		return this;
+	}
+
+	// bit mask of the alternatives that may start at the offset, and of the
+	// ones with an analyzer that may accept more than the grammar
+	int viable(LexicalContext context, int offset, LexicalParserAnalyzer[] analyzers) {
+		int viable = 0;
+
+		if (offset < context.length()) {
+			char character = context.getSource().charAt(offset);
+			viable = (character < ascii.length) ? ascii[character] : unicode;
+		}
+
+		if (analyzers != null) {
+			for (int index = 0; index < alternatives.size(); index++) {
+				LexicalParserAnalyzer analyzer = analyzers[alternatives.get(index).ordinal()];
+				if (analyzer != null && !analyzer.isFirstOfGrammar()) {
+					viable |= 1 << index;
+				}
+			}
+		}
+
+		int skipped = alternatives.size() - Integer.bitCount(viable);
+		context.predict(skipped);
+
+		if (skipped > 0) {
+			for (int index = 0; index < alternatives.size(); index++) {
+				if ((viable & (1 << index)) == 0) {
+					context.fail(alternatives.get(index), offset);
+				}
+			}
+		}
+
+		return viable;
+	}
+
+	static boolean isViable(int viable, int alternative) {
+		return (viable & (1 << alternative)) != 0;
+	}
+
+}
@@ -0,0 +1,84 @@
+package cql.lexicalparser;
+
+import cql.TokenType;
+
+/*
+ * Lookahead tables of the alternations of doc/BNF.txt.
+ *
+ * Generated by cql.lexicalparser.grammar.LookaheadGenerator from the FIRST
+ * sets of the grammar, do not edit. Run it again after changing the grammar,
+ * LookaheadGeneratorTest fails while this file is out of date.
+ *
+ * */
+
+final class LookaheadTables {
+
+	// <COMMAND>::=<CREATE COMMAND> | <DROP COMMAND> | <INSERT COMMAND> |
+	// <CONDITIONAL COMMAND> [<SPACES> <ALLOW PARAMETER>]
+	static final Lookahead COMMAND = new Lookahead()
+			.alternative(TokenType.CREATE_COMMAND, "Cc")
+			.alternative(TokenType.DROP_COMMAND, "Dd")
+			.alternative(TokenType.INSERT_COMMAND, "Ii")
+			.alternative(TokenType.CONDITIONAL_COMMAND, "ABCDEFGIKLMOPQRSTUVWabcdefgiklmopqrstuvw");
+
+	// <CONDITIONAL COMMAND>::=(<DELETE COMMAND> | <UPDATE COMMAND> | <OTHER
+	// COMMAND>) [ <SPACES> <CONDITION> ]
+	static final Lookahead CONDITIONAL_COMMAND = new Lookahead()
+			.alternative(TokenType.DELETE_COMMAND, "Dd")
+			.alternative(TokenType.UPDATE_COMMAND, "Uu")
+			.alternative(TokenType.OTHER_COMMAND, "ABCDEFGIKLMOPQRSTUVWabcdefgiklmopqrstuvw");
+
+	// <LITERAL>::=(<HEXA> | <NUMBER> | <STRING> | <INJECT> | <BOOLEAN>)^<CHARS>
+	static final Lookahead LITERAL = new Lookahead()
+			.alternative(TokenType.HEX, "+-0")
+			.alternative(TokenType.NUMBER, "0123456789")
+			.alternative(TokenType.STRING, "\"'")
+			.alternative(TokenType.INJECT, "?")
+			.alternative(TokenType.BOOLEAN, "FTft");
+
+	// <FIELD VALUE>::=<FUNCTION> | <ARRAY> | <MAP> | <LITERAL> | <FIELD NAME>
+	static final Lookahead FIELD_VALUE = new Lookahead()
+			.alternative(TokenType.FUNCTION, "\"*ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz", true)
+			.alternative(TokenType.ARRAY, "[{")
+			.alternative(TokenType.MAP, "{")
+			.alternative(TokenType.LITERAL, "\"'+-0123456789?FTft")
+			.alternative(TokenType.FIELD_NAME, "\"*?ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz", true);
+
+	// <ARRAY>::=<ARRAY BRACKET> | <ARRAY BRACE>
+	static final Lookahead ARRAY = new Lookahead()
+			.alternative(TokenType.ARRAY_BRACKET, "[")
+			.alternative(TokenType.ARRAY_BRACE, "{");
+
+	// <ITEM NAME>::=<ITEM NAME CASE SENSITIVE> | <ITEM NAME CASE INSENSITIVE> |
+	// <ASTERISK>
+	static final Lookahead ITEM_NAME = new Lookahead()
+			.alternative(TokenType.ITEM_NAME_CASE_SENSITIVE, "\"")
+			.alternative(TokenType.ITEM_NAME_CASE_INSENSITIVE, "ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz", true)
+			.alternative(TokenType.ASTERISK, "*");
+
+	// <KEY>::=<CHARS>|<LITERAL>
+	static final Lookahead KEY = new Lookahead()
+			.alternative(TokenType.CHARS, "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz", true)
+			.alternative(TokenType.LITERAL, "\"'+-0123456789?FTft");
+
+	// <END COMMON COMMAND>::=(<SELECTOR BLOCK> | <SYMBOL> | <LITERAL> )
+	// [[<SPACES>]<END COMMON COMMAND>]
+	static final Lookahead END_COMMON_COMMAND = new Lookahead()
+			.alternative(TokenType.SELECTOR_BLOCK, "\"'*+-0123456789?ABCDEFGHIJKLMNOPQRSTUVWXYZ[_abcdefghijklmnopqrstuvwxyz{", true)
+			.alternative(TokenType.SYMBOL, "!()*+,-/<=>[]{}")
+			.alternative(TokenType.LITERAL, "\"'+-0123456789?FTft");
+
+	// <JOIN CONDITION>::=<AND> | <OR>
+	static final Lookahead JOIN_CONDITION = new Lookahead()
+			.alternative(TokenType.AND, "Aa")
+			.alternative(TokenType.OR, "Oo");
+
+	// <BOOLEAN>::=<TRUE> | <FALSE>
+	static final Lookahead BOOLEAN = new Lookahead()
+			.alternative(TokenType.TRUE, "Tt")
+			.alternative(TokenType.FALSE, "Ff");
+
+	private LookaheadTables() {
+	}
+
+}
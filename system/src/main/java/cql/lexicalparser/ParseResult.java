@@ -0,0 +1,45 @@
+package cql.lexicalparser;
+
+import cql.Token;
+
+/*
+ * Outcome of one statement of a batch: its token when it parsed, or the
+ * exception that isCQL threw for it. That is a LexicalParserException for an
+ * invalid statement, or the RuntimeException of an analyzer that failed or of
+ * a null statement.
+ *
+ * */
+
+public class ParseResult {
+
+	private final String cql;
+
+	private final Token token;
+
+	private final Exception exception;
+
+	ParseResult(String cql, Token token, Exception exception) {
+		this.cql = cql;
+		this.token = token;
+		this.exception = exception;
+	}
+
+	public String getCql() {
+		return cql;
+	}
+
+	// null when the statement is invalid
+	public Token getToken() {
+		return token;
+	}
+
+	// null when the statement parsed
+	public Exception getException() {
+		return exception;
+	}
+
+	public boolean isValid() {
+		return exception == null;
+	}
+
+}
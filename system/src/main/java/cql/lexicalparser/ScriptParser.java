@@ -0,0 +1,170 @@
+package cql.lexicalparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import cql.Token;
+import cql.lexicalparser.exceptions.CQLScriptException;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+/*
+ * Lazy parser of a script of statements separated by ;.
+ *
+ * The script is read in chunks and split at each ; outside a single or double
+ * quoted text. Each statement, with the spaces before it and its ;, is parsed
+ * by LexicalParser.isCQL only when the iterator reaches it, so the memory kept
+ * is a chunk and the text of the largest statement, whatever the size of the
+ * script. Statements with only spaces, as in ;; or at the end of the script,
+ * are skipped.
+ *
+ * A statement that does not parse throws a CQLScriptException with its line.
+ * The script is already read past it, so the iteration can go on with the next
+ * statement. A failure to read throws an UncheckedIOException.
+ *
+ * */
+
+public class ScriptParser implements Iterator<Token>, Closeable {
+
+	private static final int CHUNK = 8192;
+
+	private final LexicalParser lexicalParser;
+
+	private final Reader reader;
+
+	private final char[] chunk;
+
+	private int chunkOffset = 0;
+
+	private int chunkLength = 0;
+
+	private final StringBuilder statement = new StringBuilder();
+
+	// line of the next character of the script
+	private int line = 1;
+
+	// line where the last statement read starts
+	private int statementLine = 0;
+
+	private Token next = null;
+
+	private boolean finished = false;
+
+	public ScriptParser(LexicalParser lexicalParser, Reader reader) {
+		this(lexicalParser, reader, CHUNK);
+	}
+
+	public ScriptParser(LexicalParser lexicalParser, ReadableByteChannel channel, Charset charset) {
+		this(lexicalParser, Channels.newReader(channel, charset.newDecoder(), CHUNK), CHUNK);
+	}
+
+	ScriptParser(LexicalParser lexicalParser, Reader reader, int chunkSize) {
+		this.lexicalParser = lexicalParser;
+		this.reader = reader;
+		this.chunk = new char[chunkSize];
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			String text = null;
+			try {
+				text = readStatement();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			if (text == null) {
+				finished = true;
+			} else {
+				try {
+					next = lexicalParser.isCQL(text);
+				} catch (LexicalParserException e) {
+					throw new CQLScriptException(statementLine, e);
+				}
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public Token next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Token token = next;
+		next = null;
+		return token;
+	}
+
+	// line of the script where the last statement returned or failed starts
+	public int getLine() {
+		return statementLine;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	// text up to the next ; outside quotes, including it, or null when only
+	// spaces are left
+	private String readStatement() throws IOException {
+		statement.setLength(0);
+		boolean blank = true;
+		char quote = 0;
+
+		while (true) {
+			if (chunkOffset == chunkLength) {
+				chunkOffset = 0;
+				chunkLength = Math.max(reader.read(chunk, 0, chunk.length), 0);
+				if (chunkLength == 0) {
+					return blank ? null : statement.toString();
+				}
+			}
+
+			int start = chunkOffset;
+			while (chunkOffset < chunkLength) {
+				char character = chunk[chunkOffset++];
+				if (character == '\n') {
+					line++;
+				}
+
+				// a doubled quote closes and opens the text again
+				if (quote != 0) {
+					if (character == quote) {
+						quote = 0;
+					}
+					continue;
+				}
+
+				if (character == ';') {
+					if (blank) {
+						statement.setLength(0);
+						start = chunkOffset;
+						continue;
+					}
+					statement.append(chunk, start, chunkOffset - start);
+					return statement.toString();
+				}
+
+				if (blank && !CharacterClass.isSpace(character)) {
+					blank = false;
+					statementLine = line;
+				}
+
+				if (character == '\'' || character == '"') {
+					quote = character;
+				}
+			}
+			statement.append(chunk, start, chunkOffset - start);
+		}
+	}
+
+}
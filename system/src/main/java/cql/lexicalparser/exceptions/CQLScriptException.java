@@ -0,0 +1,31 @@
+package cql.lexicalparser.exceptions;
+
+/*
+ * A statement of a script that the ScriptParser could not parse. It is
+ * unchecked because the statements come through an Iterator; the cause is the
+ * LexicalParserException of the statement.
+ *
+ * */
+
+public class CQLScriptException extends RuntimeException {
+
+	private static final long serialVersionUID = -4470310473645981275L;
+
+	private final int line;
+
+	public CQLScriptException(int line, LexicalParserException cause) {
+		super("Invalid statement at line " + line + ": " + cause.getMessage(), cause);
+		this.line = line;
+	}
+
+	// line of the script where the statement starts, from 1
+	public int getLine() {
+		return line;
+	}
+
+	@Override
+	public synchronized LexicalParserException getCause() {
+		return (LexicalParserException) super.getCause();
+	}
+
+}
@@ -0,0 +1,143 @@
+package cql.lexicalparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.exceptions.CQLException;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@RunWith(JUnit4.class)
+public class BatchParserTest {
+
+	private LexicalParser lexicalParser = null;
+
+	@Before
+	public void cleanup() {
+		lexicalParser = new LexicalParser();
+	}
+
+	@Test
+	public void parseAll() throws CQLException {
+		List<String> cqls = new ArrayList<>();
+		for (int index = 0; index < 200; index++) {
+			cqls.add((index % 7 == 3) ? "SELECT FROM t" + index
+					: "SELECT * FROM t" + index + " WHERE a = '" + index + "' AND b = " + index);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (boolean memoization : new boolean[] { false, true }) {
+				lexicalParser.setMemoization(memoization);
+				List<ParseResult> results = new BatchParser(lexicalParser, executor, 4).parseAll(cqls);
+
+				Assert.assertEquals(cqls.size(), results.size());
+				for (int index = 0; index < cqls.size(); index++) {
+					ParseResult result = results.get(index);
+					Assert.assertSame(cqls.get(index), result.getCql());
+
+					if (index % 7 == 3) {
+						Assert.assertFalse(result.isValid());
+						Assert.assertNull(result.getToken());
+						Assert.assertNotNull(result.getException());
+						continue;
+					}
+
+					Assert.assertTrue(result.isValid());
+					Assert.assertEquals(cqls.get(index), result.getToken().rebuild());
+					assertSameTypes(lexicalParser.isCQL(cqls.get(index)), result.getToken());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseAllStream() {
+		List<ParseResult> results = new BatchParser(lexicalParser)
+				.parseAll(Arrays.asList("SELECT * FROM a", "SELECT * FROM b").stream().map(String::toLowerCase));
+
+		Assert.assertEquals(2, results.size());
+		Token token = results.get(1).getToken();
+		Assert.assertEquals(TokenType.CQL, token.getType());
+		Assert.assertEquals("select * from b", token.rebuild());
+
+		Assert.assertTrue(new BatchParser(lexicalParser).parseAll(new ArrayList<>()).isEmpty());
+	}
+
+	@Test
+	public void parseAllFailures() throws CQLException {
+		// an analyzer that throws, and a null statement, fail only their own
+		lexicalParser.setAnalyzer(new LexicalParserAnalyzer() {
+
+			@Override
+			public Token check(String text, boolean required) throws LexicalParserException {
+				if (text.startsWith("666")) {
+					throw new IllegalStateException("Analyzer failed");
+				}
+				return new LexicalParser().isNumber(text, required);
+			}
+
+			@Override
+			public TokenType getType() {
+				return TokenType.NUMBER;
+			}
+		});
+
+		List<String> cqls = Arrays.asList("SELECT * FROM a WHERE b = 1", "SELECT * FROM a WHERE b = 666", null,
+				"SELECT * FROM a WHERE b = 2");
+		List<ParseResult> results = new BatchParser(lexicalParser).parseAll(cqls);
+
+		Assert.assertEquals(4, results.size());
+		Assert.assertTrue(results.get(0).isValid());
+		Assert.assertTrue(results.get(1).getException() instanceof IllegalStateException);
+		Assert.assertNull(results.get(1).getToken());
+		Assert.assertFalse(results.get(2).isValid());
+		Assert.assertNull(results.get(2).getCql());
+		Assert.assertTrue(results.get(3).isValid());
+		Assert.assertEquals("SELECT * FROM a WHERE b = 2", results.get(3).getToken().rebuild());
+	}
+
+	@Test
+	public void scratch() throws CQLException {
+		// a long statement, then a shorter one over the same context
+		LexicalContext scratch = new LexicalContext("");
+		lexicalParser.setMemoization(true);
+		lexicalParser.setLexer(true);
+
+		String cql = "SELECT * FROM test WHERE a = 1 AND b = 'x' AND c = 0x1F";
+		Token token = lexicalParser.isCQL(cql, scratch);
+		Assert.assertEquals(cql, token.rebuild());
+		Assert.assertTrue(scratch.getMemoMisses() > 0);
+
+		try {
+			lexicalParser.isCQL("SELECT FROM", scratch);
+			Assert.fail("Parsed an invalid statement");
+		} catch (CQLException e) {
+		}
+
+		cql = "SELECT a FROM b";
+		token = lexicalParser.isCQL(cql, scratch);
+		Assert.assertEquals(cql, token.rebuild());
+		assertSameTypes(lexicalParser.isCQL(cql), token);
+		Assert.assertTrue(scratch.getFailureOffset() <= cql.length());
+	}
+
+	private void assertSameTypes(Token expected, Token actual) {
+		for (TokenType type : TokenType.values()) {
+			Assert.assertEquals(expected.count(type), actual.count(type));
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package cql.lexicalparser;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.exceptions.CQLException;
+
+@RunWith(JUnit4.class)
+public class LexerTest {
+
+	private Lexer lexer = null;
+
+	@Before
+	public void cleanup() {
+		lexer = new Lexer();
+	}
+
+	@Test
+	public void tokenize() {
+		String cql = "select a.b, \"C\" from t where k = 'it''s' and x in (0x1F, 12);";
+		Lexemes lexemes = lexer.tokenize(cql);
+
+		TokenType[] types = { TokenType.RESERVED_WORD, TokenType.SPACES, TokenType.CHARS, TokenType.ACESSOR,
+				TokenType.CHARS, TokenType.COMMA, TokenType.SPACES, TokenType.STRING, TokenType.SPACES,
+				TokenType.RESERVED_WORD, TokenType.SPACES, TokenType.CHARS, TokenType.SPACES, TokenType.RESERVED_WORD,
+				TokenType.SPACES, TokenType.CHARS, TokenType.SPACES, TokenType.SYMBOL, TokenType.SPACES,
+				TokenType.STRING, TokenType.SPACES, TokenType.RESERVED_WORD, TokenType.SPACES, TokenType.CHARS,
+				TokenType.SPACES, TokenType.RESERVED_WORD, TokenType.SPACES, TokenType.SYMBOL, TokenType.HEX,
+				TokenType.COMMA, TokenType.SPACES, TokenType.NUMBER, TokenType.SYMBOL, TokenType.DOT_COMMA };
+
+		Assert.assertEquals(types.length, lexemes.size());
+		StringBuilder rebuilt = new StringBuilder();
+		for (int index = 0; index < lexemes.size(); index++) {
+			Assert.assertEquals(types[index], lexemes.getType(index));
+			Assert.assertEquals(types[index].ordinal(), lexemes.getKinds()[index]);
+			rebuilt.append(lexemes.getContent(index));
+		}
+		Assert.assertEquals(cql, rebuilt.toString());
+
+		Assert.assertEquals("'it''s'", lexemes.getContent(19));
+		Assert.assertEquals(33, lexemes.getStart(19));
+		Assert.assertEquals(40, lexemes.getEnd(19));
+		Assert.assertEquals(19, lexemes.indexOf(33));
+		Assert.assertEquals(-1, lexemes.indexOf(34));
+	}
+
+	@Test
+	public void tokenizeUnclosed() {
+		Lexemes lexemes = lexer.tokenize("a = 'b");
+		Assert.assertEquals(5, lexemes.size());
+		Assert.assertEquals(TokenType.ANY, lexemes.getType(4));
+		Assert.assertEquals("'b", lexemes.getContent(4));
+
+		lexemes = lexer.tokenize("a # ção");
+		Assert.assertEquals(TokenType.ANY, lexemes.getType(2));
+		Assert.assertEquals(TokenType.CHARS, lexemes.getType(4));
+		Assert.assertEquals("ção", lexemes.getContent(4));
+
+		Assert.assertEquals(0, lexer.tokenize("").size());
+	}
+
+	@Test
+	public void parse() throws CQLException {
+		LexicalParser lexicalParser = new LexicalParser();
+		String[] statements = { "SELECT a, \"B\" FROM ks.t WHERE k = 'x''y' AND \"C\" = 0x1f;",
+				"INSERT INTO t (a, b) VALUES ('', {'k': 1}) USING TTL 10", "UPDATE t SET a = ? WHERE b = 'c d'" };
+
+		for (String cql : statements) {
+			Token expected = lexicalParser.isCQL(cql);
+
+			Lexemes lexemes = lexer.tokenize(cql);
+			LexicalContext context = new LexicalContext(lexemes, false);
+			Assert.assertSame(lexemes, context.getLexemes());
+			assertSameTree(expected, lexicalParser.isCQL(context, 0));
+
+			lexicalParser.setLexer(true);
+			assertSameTree(expected, lexicalParser.isCQL(cql));
+			lexicalParser.setLexer(false);
+		}
+	}
+
+	private void assertSameTree(Token expected, Token actual) {
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertEquals(expected.getContent(), actual.getContent());
+		Assert.assertEquals(expected.getSubTokens().size(), actual.getSubTokens().size());
+		for (int index = 0; index < expected.getSubTokens().size(); index++) {
+			assertSameTree(expected.getSubTokens().get(index), actual.getSubTokens().get(index));
+		}
+	}
+}
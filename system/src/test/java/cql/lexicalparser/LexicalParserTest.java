@@ -6,7 +6,10 @@ import java.time.LocalDate;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.Assert;
@@ -18,6 +21,7 @@ import org.junit.runners.JUnit4;
 import cql.Token;
 import cql.TokenType;
 import cql.lexicalparser.exceptions.CQLException;
+import cql.lexicalparser.exceptions.LexicalParserException;
 
 @RunWith(JUnit4.class)
 public class LexicalParserTest {
@@ -1246,10 +1250,66 @@ public class LexicalParserTest {
 		Assert.assertEquals("   WHERE    X=3 AND X=5   ", token.getContent());
 		Assert.assertEquals("; teste", token.getPosContent());
 		Assert.assertEquals(TokenType.END_CREATE_TABLE, token.getType());
-		Token subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.END_CREATE_TABLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
+	}
+
+	@Test
+	public void endCreateTableColumns() throws CQLException {
+		String cql = " IF NOT EXISTS ks.users ( id uuid PRIMARY KEY,\n\ttags map<text, frozen<list<int>>>, \"Name\" text,"
+				+ " PRIMARY KEY ((id, tags), name) ) WITH compaction = {'class' : 'LeveledCompactionStrategy'} ; teste";
+
+		Token token = lexicalParser.isEndCreateTable(cql, true);
+		Assert.assertTrue(token.getSubTokens().isEmpty());
+
+		lexicalParser.setColumnDefinitions(true);
+		token = lexicalParser.isEndCreateTable(cql, true);
+		Assert.assertEquals("; teste", token.getPosContent());
+		Assert.assertEquals(token.rebuild(), token.getContent());
+
+		Assert.assertEquals(7, token.getSubTokens().size());
+		Assert.assertEquals(TokenType.SPACES, token.getSubTokens().get(0).getType());
+		Assert.assertEquals(TokenType.CREATE_TABLE_NAME, token.getSubTokens().get(1).getType());
+		Assert.assertEquals("IF NOT EXISTS ks.users", token.getSubTokens().get(1).getContent());
+		Assert.assertEquals(TokenType.COLUMN_LIST, token.getSubTokens().get(3).getType());
+		Assert.assertEquals(TokenType.TABLE_OPTIONS, token.getSubTokens().get(5).getType());
+		Assert.assertEquals("WITH compaction = {'class' : 'LeveledCompactionStrategy'}",
+				token.getSubTokens().get(5).getContent());
+		Assert.assertSame(token.getSubTokens().get(3), token.getSubTokens().get(4).getBefore());
+
+		List<String> columns = new ArrayList<>();
+		for (Token column : token.getSubTokens().get(3).getSubTokens()) {
+			if (column.getType() == TokenType.COLUMN_DEFINITION) {
+				columns.add(column.getContent());
+			}
+		}
+		Assert.assertEquals(Arrays.asList("id uuid PRIMARY KEY", "tags map<text, frozen<list<int>>>", "\"Name\" text",
+				"PRIMARY KEY ((id, tags), name)"), columns);
+
+		cql = "create table users (id uuid primary key) ; ";
+		token = lexicalParser.isCQL(cql);
+		Assert.assertEquals(cql, token.rebuild());
+
+		// not a column list, kept as a single token
+		cql = " users (id uuid, ) WITH x = 1";
+		token = lexicalParser.isEndCreateTable(cql, true);
+		Assert.assertEquals(cql, token.getContent());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
+
+		for (String malformed : new String[] { " t (a int)) x", " t) (a int)", " t (a int) x", " t (a int) WITH (" }) {
+			token = lexicalParser.isEndCreateTable(malformed, true);
+			Assert.assertEquals(malformed, token.getContent());
+			Assert.assertTrue(malformed, token.getSubTokens().isEmpty());
+		}
+
+		// a ; in quotes does not end the body
+		cql = " t (a int PRIMARY KEY) WITH comment = 'a;b' AND x = \"c;d\"; teste";
+		token = lexicalParser.isEndCreateTable(cql, true);
+		Assert.assertEquals("; teste", token.getPosContent());
+		Assert.assertEquals(TokenType.TABLE_OPTIONS, token.getSubTokens().get(5).getType());
+		Assert.assertEquals("WITH comment = 'a;b' AND x = \"c;d\"", token.getSubTokens().get(5).getContent());
+
+		cql = "CREATE TABLE t (a int PRIMARY KEY) WITH comment = 'a;b';";
+		Assert.assertEquals(cql, lexicalParser.isCQL(cql).rebuild());
 	}
 
 	// <END CREATE INDEX COMMAND>::=^<DOT COMMA> <ANY> [<END CREATE INDEX
@@ -1267,10 +1327,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("   WHERE    X=3 AND X=5   ", token.getContent());
 		Assert.assertEquals("; teste", token.getPosContent());
 		Assert.assertEquals(TokenType.END_CREATE_INDEX_COMMAND, token.getType());
-		Token subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.END_CREATE_INDEX_COMMAND, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 	}
 
@@ -1443,9 +1500,19 @@ public class LexicalParserTest {
 		Assert.assertEquals(token.getSubTokens().toString(), 5, token.getSubTokens().size());
 		Assert.assertEquals(TokenType.CONDITION_ITEM, token.getSubTokens().get(0).getType());
 		Assert.assertEquals(TokenType.JOIN_CONDITION, token.getSubTokens().get(2).getType());
-		Assert.assertEquals(token.getSubTokens().toString(), TokenType.CONDITIONS,
+		Assert.assertEquals(token.getSubTokens().toString(), TokenType.CONDITION_ITEM,
 				token.getSubTokens().get(4).getType());
 		Assert.assertEquals(" aliasb test", token.getPosContent());
+
+		lexicalParser.setNestedLists(true);
+		token = lexicalParser.isConditions(cql, true);
+		Assert.assertEquals(token.rebuild(), token.getContent());
+		Assert.assertEquals(token.getSubTokens().toString(), 5, token.getSubTokens().size());
+		Assert.assertEquals(token.getSubTokens().toString(), TokenType.CONDITIONS,
+				token.getSubTokens().get(4).getType());
+		Assert.assertEquals("Y=3", token.getSubTokens().get(4).getContent());
+		Assert.assertEquals(" aliasb test", token.getSubTokens().get(4).getPosContent());
+		lexicalParser.setNestedLists(false);
 		cql = "user_token = ?";
 		token = lexicalParser.isConditions(cql, false);
 		token = lexicalParser.isConditions(cql, true);
@@ -1604,6 +1671,409 @@ public class LexicalParserTest {
 
 	}
 
+	@Test
+	public void cqlOffset() throws CQLException {
+		String cql = "INSERT INTO test (key,tags,cmps) VALUES ('a''b',[1,?,'x'],{'k':?, 'v':2}) USING TTL ?";
+		String prefix = "ignored;";
+
+		Token cqlToken = lexicalParser.isCQL(cql);
+		Token offsetToken = lexicalParser.isCQL(new LexicalContext(prefix + cql), prefix.length());
+
+		assertSameTree(cqlToken, offsetToken);
+		Assert.assertEquals(prefix.length(), offsetToken.getStart());
+		Assert.assertEquals(prefix.length() + cql.length(), offsetToken.getEnd());
+
+		cql = "select count(*) as valid from accounts where user_token = ? and age > 3";
+		offsetToken = lexicalParser.isCQL(new LexicalContext(prefix + cql), prefix.length());
+		assertSameTree(lexicalParser.isCQL(cql), offsetToken);
+
+		Token token = lexicalParser.isConditions(new LexicalContext(cql), cql.indexOf("user_token"), false);
+		Assert.assertNotNull(token);
+		Assert.assertEquals("user_token = ? and age > 3", token.getContent());
+		Assert.assertEquals("", token.getPosContent());
+
+		try {
+			lexicalParser.isCQL(new LexicalContext(prefix + cql), 0);
+			Assert.fail("Parsed the prefix as CQL");
+		} catch (CQLException e) {
+			Assert.assertNotNull(e);
+		}
+	}
+
+	@Test
+	public void cqlMemoization() throws CQLException {
+		String cql = "SELECT count(id) as total, f(g(1), [2, 'x']) FROM cmps WHERE deleteLeft > 0 and id = ?";
+
+		LexicalContext context = new LexicalContext(cql, true);
+		Token memoToken = lexicalParser.isCQL(context, 0);
+
+		assertSameTree(lexicalParser.isCQL(cql), memoToken);
+		Assert.assertTrue(context.getMemoHits() > 0);
+		Assert.assertTrue(context.getMemoMisses() > 0);
+		Assert.assertTrue(context.getMemoHitRatio() > 0 && context.getMemoHitRatio() < 1);
+
+		context = new LexicalContext(cql);
+		assertSameTree(memoToken, lexicalParser.isCQL(context, 0));
+		Assert.assertEquals(0, context.getMemoHits());
+		Assert.assertEquals(0, context.getMemoMisses());
+
+		lexicalParser.setMemoization(true);
+		assertSameTree(memoToken, lexicalParser.isCQL(cql));
+
+		try {
+			lexicalParser.isCQL("SELECT f(g(1) FROM cmps");
+			Assert.fail("Parsed an unbalanced function");
+		} catch (CQLException e) {
+			Assert.assertNotNull(e);
+		}
+	}
+
+	@Test
+	public void cqlFailure() throws CQLException {
+		String cql = "INSERT INTO test (a,b,c) VALUES (1,'x',[1,2]";
+
+		LexicalContext context = new LexicalContext(cql);
+		Token token = lexicalParser.isInsertCommand(context, 0, true);
+		Assert.assertNull(token);
+		Assert.assertEquals(cql.length(), context.getFailureOffset());
+		Assert.assertTrue(context.getExpected().contains(TokenType.END_PARAMETERS));
+		Assert.assertTrue(context.getExpected().contains(TokenType.COMMA));
+
+		try {
+			lexicalParser.isCQL(cql);
+			Assert.fail("Parsed an INSERT without the end of the values");
+		} catch (CQLException e) {
+			Assert.assertTrue(e.getMessage().contains("END PARAMETERS"));
+		}
+
+		// a required alternative that fails does not stop the other ones
+		token = lexicalParser.isTTLParameter("TTL ?", true);
+		Assert.assertNotNull(token);
+		Assert.assertEquals("TTL ?", token.getContent());
+	}
+
+	@Test
+	public void cqlLookahead() throws CQLException {
+		String cql = "UPDATE test SET a = 'x', b = {'k': 1}, c = [1, 2] WHERE id = ? AND d = f(e)";
+
+		LexicalContext context = new LexicalContext(cql);
+		Token token = lexicalParser.isCQL(context, 0);
+		Assert.assertEquals(cql, token.rebuild());
+		Assert.assertTrue(context.getLookaheads() > 0);
+		Assert.assertTrue(context.getSkippedAlternatives() > 0);
+
+		lexicalParser.setLookahead(false);
+		context = new LexicalContext(cql);
+		assertSameTree(token, lexicalParser.isCQL(context, 0));
+		Assert.assertEquals(0, context.getLookaheads());
+		Assert.assertEquals(0, context.getSkippedAlternatives());
+		lexicalParser.setLookahead(true);
+
+		// a leading ' only starts a STRING
+		context = new LexicalContext("'x'");
+		token = lexicalParser.isLiteral(context, 0, true);
+		Assert.assertEquals(TokenType.STRING, token.getSubTokens().get(0).getType());
+		Assert.assertEquals(4, context.getSkippedAlternatives());
+
+		// the skipped alternatives are still named by the failure
+		context = new LexicalContext("#");
+		Assert.assertNull(lexicalParser.isFieldValue(context, 0, true));
+		Assert.assertTrue(context.getExpected().contains(TokenType.MAP));
+		Assert.assertTrue(context.getExpected().contains(TokenType.LITERAL));
+		Assert.assertTrue(context.getExpected().contains(TokenType.FIELD_NAME));
+
+		// with diagnostics on, the entry point fails again with no lookahead to
+		// name the rules inside them
+		lexicalParser.setDiagnostics(true);
+		context = new LexicalContext("SELECT * FROM t WHERE a = #");
+		try {
+			lexicalParser.isCQL(context, 0);
+			Assert.fail("Parsed an invalid statement");
+		} catch (LexicalParserException e) {
+			Assert.assertTrue(context.getExpected().contains(TokenType.START_BRACE));
+			Assert.assertFalse(context.getExpected().contains(TokenType.MAP));
+		}
+	}
+
+	@Test
+	public void expectedWithAnyConfiguration() {
+		String[] cqls = { "SELECT * FROM t WHERE a = ", "SELECT * FROM t WHERE a = 1 AND b = #", "SELEC * FROM t",
+				"INSERT INTO t (a) VALUES (", "UPDATE t SET a = 1 WHERE b =", "SELECT FROM t", "\u00e9" };
+
+		// memoization and the lexer never change the error, the lookahead only
+		// with diagnostics off
+		for (boolean diagnostics : new boolean[] { false, true }) {
+			lexicalParser.setDiagnostics(diagnostics);
+			for (String cql : cqls) {
+				String[] expected = new String[2];
+				for (int flags = 0; flags < 8; flags++) {
+					lexicalParser.setMemoization((flags & 1) != 0);
+					lexicalParser.setLookahead((flags & 2) != 0);
+					lexicalParser.setLexer((flags & 4) != 0);
+					int key = diagnostics ? 0 : (flags & 2) >> 1;
+					try {
+						lexicalParser.isCQL(cql);
+						Assert.fail("Parsed [" + cql + "]");
+					} catch (LexicalParserException e) {
+						if (expected[key] == null) {
+							expected[key] = e.getMessage();
+						}
+						Assert.assertEquals("Flags " + flags, expected[key], e.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void analyzer() throws CQLException {
+		String cql = "UPDATE test SET doc = {\"a\": {\"b\": [1, 2]}} WHERE id = 1";
+		// the value of the map, where the grammar only takes a LITERAL
+		String json = "{\"b\": [1, 2]}";
+
+		// JSON objects as literals, anything else as the grammar reads it
+		LexicalParserAnalyzer literal = new LexicalParserAnalyzer() {
+
+			private final LexicalParser grammar = new LexicalParser();
+
+			@Override
+			public Token check(String text, boolean required) throws LexicalParserException {
+				if (!text.startsWith("{")) {
+					return grammar.isLiteral(text, required);
+				}
+
+				int depth = 0;
+				for (int index = 0; index < text.length(); index++) {
+					char character = text.charAt(index);
+					depth += (character == '{') ? 1 : (character == '}') ? -1 : 0;
+					if (depth == 0) {
+						Token token = new Token(TokenType.LITERAL);
+						token.setSource(text);
+						token.setEnd(index + 1);
+						return token;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public TokenType getType() {
+				return TokenType.LITERAL;
+			}
+		};
+
+		// the grammar has no JSON literal
+		try {
+			lexicalParser.isCQL(cql);
+			Assert.fail("Parsed a JSON literal");
+		} catch (CQLException e) {
+		}
+
+		lexicalParser.setAnalyzer(literal);
+		Assert.assertSame(literal, lexicalParser.getAnalyzer(TokenType.LITERAL));
+		Token token = lexicalParser.isCQL(cql);
+		Assert.assertTrue(contains(token, TokenType.LITERAL, json));
+		Assert.assertTrue(contains(token, TokenType.LITERAL, "1"));
+		Assert.assertEquals(cql, token.rebuild());
+
+		lexicalParser.setMemoization(true);
+		assertSameTree(token, lexicalParser.isCQL(cql));
+		lexicalParser.setMemoization(false);
+
+		lexicalParser.removeAnalyzer(TokenType.LITERAL);
+		Assert.assertNull(lexicalParser.getAnalyzer(TokenType.LITERAL));
+		try {
+			lexicalParser.isCQL(cql);
+			Assert.fail("Parsed a JSON literal after removing the analyzer");
+		} catch (CQLException e) {
+		}
+
+		// an analyzer that reads the context in place
+		lexicalParser.setAnalyzer(new LexicalParserAnalyzer() {
+
+			@Override
+			public Token is(LexicalContext context, int offset, boolean required) {
+				Token token = new Token(TokenType.NUMBER);
+				token.setSource(context.getSource());
+				token.setStart(offset);
+				token.setEnd(offset + 1);
+				return token;
+			}
+
+			@Override
+			public Token check(String text, boolean required) throws LexicalParserException {
+				return is(new LexicalContext(text), 0, required);
+			}
+
+			@Override
+			public TokenType getType() {
+				return TokenType.NUMBER;
+			}
+		});
+		Assert.assertEquals("1", lexicalParser.isNumber("123", true).getContent());
+
+		try {
+			lexicalParser.setAnalyzer(new LexicalParserAnalyzer() {
+
+				@Override
+				public Token check(String text, boolean required) {
+					return null;
+				}
+
+				@Override
+				public TokenType getType() {
+					return TokenType.SPACES;
+				}
+			});
+			Assert.fail("SPACES has no analyzer");
+		} catch (IllegalArgumentException e) {
+			Assert.assertFalse(LexicalParser.getAnalyzableTypes().contains(TokenType.SPACES));
+		}
+	}
+
+	@Test
+	public void analyzerRequired() throws CQLException {
+		// the offset form never passes required, so the failure is recorded in
+		// the context and the entry point reports it as the rules do
+		lexicalParser.setAnalyzer(new LexicalParserAnalyzer() {
+
+			@Override
+			public Token check(String text, boolean required) throws LexicalParserException {
+				if (required) {
+					throw new LexicalParserException("Required by the analyzer");
+				}
+				return null;
+			}
+
+			@Override
+			public TokenType getType() {
+				return TokenType.NUMBER;
+			}
+		});
+
+		LexicalContext context = new LexicalContext("12");
+		Assert.assertNull(lexicalParser.getAnalyzer(TokenType.NUMBER).is(context, 0, true));
+		Assert.assertEquals(0, context.getFailureOffset());
+
+		try {
+			lexicalParser.isNumber("12", true);
+			Assert.fail("Parsed a number the analyzer refused");
+		} catch (LexicalParserException e) {
+			Assert.assertNotEquals("Required by the analyzer", e.getMessage());
+		}
+	}
+
+	@Test
+	public void immutable() throws Exception {
+		LexicalParser immutable = LexicalParser.builder().timeZoneGMT("GMT-03").memoization(true).lexer(true)
+				.maxLength(200).build();
+
+		Assert.assertTrue(immutable.isImmutable());
+		Assert.assertFalse(lexicalParser.isImmutable());
+		Assert.assertEquals("GMT-03", immutable.getTimeZoneGMT());
+		Assert.assertTrue(immutable.isMemoization());
+		Assert.assertTrue(immutable.isLexer());
+		Assert.assertTrue(immutable.isLookahead());
+		Assert.assertEquals(200, immutable.getMaxLength());
+
+		try {
+			immutable.setTimeZoneGMT("GMT-00");
+			Assert.fail("Changed an immutable parser");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			immutable.removeAnalyzer(TokenType.LITERAL);
+			Assert.fail("Changed an immutable parser");
+		} catch (UnsupportedOperationException e) {
+		}
+
+		StringBuilder longCql = new StringBuilder("SELECT * FROM test WHERE a = '");
+		while (longCql.length() < 200) {
+			longCql.append("x");
+		}
+		longCql.append("'");
+		try {
+			immutable.isCQL(longCql.toString());
+			Assert.fail("Parsed a statement over the limit");
+		} catch (LexicalParserException e) {
+			Assert.assertTrue(e.getMessage().contains("200"));
+		}
+
+		// one instance for all the threads, each tree as a parser of its own
+		// builds it
+		List<String> cqls = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			cqls.add("UPDATE test SET a = " + index + ", b = 'b" + index + "' WHERE id = " + index
+					+ " AND c = 0x1F");
+		}
+
+		Thread[] threads = new Thread[4];
+		List<Throwable> errors = new ArrayList<>();
+		for (int thread = 0; thread < threads.length; thread++) {
+			threads[thread] = new Thread(() -> {
+				try {
+					for (int round = 0; round < 20; round++) {
+						for (String cql : cqls) {
+							Token token = immutable.isCQL(cql);
+							Assert.assertEquals(cql, token.rebuild());
+							Assert.assertEquals("GMT-03", token.getTimeZoneGMT());
+						}
+					}
+				} catch (Throwable e) {
+					synchronized (errors) {
+						errors.add(e);
+					}
+				}
+			});
+			threads[thread].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(new ArrayList<>(), errors);
+
+		LexicalParser parser = new LexicalParser();
+		parser.setTimeZoneGMT("GMT-03");
+		assertSameTree(parser.isCQL(cqls.get(7)), immutable.isCQL(cqls.get(7)));
+
+		// a parser keeps the configuration of its build(), not of the builder
+		LexicalParser.Builder builder = LexicalParser.builder().maxLength(10);
+		LexicalParser first = builder.build();
+		builder.maxLength(20).lookahead(false);
+		Assert.assertEquals(10, first.getMaxLength());
+		Assert.assertTrue(first.isLookahead());
+		Assert.assertEquals(20, builder.build().getMaxLength());
+
+		// a setter that fails leaves the configuration as it was
+		try {
+			parser.setMaxLength(-1);
+			Assert.fail("Set an invalid max length");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals(Integer.MAX_VALUE, parser.getMaxLength());
+		}
+	}
+
+	private boolean contains(Token token, TokenType type, String content) {
+		if (token.getType() == type && token.getContent().equals(content)) {
+			return true;
+		}
+		for (Token subToken : token.getSubTokens()) {
+			if (contains(subToken, type, content)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void assertSameTree(Token expected, Token actual) {
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertEquals(expected.getContent(), actual.getContent());
+		Assert.assertEquals(expected.getSubTokens().size(), actual.getSubTokens().size());
+		for (int index = 0; index < expected.getSubTokens().size(); index++) {
+			assertSameTree(expected.getSubTokens().get(index), actual.getSubTokens().get(index));
+		}
+	}
+
 	// <USING OPTION>::=<START USING> <SPACES> <END USING>
 	@Test
 	public void usingOption() throws CQLException {
@@ -1927,6 +2397,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("1234abc1", token.getContent());
 		Assert.assertEquals("-3 1234Éabcde adsfasdf ", token.getPosContent());
 		Assert.assertEquals(TokenType.ABSOLUTE_HEX, token.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 	}
 
@@ -2107,12 +2578,7 @@ public class LexicalParserTest {
 		Assert.assertEquals(". ", token.getContent());
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, token.getType());
-		Assert.assertEquals(2, token.getSubTokens().size());
-
-		Assert.assertEquals(TokenType.ANY, token.getSubTokens().get(0).getType());
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, token.getSubTokens().get(1).getType());
-
-		Assert.assertEquals(2, token.getSubTokens().size());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "teste'teste";
 		token = lexicalParser.isInputCharacterExceptSingle(cql, true);
@@ -2122,11 +2588,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("teste", token.getContent());
 		Assert.assertEquals("'teste", token.getPosContent());
 
-		Token subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "teste''teste";
 		token = lexicalParser.isInputCharacterExceptSingle(cql, true);
@@ -2136,10 +2598,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, token.getType());
 
-		subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "adf ''' 123";
 		token = lexicalParser.isInputCharacterExceptSingle(cql, true);
@@ -2159,13 +2618,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("'teste", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, token.getType());
 
-		subtoken = token.getSubTokens().get(0);
-
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_SINGLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 	}
 
@@ -2184,11 +2637,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, token.getType());
 
-		Token subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "teste'teste";
 		token = lexicalParser.isInputCharacterExceptDouble(cql, true);
@@ -2199,11 +2648,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, token.getType());
 
-		subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "teste''teste";
 		token = lexicalParser.isInputCharacterExceptDouble(cql, true);
@@ -2213,11 +2658,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, token.getType());
 
-		subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 		cql = "teste''teste'teste";
 		token = lexicalParser.isInputCharacterExceptDouble(cql, true);
@@ -2227,11 +2668,7 @@ public class LexicalParserTest {
 		Assert.assertEquals("", token.getPosContent());
 		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, token.getType());
 
-		subtoken = token.getSubTokens().get(0);
-		Assert.assertEquals(TokenType.ANY, subtoken.getType());
-
-		subtoken = token.getSubTokens().get(1);
-		Assert.assertEquals(TokenType.INPUT_CHARACTER_EXCEPT_DOUBLE, subtoken.getType());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 	}
 
@@ -2389,6 +2826,11 @@ public class LexicalParserTest {
 		Token token = lexicalParser.isHexa(cql, false);
 		Assert.assertNotNull(token);
 
+		cql = "0xe1234abc, 1";
+		token = lexicalParser.isLiteral(cql, true);
+		Assert.assertEquals("0xe1234abc", token.getContent());
+		Assert.assertEquals(TokenType.HEX, token.getSubTokens().get(0).getType());
+
 		cql = "trueasdf adsfasdf ";
 		token = lexicalParser.isLiteral(cql, false);
 
@@ -2452,6 +2894,9 @@ public class LexicalParserTest {
 		Assert.assertNotNull(token);
 
 		Assert.assertEquals(TokenType.NUMBER, token.getType());
+		Assert.assertEquals("1234", token.getContent());
+		Assert.assertEquals("Éabcde adsfasdf ", token.getPosContent());
+		Assert.assertTrue(token.getSubTokens().isEmpty());
 
 	}
 
@@ -2544,6 +2989,19 @@ public class LexicalParserTest {
 		Assert.assertEquals("SeLeCt", token.getContent());
 		Assert.assertEquals(" TEST ", token.getPosContent());
 		Assert.assertEquals(TokenType.RESERVED_WORD, token.getType());
+
+		cql = "local_quorum";
+		token = lexicalParser.isReservedWord(cql, true);
+		Assert.assertEquals("local_quorum", token.getContent());
+		Assert.assertEquals("", token.getPosContent());
+
+		// a word only ends at a space or at the end of the text
+		Assert.assertNull(lexicalParser.isReservedWord("SELECT,name", false));
+		Assert.assertNull(lexicalParser.isReservedWord("SELECTS name", false));
+		Assert.assertNull(lexicalParser.isReservedWord("SELEC name", false));
+		Assert.assertNull(lexicalParser.isReservedWord("", false));
+		Assert.assertEquals("IN", lexicalParser.isReservedWord("IN INDEX", false).getContent());
+		Assert.assertEquals("INDEX", lexicalParser.isReservedWord("INDEX IN", false).getContent());
 	}
 
 	@Test
@@ -2748,7 +3206,13 @@ public class LexicalParserTest {
 		Assert.assertEquals(TokenType.SPACES, token.getSubTokens().get(1).getType());
 		Assert.assertEquals(TokenType.COMMA, token.getSubTokens().get(2).getType());
 		Assert.assertEquals(TokenType.SPACES, token.getSubTokens().get(3).getType());
-		Assert.assertEquals(TokenType.SELECTOR_BLOCK, token.getSubTokens().get(4).getType());
+		Assert.assertEquals(TokenType.FIELD_VALUE, token.getSubTokens().get(4).getType());
+
+		cql = "?,?,?,[?,?,?],{?:?,?:? ,?:? },{?:?,?:?})";
+		token = lexicalParser.isSelectorBlock(cql, true);
+		Assert.assertEquals(11, token.getSubTokens().size());
+		Assert.assertEquals(TokenType.FIELD_VALUE, token.getSubTokens().get(10).getType());
+		Assert.assertEquals("{?:?,?:?}", token.getSubTokens().get(10).getContent());
 
 		cql = "abc.def)";
 		token = lexicalParser.isSelectorBlock(cql, false);
@@ -3222,10 +3686,22 @@ public class LexicalParserTest {
 		Assert.assertEquals("name:'Test',age:35,color:'fff'", token.getContent());
 		Assert.assertEquals(" } , 6", token.getPosContent());
 		Assert.assertEquals(TokenType.PROPERTIES, token.getType());
-		Assert.assertEquals(3, token.getSubTokens().size());
+		Assert.assertEquals(5, token.getSubTokens().size());
 		Assert.assertEquals(TokenType.PROPERTY, token.getSubTokens().get(0).getType());
 		Assert.assertEquals(TokenType.COMMA, token.getSubTokens().get(1).getType());
+		Assert.assertEquals(TokenType.PROPERTY, token.getSubTokens().get(2).getType());
+		Assert.assertEquals(TokenType.COMMA, token.getSubTokens().get(3).getType());
+		Assert.assertEquals(TokenType.PROPERTY, token.getSubTokens().get(4).getType());
+		Assert.assertSame(token.getSubTokens().get(3), token.getSubTokens().get(4).getBefore());
+
+		lexicalParser.setNestedLists(true);
+		token = lexicalParser.isProperties(cql, true);
+		Assert.assertEquals(token.rebuild(), token.getContent());
+		Assert.assertEquals(3, token.getSubTokens().size());
 		Assert.assertEquals(TokenType.PROPERTIES, token.getSubTokens().get(2).getType());
+		Assert.assertEquals("age:35,color:'fff'", token.getSubTokens().get(2).getContent());
+		Assert.assertEquals(3, token.getSubTokens().get(2).getSubTokens().size());
+		lexicalParser.setNestedLists(false);
 
 		cql = "a:'a',b:'b'} where user_token = ?";
 		token = lexicalParser.isProperties(cql, true);
@@ -3237,7 +3713,7 @@ public class LexicalParserTest {
 		Assert.assertEquals(3, token.getSubTokens().size());
 		Assert.assertEquals(TokenType.PROPERTY, token.getSubTokens().get(0).getType());
 		Assert.assertEquals(TokenType.COMMA, token.getSubTokens().get(1).getType());
-		Assert.assertEquals(TokenType.PROPERTIES, token.getSubTokens().get(2).getType());
+		Assert.assertEquals(TokenType.PROPERTY, token.getSubTokens().get(2).getType());
 
 	}
 
@@ -3533,6 +4009,16 @@ public class LexicalParserTest {
 		token = lexicalParser.isChars(cql, false);
 		Assert.assertNull(token);
 
+		// letters outside the BMP are read as whole code points
+		cql = "nome\uD835\uDC00x ";
+		token = lexicalParser.isChars(cql, true);
+		Assert.assertEquals("nome\uD835\uDC00x", token.getContent());
+
+		cql = "ação\u0663-1";
+		token = lexicalParser.isChars(cql, true);
+		Assert.assertEquals("ação\u0663", token.getContent());
+		Assert.assertEquals("-1", token.getPosContent());
+
 	}
 
 	// <START_PARAMETERS>::=(
@@ -3672,6 +4158,77 @@ public class LexicalParserTest {
 
 	}
 
+	@Test
+	public void stringLarge() throws CQLException {
+		StringBuilder body = new StringBuilder();
+		while (body.length() < 1024 * 1024) {
+			body.append("{''key'':''value'', \"other\": [1, 2]} ");
+		}
+
+		String cql = "INSERT INTO test (field) VALUES ('" + body + "')";
+		Token token = lexicalParser.isCQL(cql);
+		Assert.assertEquals(cql, token.rebuild());
+
+		token = lexicalParser.isString("'" + body + "' 123", true);
+		Assert.assertEquals(" 123", token.getPosContent());
+		Assert.assertEquals(3, token.getSubTokens().size());
+		Assert.assertEquals(body.toString(), token.getSubTokens().get(1).getContent());
+		Assert.assertTrue(token.getSubTokens().get(1).getSubTokens().isEmpty());
+	}
+
+	@Test
+	public void listLarge() throws CQLException {
+		StringBuilder fields = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		StringBuilder conditions = new StringBuilder();
+		for (int index = 0; index < 5000; index++) {
+			if (index > 0) {
+				fields.append(", ");
+				values.append(",");
+				conditions.append(" AND ");
+			}
+			fields.append("field").append(index);
+			values.append("?");
+			conditions.append("field").append(index).append(" = ?");
+		}
+
+		String cql = "INSERT INTO test (" + fields + ") VALUES (" + values + ")";
+		Token token = lexicalParser.isCQL(cql);
+		Assert.assertEquals(cql, token.rebuild());
+		Assert.assertEquals(5000, token.count(TokenType.FIELD_NAME));
+		Assert.assertEquals(5000, token.count(TokenType.INJECT));
+
+		cql = "SELECT * FROM test WHERE " + conditions;
+		token = lexicalParser.isCQL(cql);
+		Assert.assertEquals(cql, token.rebuild());
+		Assert.assertEquals(5000, token.count(TokenType.CONDITION_ITEM));
+		Assert.assertEquals(1, token.count(TokenType.CONDITIONS));
+	}
+
+	@Test
+	public void mapLarge() throws CQLException {
+		StringBuilder map = new StringBuilder("{");
+		for (int index = 0; index < 20000; index++) {
+			if (index > 0) {
+				map.append(", ");
+			}
+			map.append("'key").append(index).append("': 'value").append(index).append("'");
+		}
+		map.append("}");
+
+		String cql = "INSERT INTO test (id, attributes) VALUES (?, " + map + ")";
+		Token token = lexicalParser.isCQL(cql);
+		Assert.assertEquals(cql, token.rebuild());
+		Assert.assertEquals(1, token.count(TokenType.PROPERTIES));
+		Assert.assertEquals(20000, token.count(TokenType.PROPERTY));
+
+		Token properties = lexicalParser.isProperties(map.substring(1), true);
+		Token last = properties.getSubTokens().get(properties.getSubTokens().size() - 1);
+		Assert.assertEquals("'key19999': 'value19999'", last.getContent());
+		Assert.assertNotNull(last.getBefore());
+		Assert.assertSame(last, last.getBefore().getAfter());
+	}
+
 	// <LIMIT OPTION> ::= <LIMIT> <SPACES> (<NUMBER>|<INJECTION>)
 	@Test
 	public void limitOption() throws CQLException {
@@ -3979,6 +4536,14 @@ public class LexicalParserTest {
 		token = tester.is(cql, false);
 		Assert.assertNull(token);
 
+		cql = uname.substring(0, uname.length() - 1);
+		token = tester.is(cql, false);
+		Assert.assertNull(token);
+
+		cql = "x" + uname;
+		token = tester.is(cql, false);
+		Assert.assertNull(token);
+
 		try {
 
 			cql = " teste";
@@ -0,0 +1,104 @@
+package cql.lexicalparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.exceptions.CQLScriptException;
+
+@RunWith(JUnit4.class)
+public class ScriptParserTest {
+
+	private static final String SCRIPT = "SELECT * FROM test WHERE a = 'x;y';\n"
+			+ "UPDATE test SET b = 'it''s; done' WHERE id = 1;;\n" + "  ;\n"
+			+ "DELETE FROM test WHERE c = \"q;\" \n";
+
+	private LexicalParser lexicalParser = null;
+
+	@Before
+	public void cleanup() {
+		lexicalParser = new LexicalParser();
+	}
+
+	@Test
+	public void statements() throws Exception {
+		// chunks of 1 to 7 characters split statements and quotes anywhere
+		for (int chunkSize = 1; chunkSize < 8; chunkSize++) {
+			List<Token> tokens = parse(new ScriptParser(lexicalParser, new StringReader(SCRIPT), chunkSize));
+
+			Assert.assertEquals(3, tokens.size());
+			Assert.assertEquals("SELECT * FROM test WHERE a = 'x;y';", tokens.get(0).rebuild());
+			Assert.assertEquals("\nUPDATE test SET b = 'it''s; done' WHERE id = 1;", tokens.get(1).rebuild());
+			Assert.assertEquals("\nDELETE FROM test WHERE c = \"q;\" \n", tokens.get(2).rebuild());
+
+			for (Token token : tokens) {
+				Assert.assertEquals(TokenType.CQL, token.getType());
+			}
+		}
+	}
+
+	@Test
+	public void channel() throws Exception {
+		byte[] bytes = "SELECT * FROM ção; SELECT * FROM test".getBytes(StandardCharsets.UTF_8);
+		ScriptParser scriptParser = new ScriptParser(lexicalParser,
+				Channels.newChannel(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8);
+
+		List<Token> tokens = parse(scriptParser);
+		Assert.assertEquals(2, tokens.size());
+		Assert.assertEquals("SELECT * FROM ção;", tokens.get(0).rebuild());
+		Assert.assertEquals(1, scriptParser.getLine());
+	}
+
+	@Test
+	public void empty() throws Exception {
+		ScriptParser scriptParser = new ScriptParser(lexicalParser, new StringReader(" \n;; \n"));
+		Assert.assertFalse(scriptParser.hasNext());
+		try {
+			scriptParser.next();
+			Assert.fail("Statement in an empty script");
+		} catch (NoSuchElementException e) {
+		}
+	}
+
+	@Test
+	public void invalid() throws Exception {
+		ScriptParser scriptParser = new ScriptParser(lexicalParser,
+				new StringReader("SELECT * FROM a;\n\nSELECT FROM b;\nSELECT * FROM c;"));
+
+		Assert.assertEquals("SELECT * FROM a;", scriptParser.next().rebuild());
+		try {
+			scriptParser.next();
+			Assert.fail("Parsed an invalid statement");
+		} catch (CQLScriptException e) {
+			Assert.assertEquals(3, e.getLine());
+			Assert.assertNotNull(e.getCause());
+		}
+
+		// the iteration goes on after the invalid statement
+		Assert.assertEquals("\nSELECT * FROM c;", scriptParser.next().rebuild());
+		Assert.assertFalse(scriptParser.hasNext());
+	}
+
+	private List<Token> parse(ScriptParser scriptParser) throws Exception {
+		List<Token> tokens = new ArrayList<>();
+		try {
+			scriptParser.forEachRemaining(tokens::add);
+		} finally {
+			scriptParser.close();
+		}
+		return tokens;
+	}
+
+}
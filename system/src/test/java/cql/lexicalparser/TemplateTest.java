@@ -0,0 +1,154 @@
+package cql.lexicalparser;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cql.Binder;
+import cql.Template;
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.exceptions.CQLException;
+
+public class TemplateTest {
+
+	private static final String CQL = "INSERT INTO test (key,email,age,tags,\"friendsByName\",cmps) VALUES (?,?,?,[?,?,?],{?:?,?:? ,?:? },{?,?,?})";
+
+	private LexicalParser lexicalParser = null;
+
+	@Before
+	public void cleanup() throws CQLException {
+		lexicalParser = new LexicalParser();
+	}
+
+	@Test
+	public void compile() throws CQLException {
+		Template template = Template.compile(lexicalParser.isCQL(CQL));
+
+		Assert.assertEquals(15, template.getSlotCount());
+		Assert.assertEquals(CQL, template.toCQL());
+		Assert.assertEquals(CQL.indexOf('?'), template.getOffset(0));
+		Assert.assertEquals(CQL.lastIndexOf('?'), template.getOffset(14));
+		Assert.assertEquals(CQL.substring(0, CQL.indexOf('?')), template.getFragment(0));
+		Assert.assertEquals("})", template.getFragment(15));
+
+		// a statement with no INJECT is a single fragment
+		template = Template.compile(lexicalParser.isCQL("SELECT * FROM test"));
+		Assert.assertEquals(0, template.getSlotCount());
+		Assert.assertEquals("SELECT * FROM test", template.bind());
+	}
+
+	@Test
+	public void bind() throws CQLException {
+		Object[] values = { "userTest", "user'Test@gmail.com", 45, "Pelé1", "Pelé2", "Pelé3", "Eduardo", 1, "Rafael", 2,
+				"Gabi", 3, 33, 44, 55 };
+
+		Token tokenCQL = lexicalParser.isCQL(CQL);
+		Template template = Template.compile(tokenCQL);
+		for (int index = 0; index < values.length; index++) {
+			tokenCQL.replace(TokenType.INJECT, values[index], index);
+		}
+		Assert.assertEquals(tokenCQL.getContent(), template.bind(values));
+
+		// the template does not change with the tree nor with its binds
+		Assert.assertEquals(CQL, template.toCQL());
+
+		Binder binder = template.binder().bind(2, 45).bind(0, "a");
+		Assert.assertEquals(
+				"INSERT INTO test (key,email,age,tags,\"friendsByName\",cmps) VALUES ('a',?,45,[?,?,?],{?:?,?:? ,?:? },{?,?,?})",
+				binder.toCQL());
+		Assert.assertEquals(CQL, binder.clear().toCQL());
+
+		try {
+			binder.bind(15, 1);
+			Assert.fail("Bound a slot out of the template");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	public void bindTypes() throws CQLException {
+		String cql = "UPDATE test SET a = ?, b = ?, c = ?, d = ? WHERE id = ?";
+		Token tokenCQL = lexicalParser.isCQL(cql);
+		Template template = Template.compile(tokenCQL);
+
+		Map<String, Integer> map = new LinkedHashMap<>();
+		map.put("x", 1);
+		Object[] values = { Arrays.asList(1, 2), map, LocalDate.of(2016, 5, 3), new Date(0), null };
+
+		for (int index = 0; index < values.length; index++) {
+			tokenCQL.replace(values[index], index);
+		}
+		Assert.assertEquals(tokenCQL.getContent(), template.bind(values));
+	}
+
+	@Test
+	public void replaced() throws CQLException {
+		// a tree already bound keeps its values as the text of the slots
+		Token tokenCQL = lexicalParser.isCQL("SELECT * FROM test WHERE a = ? AND b = ?");
+		tokenCQL.replace(5, 1);
+
+		Template template = Template.compile(tokenCQL);
+		Assert.assertEquals(2, template.getSlotCount());
+		Assert.assertEquals("SELECT * FROM test WHERE a = ? AND b = 5", template.toCQL());
+		Assert.assertEquals("SELECT * FROM test WHERE a = 'x' AND b = 6", template.bind("x", 6));
+	}
+
+	@Test
+	public void writeTo() throws CQLException {
+		// 2, 3 and 4 byte characters, and a surrogate with no pair
+		Object[] values = { "ção", "€ 𝄞", "a\uD800b" };
+		String cql = "UPDATE tést SET a = ?, b = ? WHERE id = ? AND c = 'ü'";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+		Template template = Template.compile(tokenCQL);
+		Binder binder = template.binder();
+		for (int slot = 0; slot < values.length; slot++) {
+			binder.bind(slot, values[slot]);
+		}
+		byte[] expected = binder.toCQL().getBytes(StandardCharsets.UTF_8);
+		Assert.assertEquals(expected.length, binder.encodedLength());
+
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256) }) {
+			buffer.put((byte) 1);
+			binder.writeTo(buffer);
+			Assert.assertEquals(1 + expected.length, buffer.position());
+
+			byte[] written = new byte[expected.length];
+			buffer.flip();
+			buffer.get();
+			buffer.get(written);
+			Assert.assertArrayEquals(expected, written);
+		}
+
+		// a buffer too small is left as it was
+		ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+		try {
+			binder.writeTo(small);
+			Assert.fail("Wrote past the buffer");
+		} catch (BufferOverflowException e) {
+			Assert.assertEquals(0, small.position());
+		}
+
+		// the tree writes the same bytes as its content
+		tokenCQL.bindAll(values);
+		Assert.assertEquals(expected.length, tokenCQL.encodedLength());
+		ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length);
+		tokenCQL.writeTo(buffer);
+		Assert.assertFalse(buffer.hasRemaining());
+		byte[] written = new byte[expected.length];
+		buffer.flip();
+		buffer.get(written);
+		Assert.assertArrayEquals(expected, written);
+	}
+
+}
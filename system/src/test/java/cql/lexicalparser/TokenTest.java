@@ -1,9 +1,15 @@
 package cql.lexicalparser;
 
+import java.io.StringWriter;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.junit.Assert;
@@ -13,6 +19,8 @@ import org.junit.Test;
 import cql.Token;
 import cql.TokenType;
 import cql.lexicalparser.exceptions.CQLException;
+import cql.lexicalparser.exceptions.CQLFormatException;
+import cql.lexicalparser.exceptions.CQLReplaceException;
 
 public class TokenTest {
 
@@ -107,6 +115,165 @@ public class TokenTest {
 
 	}
 
+	@Test
+	public void bindAll() throws CQLException {
+		String cql = "INSERT INTO test (key,email,age,tags,\"friendsByName\",cmps) VALUES (?,?,?,[?,?,?],{?:?,?:? ,?:? },{?,?,?})";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+
+		Assert.assertEquals(
+				"INSERT INTO test (key,email,age,tags,\"friendsByName\",cmps) VALUES ('userTest','userTest@gmail.com',45,['Pelé1','Pelé2','Pelé3'],{'Eduardo':1,'Rafael':2 ,'Gabi':3 },{33,44,55})",
+				tokenCQL.bindAll("userTest", "userTest@gmail.com", 45, "Pelé1", "Pelé2", "Pelé3", "Eduardo", 1,
+						"Rafael", 2, "Gabi", 3, 33, 44, 55));
+		Assert.assertEquals(15, tokenCQL.count(TokenType.INJECT));
+
+		cql = "INSERT INTO test (age,year,day) VALUES (?,?,?)";
+		tokenCQL = lexicalParser.isCQL(cql);
+
+		try {
+			tokenCQL.bindAll(1, 2);
+			Assert.fail("Bound 2 values to 3 INJECT");
+		} catch (CQLReplaceException e) {
+		}
+
+		// a value that can not be formatted leaves the tree as it was
+		try {
+			tokenCQL.bindAll(1, new Object(), 3);
+			Assert.fail("Bound an unknown type");
+		} catch (CQLReplaceException e) {
+			Assert.assertTrue(e.getCause() instanceof CQLFormatException);
+		}
+		Assert.assertEquals(cql, tokenCQL.getContent());
+
+		Assert.assertEquals("INSERT INTO test (age,year,day) VALUES (NULL,2016,5)",
+				tokenCQL.bindAll(Arrays.asList(null, 2016, 5)));
+	}
+
+	@Test
+	public void dirtyPath() throws CQLException {
+		String cql = "UPDATE test SET a = 1, b = 'x' WHERE id = ? AND c = 2";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+		Assert.assertFalse(tokenCQL.isDirty());
+		Assert.assertNull(tokenCQL.getParent());
+
+		Token inject = first(tokenCQL, TokenType.INJECT);
+		Token literal = first(tokenCQL, TokenType.STRING);
+		inject.setContent("7");
+
+		// the path up to the root is dirty, the rest of the tree is not
+		for (Token token = inject.getParent(); token != null; token = token.getParent()) {
+			Assert.assertTrue(token.isDirty());
+		}
+		Assert.assertFalse(literal.isDirty());
+		Assert.assertFalse(literal.getParent().isDirty());
+
+		tokenCQL.rebuild();
+		Assert.assertEquals("UPDATE test SET a = 1, b = 'x' WHERE id = 7 AND c = 2", tokenCQL.getContent());
+		Assert.assertFalse(tokenCQL.isDirty());
+		Assert.assertFalse(inject.getParent().isDirty());
+
+		// a tree built by hand is concatenated from its sub tokens
+		Token root = new Token(TokenType.CQL);
+		Token left = new Token(TokenType.CHARS);
+		left.setContent("a");
+		Token right = new Token(TokenType.CHARS);
+		right.setContent("b");
+		root.getSubTokens().add(left);
+		root.getSubTokens().add(right);
+		Assert.assertSame(root, right.getParent());
+		root.rebuild();
+		Assert.assertEquals("ab", root.getContent());
+
+		root.getSubTokens().remove(0);
+		root.rebuild();
+		Assert.assertEquals("b", root.getContent());
+	}
+
+	@Test
+	public void editSubTokens() throws CQLException {
+		String cql = "SELECT * FROM test WHERE a = ? AND b = ?";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+		Token conditions = first(tokenCQL, TokenType.CONDITIONS);
+		Token other = first(lexicalParser.isCQL("SELECT * FROM test WHERE c = 1 AND c = 1"), TokenType.CONDITIONS);
+		List<Token> extra = new ArrayList<>(other.getSubTokens().subList(1, other.getSubTokens().size()));
+
+		Assert.assertFalse(tokenCQL.isDirty());
+		for (Token token : extra) {
+			Assert.assertTrue(conditions.getSubTokens().add(token));
+			Assert.assertSame(conditions, token.getParent());
+		}
+		Assert.assertTrue(tokenCQL.isDirty());
+		tokenCQL.rebuild();
+		Assert.assertEquals("SELECT * FROM test WHERE a = ? AND b = ? AND c = 1", tokenCQL.getContent());
+
+		tokenCQL = lexicalParser.isCQL(cql);
+		conditions = first(tokenCQL, TokenType.CONDITIONS);
+		Token first = conditions.getSubTokens().get(0);
+		Assert.assertTrue(conditions.getSubTokens().removeIf(token -> token != first));
+		Assert.assertTrue(tokenCQL.isDirty());
+		tokenCQL.rebuild();
+		Assert.assertEquals("SELECT * FROM test WHERE a = ?", tokenCQL.getContent());
+
+		// bulk changes, also through a sub list, mark the tree as well
+		tokenCQL = lexicalParser.isCQL(cql);
+		conditions = first(tokenCQL, TokenType.CONDITIONS);
+		conditions.getSubTokens().subList(1, conditions.getSubTokens().size()).clear();
+		Assert.assertTrue(tokenCQL.isDirty());
+		tokenCQL.rebuild();
+		Assert.assertEquals("SELECT * FROM test WHERE a = ?", tokenCQL.getContent());
+	}
+
+	@Test
+	public void editMemoized() throws CQLException {
+		// with memoization a discarded alternative takes the tokens it tried
+		// too, the parser links them to the accepted tree again
+		lexicalParser.setMemoization(true);
+		String cql = "UPDATE test SET doc = {\"a\": {\"b\": [1, 2]}} WHERE id = 1";
+
+		Token tokenCQL = lexicalParser.isCommand(cql, true);
+		String expected = tokenCQL.getContent().replace("\"a\"", "\"ZZZ\"");
+		Token key = leaf(tokenCQL, "\"a\"");
+		key.setContent("\"ZZZ\"");
+
+		Assert.assertEquals(expected, tokenCQL.writeTo(new StringBuilder()).toString());
+		tokenCQL.rebuild();
+		Assert.assertEquals(expected, tokenCQL.getContent());
+	}
+
+	@Test
+	public void writeTo() throws Exception {
+		String cql = "INSERT INTO test (age,tags,props) VALUES (?,?,?)";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+		StringBuilder buffer = new StringBuilder("-- ");
+		Assert.assertEquals(cql.length(), tokenCQL.length());
+		Assert.assertEquals("-- " + cql, tokenCQL.writeTo(buffer).toString());
+
+		// a dirty tree is written as rebuild() makes it, and stays dirty
+		Map<String, Object> props = new LinkedHashMap<>();
+		props.put("a", Arrays.asList("it's", 2));
+		props.put("b", null);
+		Token inject = first(tokenCQL, TokenType.INJECT);
+		inject.setContent(tokenCQL.format(inject, props));
+
+		String expected = "INSERT INTO test (age,tags,props) VALUES ({'a':['it''s',2],'b':NULL},?,?)";
+		buffer.setLength(0);
+		Assert.assertEquals(expected.length(), tokenCQL.length());
+		Assert.assertEquals(expected, tokenCQL.writeTo(buffer).toString());
+		Assert.assertTrue(tokenCQL.isDirty());
+
+		StringWriter writer = new StringWriter();
+		Assert.assertSame(writer, tokenCQL.writeTo(writer));
+		Assert.assertEquals(expected, writer.toString());
+
+		tokenCQL.rebuild();
+		Assert.assertEquals(expected, tokenCQL.getContent());
+		buffer.setLength(0);
+		Assert.assertEquals(expected, tokenCQL.writeTo(buffer).toString());
+	}
+
 	@Test
 	public void nullTest() throws CQLException {
 
@@ -127,6 +294,121 @@ public class TokenTest {
 
 	}
 
+	@Test
+	public void sourceBounds() throws CQLException {
+
+		String cql = "INSERT INTO test (age,year,day) VALUES (?,?,?)";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+
+		Token tokenCommand = tokenCQL.getSubTokens().get(0);
+		Assert.assertSame(cql, tokenCommand.getSource());
+		Assert.assertEquals(0, tokenCommand.getStart());
+		Assert.assertEquals(cql.length(), tokenCommand.getEnd());
+		Assert.assertEquals(cql, tokenCommand.getContent());
+
+		Token tokenInject = first(tokenCQL, TokenType.INJECT);
+		Assert.assertEquals(TokenType.INJECT, tokenInject.getType());
+		Assert.assertEquals("?", tokenInject.getContent());
+		Assert.assertEquals(",?,?)", tokenInject.getPosContent());
+
+		// an explicit content wins over the bounds
+		tokenInject.setContent("5");
+		Assert.assertEquals("5", tokenInject.getContent());
+		Assert.assertEquals(",?,?)", tokenInject.getPosContent());
+
+		tokenCQL.rebuild();
+		Assert.assertEquals("INSERT INTO test (age,year,day) VALUES (5,?,?)", tokenCQL.getContent());
+	}
+
+	@Test
+	public void decode() throws CQLException {
+
+		String cql = "UPDATE test SET data = 0xCAFE01, size = 1234567890123 WHERE key = -0x1f";
+
+		Token tokenCQL = lexicalParser.isCQL(cql);
+
+		Token tokenHexa = first(tokenCQL, TokenType.HEX);
+		Assert.assertEquals("0xCAFE01", tokenHexa.getContent());
+		Assert.assertArrayEquals(new byte[] { (byte) 0xCA, (byte) 0xFE, 0x01 }, tokenHexa.toBytes());
+		Assert.assertEquals(0xCAFE01L, tokenHexa.toLong());
+
+		Token tokenNumber = first(tokenCQL, TokenType.NUMBER);
+		Assert.assertEquals(1234567890123L, tokenNumber.toLong());
+
+		Assert.assertEquals(-0x1fL, lexicalParser.isHexa("-0x1f", true).toLong());
+
+		try {
+			lexicalParser.isHexa("0x123", true).toBytes();
+			Assert.fail("odd hexa");
+		} catch (CQLFormatException e) {
+		}
+
+		try {
+			lexicalParser.isNumber("99999999999999999999", true).toLong();
+			Assert.fail("overflow");
+		} catch (CQLFormatException e) {
+		}
+
+		// the edges of a bigint, and a HEX of 16 digits as the bits of the long
+		Assert.assertEquals(Long.MAX_VALUE, lexicalParser.isNumber("9223372036854775807", true).toLong());
+		Token bigint = new Token(TokenType.NUMBER);
+		bigint.setContent("-9223372036854775808");
+		Assert.assertEquals(Long.MIN_VALUE, bigint.toLong());
+		Assert.assertEquals(-1L, lexicalParser.isHexa("0xFFFFFFFFFFFFFFFF", true).toLong());
+		Assert.assertEquals(Long.MIN_VALUE, lexicalParser.isHexa("-0x8000000000000000", true).toLong());
+		Assert.assertEquals(0xFFL, lexicalParser.isHexa("0x00000000000000000FF", true).toLong());
+
+		for (String overflow : new String[] { "9223372036854775808", "-9223372036854775809" }) {
+			try {
+				bigint.setContent(overflow);
+				bigint.toLong();
+				Assert.fail("overflow " + overflow);
+			} catch (CQLFormatException e) {
+			}
+		}
+		try {
+			lexicalParser.isHexa("0x1FFFFFFFFFFFFFFFF", true).toLong();
+			Assert.fail("hexa of 17 digits");
+		} catch (CQLFormatException e) {
+		}
+
+		// an explicit content wins over the bounds
+		tokenNumber.setContent("42");
+		Assert.assertEquals(42, tokenNumber.toLong());
+
+		StringBuilder blob = new StringBuilder("0x");
+		for (int index = 0; index < 256 * 1024; index++) {
+			blob.append("0f");
+		}
+		tokenHexa = lexicalParser.isHexa(blob.toString(), true);
+		Assert.assertEquals(256 * 1024, tokenHexa.toBytes().length);
+	}
+
+	// deepest token with the content
+	private Token leaf(Token token, String content) {
+		for (Token subToken : token.getSubTokens()) {
+			Token found = leaf(subToken, content);
+			if (found != null) {
+				return found;
+			}
+		}
+		return content.equals(token.getContent()) ? token : null;
+	}
+
+	private Token first(Token token, TokenType type) {
+		if (token.getType() == type) {
+			return token;
+		}
+		for (Token subToken : token.getSubTokens()) {
+			Token found = first(subToken, type);
+			if (found != null) {
+				return found;
+			}
+		}
+		return null;
+	}
+
 	@Test
 	public void count() throws CQLException {
 
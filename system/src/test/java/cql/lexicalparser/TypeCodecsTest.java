@@ -0,0 +1,96 @@
+package cql.lexicalparser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cql.Token;
+import cql.TokenType;
+import cql.TypeCodecs;
+import cql.lexicalparser.exceptions.CQLException;
+import cql.lexicalparser.exceptions.CQLFormatException;
+
+public class TypeCodecsTest {
+
+	private Token token = null;
+
+	@Before
+	public void cleanup() {
+		token = new Token(TokenType.INJECT, "GMT-03");
+	}
+
+	@Test
+	public void builtIn() throws Exception {
+		UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+		Assert.assertEquals("123e4567-e89b-12d3-a456-426614174000", token.format(token, uuid));
+		Assert.assertEquals("1000", token.format(token, new BigDecimal("1E+3")));
+		Assert.assertEquals("-0.25", token.format(token, new BigDecimal("-0.25")));
+		Assert.assertEquals("123456789012345678901234567890",
+				token.format(token, new BigInteger("123456789012345678901234567890")));
+		Assert.assertEquals("'10.0.0.1'", token.format(token, InetAddress.getByName("10.0.0.1")));
+		Assert.assertEquals("'SECONDS'", token.format(token, TimeUnit.SECONDS));
+		Assert.assertEquals("0x00ff1a", token.format(token, new byte[] { 0, (byte) 0xFF, 0x1A }));
+
+		// the position of the buffer does not move
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+		buffer.get();
+		Assert.assertEquals("0x0203", token.format(token, buffer));
+		Assert.assertEquals(1, buffer.position());
+
+		// in the time zone of the token, as a Date
+		Assert.assertEquals("'1969-12-31 21:00:00-0300'", token.format(token, Instant.EPOCH));
+		Assert.assertEquals("'1969-12-31 21:00:00-0300'", token.format(token, new Date(0)));
+		Assert.assertEquals("'1969-12-31 21:00:00-0300'", token.format(token, new java.sql.Date(0)));
+
+		// collections by their interface, with their items in place
+		Assert.assertEquals("[1,'a''b',NULL]", token.format(token, Arrays.asList(1, "a'b", null)));
+		Assert.assertEquals("{'x',0x01}",
+				token.format(token, new LinkedHashSet<>(Arrays.asList("x", new byte[] { 1 }))));
+		Assert.assertEquals("{" + uuid + ":[2]}",
+				token.format(token, Collections.singletonMap(uuid, new ArrayList<>(Arrays.asList(2)))));
+
+		try {
+			token.format(token, new Object());
+			Assert.fail("Formatted an unknown type");
+		} catch (CQLFormatException e) {
+		}
+	}
+
+	@Test
+	public void register() throws CQLException {
+		Assert.assertNull(TypeCodecs.get(StringBuilder.class));
+		Assert.assertNotNull(TypeCodecs.get(TimeUnit.class));
+
+		try {
+			// a codec by interface applies to the classes already looked up
+			TypeCodecs.register(CharSequence.class, (token, value, cql) -> cql.append("'").append(value).append("'"));
+			Assert.assertEquals("'abc'", token.format(token, new StringBuilder("abc")));
+
+			// String keeps its own codec, that escapes
+			Assert.assertEquals("'a''b'", token.format(token, "a'b"));
+
+			TypeCodecs.register(TimeUnit.class, (token, value, cql) -> cql.append(value.toSeconds(1)));
+			Assert.assertEquals("60", token.format(token, TimeUnit.MINUTES));
+		} finally {
+			TypeCodecs.remove(CharSequence.class);
+			TypeCodecs.remove(TimeUnit.class);
+		}
+
+		Assert.assertNull(TypeCodecs.get(StringBuilder.class));
+		Assert.assertEquals("'MINUTES'", token.format(token, TimeUnit.MINUTES));
+	}
+
+}
@@ -0,0 +1,90 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.LexicalContext;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.LexicalParserAnalyzer;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+// parse has no analyzer; parseAnalyzer goes through an analyzer of LITERAL
+// that only calls the rule of another parser, so the difference is the cost
+// of the registry
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class AnalyzerBenchmark {
+
+	// conditions in the WHERE of the statement
+	@Param({ "1", "50" })
+	private int conditions;
+
+	private LexicalParser lexicalParser = null;
+
+	private LexicalParser lexicalParserAnalyzer = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+
+		LexicalParser grammar = new LexicalParser();
+		lexicalParserAnalyzer = new LexicalParser();
+		lexicalParserAnalyzer.setAnalyzer(new LexicalParserAnalyzer() {
+
+			@Override
+			public Token is(LexicalContext context, int offset, boolean required) throws LexicalParserException {
+				return grammar.isLiteral(context, offset, required);
+			}
+
+			@Override
+			public Token check(String text, boolean required) throws LexicalParserException {
+				return grammar.isLiteral(text, required);
+			}
+
+			@Override
+			public TokenType getType() {
+				return TokenType.LITERAL;
+			}
+
+			@Override
+			public boolean isFirstOfGrammar() {
+				return true;
+			}
+		});
+
+		StringBuilder builder = new StringBuilder("UPDATE entity SET a = 1, b = 'b' WHERE");
+		for (int index = 0; index < conditions; index++) {
+			builder.append((index == 0) ? " " : " AND ").append("field").append(index).append(" = ").append(index);
+		}
+		cql = builder.toString();
+	}
+
+	@Benchmark
+	public Token parse() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	@Benchmark
+	public Token parseAnalyzer() throws LexicalParserException {
+		return lexicalParserAnalyzer.isCQL(cql);
+	}
+}
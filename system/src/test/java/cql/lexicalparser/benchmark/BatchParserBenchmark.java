@@ -0,0 +1,73 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.lexicalparser.BatchParser;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.ParseResult;
+
+// a batch of statements over a pool of each size; the speedup is bounded by
+// the cores of the machine
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class BatchParserBenchmark {
+
+	@Param({ "1", "2", "4", "8", "16" })
+	private int threads;
+
+	// statements in the batch
+	@Param({ "1000" })
+	private int statements;
+
+	private ForkJoinPool pool = null;
+
+	private BatchParser batchParser = null;
+
+	private List<String> cqls = null;
+
+	@Setup
+	public void setup() {
+		pool = new ForkJoinPool(threads);
+		batchParser = new BatchParser(new LexicalParser(), pool, threads);
+
+		cqls = new ArrayList<>(statements);
+		for (int index = 0; index < statements; index++) {
+			StringBuilder builder = new StringBuilder("SELECT id, name FROM keyspace.entity WHERE");
+			for (int condition = 0; condition <= index % 10; condition++) {
+				builder.append((condition == 0) ? " " : " AND ").append("field").append(condition).append(" = ")
+						.append(index);
+			}
+			cqls.add(builder.toString());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<ParseResult> parseAll() {
+		return batchParser.parseAll(cqls);
+	}
+}
@@ -0,0 +1,64 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalContext;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharacterClassBenchmark {
+
+	// length of the identifier and of the run of spaces
+	@Param({ "8", "64", "1024" })
+	private int length;
+
+	private LexicalParser lexicalParser = null;
+
+	private LexicalContext identifier = null;
+
+	private LexicalContext spaces = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+
+		StringBuilder name = new StringBuilder();
+		StringBuilder blank = new StringBuilder();
+		for (int index = 0; index < length; index++) {
+			name.append((char) ('a' + index % 26));
+			blank.append((index % 8 == 7) ? '\n' : ' ');
+		}
+
+		identifier = new LexicalContext(name + " = ?");
+		spaces = new LexicalContext(blank + "x");
+	}
+
+	@Benchmark
+	public Token isChars() throws LexicalParserException {
+		return lexicalParser.isChars(identifier, 0, false);
+	}
+
+	@Benchmark
+	public Token isSpaces() throws LexicalParserException {
+		return lexicalParser.isSpaces(spaces, 0, false);
+	}
+}
@@ -0,0 +1,65 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateTableBenchmark {
+
+	@Param({ "8", "64", "256" })
+	private int columns;
+
+	private LexicalParser lexicalParser = null;
+
+	private LexicalParser columnParser = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+		columnParser = new LexicalParser();
+		columnParser.setColumnDefinitions(true);
+		cql = createTable(columns);
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	@Benchmark
+	public Token isCQLColumnDefinitions() throws LexicalParserException {
+		return columnParser.isCQL(cql);
+	}
+
+	public static String createTable(int columns) {
+		StringBuilder cql = new StringBuilder("CREATE TABLE IF NOT EXISTS test.migration (id uuid");
+		for (int index = 0; index < columns; index++) {
+			cql.append(", field").append(index).append(index % 2 == 0 ? " text" : " map<text, frozen<list<int>>>");
+		}
+		cql.append(", PRIMARY KEY ((id), field0)) WITH compaction = {'class' : 'LeveledCompactionStrategy',")
+				.append(" 'sstable_size_in_mb' : 160} AND comment = 'migration table' AND gc_grace_seconds = 864000;");
+		return cql.toString();
+	}
+}
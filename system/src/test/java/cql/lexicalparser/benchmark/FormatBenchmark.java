@@ -0,0 +1,52 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.exceptions.CQLFormatException;
+
+// formats values of the types at the start and at the end of the old
+// instanceof chain
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class FormatBenchmark {
+
+	private Token token = new Token(TokenType.INJECT, "GMT-03");
+
+	private Date date = new Date(1466640000000L);
+
+	private List<Object> list = Arrays.asList("text", 12, 3.5, "it's");
+
+	@Benchmark
+	public String string() throws CQLFormatException {
+		return token.format(token, "text");
+	}
+
+	@Benchmark
+	public String date() throws CQLFormatException {
+		return token.format(token, date);
+	}
+
+	@Benchmark
+	public String list() throws CQLFormatException {
+		return token.format(token, list);
+	}
+}
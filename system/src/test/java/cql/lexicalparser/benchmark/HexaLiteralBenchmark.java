@@ -0,0 +1,64 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.CQLFormatException;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexaLiteralBenchmark {
+
+	// blob size in KB
+	@Param({ "1", "64", "512" })
+	private int size;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	private Token blob = null;
+
+	@Setup
+	public void setup() throws LexicalParserException {
+		lexicalParser = new LexicalParser();
+		cql = "UPDATE test SET data = " + blob(size * 1024) + " WHERE key = 1234567890";
+		blob = lexicalParser.isHexa(blob(size * 1024), true);
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	@Benchmark
+	public byte[] toBytes() throws CQLFormatException {
+		return blob.toBytes();
+	}
+
+	public static String blob(int length) {
+		StringBuilder blob = new StringBuilder("0x");
+		for (int index = 0; index < length; index++) {
+			blob.append(Character.forDigit((index >> 4) & 0xf, 16)).append(Character.forDigit(index & 0xf, 16));
+		}
+		return blob.toString();
+	}
+}
@@ -0,0 +1,76 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+// run with -prof gc to see the allocation rate by statement
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordBenchmark {
+
+	@Param({ "select", "insert", "update", "delete" })
+	private String statement;
+
+	// number of conditions in the WHERE
+	@Param({ "1", "50" })
+	private int conditions;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+
+		StringBuilder where = new StringBuilder(" WHERE id = ?");
+		for (int index = 1; index < conditions; index++) {
+			where.append((index % 2 == 0) ? " AND " : " OR ").append("field").append(index).append(" = ")
+					.append((index % 3 == 0) ? "true" : "'value'");
+		}
+
+		switch (statement) {
+		case "select":
+			cql = "SELECT id, name, email FROM users" + where + " LIMIT 100 ALLOW FILTERING";
+			break;
+		case "insert":
+			StringBuilder fields = new StringBuilder("id");
+			StringBuilder values = new StringBuilder("?");
+			for (int index = 1; index < conditions; index++) {
+				fields.append(", field").append(index);
+				values.append(", false");
+			}
+			cql = "INSERT INTO users (" + fields + ") VALUES (" + values + ") USING TTL 3600";
+			break;
+		case "update":
+			cql = "UPDATE users SET name = 'x', active = true" + where;
+			break;
+		default:
+			cql = "DELETE FROM users" + where;
+		}
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+}
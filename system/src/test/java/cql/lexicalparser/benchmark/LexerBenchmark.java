@@ -0,0 +1,72 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.Lexemes;
+import cql.lexicalparser.Lexer;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class LexerBenchmark {
+
+	// conditions in the WHERE of the statement
+	@Param({ "1", "50" })
+	private int conditions;
+
+	private Lexer lexer = null;
+
+	private LexicalParser lexicalParser = null;
+
+	private LexicalParser lexicalParserLexer = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexer = new Lexer();
+		lexicalParser = new LexicalParser();
+		lexicalParserLexer = new LexicalParser();
+		lexicalParserLexer.setLexer(true);
+
+		StringBuilder builder = new StringBuilder("SELECT id, name, \"Value\" FROM keyspace.entity WHERE");
+		for (int index = 0; index < conditions; index++) {
+			builder.append((index == 0) ? " " : " AND ").append("field").append(index).append(" = 'text ")
+					.append(index).append("'");
+		}
+		cql = builder.toString();
+	}
+
+	@Benchmark
+	public Lexemes tokenize() {
+		return lexer.tokenize(cql);
+	}
+
+	@Benchmark
+	public Token parse() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	@Benchmark
+	public Token parseLexer() throws LexicalParserException {
+		return lexicalParserLexer.isCQL(cql);
+	}
+}
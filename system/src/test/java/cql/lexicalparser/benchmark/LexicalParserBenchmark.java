@@ -0,0 +1,92 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalContext;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexicalParserBenchmark {
+
+	@Param({ "8", "64", "256" })
+	private int columns;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	private LexicalContext script = null;
+
+	private int offset = 0;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+		cql = insert(columns);
+
+		String use = "USE test;";
+		script = new LexicalContext(use + cql);
+		offset = use.length();
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	@Benchmark
+	public Token isCQLAtOffset() throws LexicalParserException {
+		return lexicalParser.isCQL(script, offset);
+	}
+
+	@Benchmark
+	public Token isCQLMemoized() throws LexicalParserException {
+		return lexicalParser.isCQL(new LexicalContext(cql, true), 0);
+	}
+
+	public static String insert(int columns) {
+		StringBuilder fields = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+
+		for (int index = 0; index < columns; index++) {
+			if (index > 0) {
+				fields.append(",");
+				values.append(",");
+			}
+			fields.append("field").append(index);
+
+			switch (index % 3) {
+			case 0:
+				values.append("'value ").append(index).append("'");
+				break;
+			case 1:
+				values.append("[").append(index).append(",?,'item']");
+				break;
+			default:
+				values.append("{'key':").append(index).append(", 'other':?}");
+				break;
+			}
+		}
+
+		return "INSERT INTO test (" + fields + ") VALUES (" + values + ")";
+	}
+}
@@ -0,0 +1,70 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class ListRuleBenchmark {
+
+	// number of columns and conditions
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private LexicalParser lexicalParser = null;
+
+	private String insert = null;
+
+	private String select = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+
+		StringBuilder fields = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		StringBuilder conditions = new StringBuilder();
+		for (int index = 0; index < size; index++) {
+			if (index > 0) {
+				fields.append(", ");
+				values.append(", ");
+				conditions.append(" AND ");
+			}
+			fields.append("field").append(index);
+			values.append("?");
+			conditions.append("field").append(index).append(" = ?");
+		}
+
+		insert = "INSERT INTO test (" + fields + ") VALUES (" + values + ")";
+		select = "SELECT * FROM test WHERE " + conditions;
+	}
+
+	@Benchmark
+	public Token insert() throws LexicalParserException {
+		return lexicalParser.isCQL(insert);
+	}
+
+	@Benchmark
+	public Token select() throws LexicalParserException {
+		return lexicalParser.isCQL(select);
+	}
+}
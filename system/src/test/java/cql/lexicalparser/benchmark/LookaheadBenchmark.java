@@ -0,0 +1,61 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookaheadBenchmark {
+
+	@Param({ "true", "false" })
+	private boolean lookahead;
+
+	@Param({ "select", "insert", "update" })
+	private String statement;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+		lexicalParser.setLookahead(lookahead);
+
+		switch (statement) {
+		case "select":
+			cql = "SELECT id, name, count(*) FROM users WHERE id = ? AND age > 18 AND name = 'x' LIMIT 10";
+			break;
+		case "insert":
+			cql = "INSERT INTO users (id, name, tags, attributes, score) VALUES (?, 'name', ['a', 'b'], "
+					+ "{'k1': 'v1', 'k2': 2}, 0x1f)";
+			break;
+		default:
+			cql = "UPDATE users SET name = 'x', tags = ['a'], score = 10 WHERE id = ? AND version = 3";
+		}
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+}
@@ -0,0 +1,59 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class MapLiteralBenchmark {
+
+	// number of map entries
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	private int size;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+		cql = "INSERT INTO test (id, attributes) VALUES (?, " + map(size) + ")";
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	// map<text,text> literal with the given number of entries
+	public static String map(int size) {
+		StringBuilder map = new StringBuilder("{");
+		for (int index = 0; index < size; index++) {
+			if (index > 0) {
+				map.append(", ");
+			}
+			map.append("'key").append(index).append("': 'value").append(index).append("'");
+		}
+		return map.append("}").toString();
+	}
+}
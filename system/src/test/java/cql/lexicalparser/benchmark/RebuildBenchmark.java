@@ -0,0 +1,77 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.TokenType;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.CQLException;
+
+// changes the value of the last condition of a parsed UPDATE and rebuilds the
+// root, or writes the tree to a buffer reused between calls
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class RebuildBenchmark {
+
+	// conditions in the WHERE of the statement, 200 is about 5 KB
+	@Param({ "10", "200" })
+	private int conditions;
+
+	private Token tokenCQL = null;
+
+	private Token inject = null;
+
+	private int value = 0;
+
+	private StringBuilder buffer = new StringBuilder();
+
+	@Setup
+	public void setup() throws CQLException {
+		StringBuilder builder = new StringBuilder("UPDATE entity SET a = 1 WHERE");
+		for (int index = 0; index < conditions; index++) {
+			builder.append((index == 0) ? " " : " AND ").append("field").append(index).append(" = ?");
+		}
+		tokenCQL = new LexicalParser().isCQL(builder.toString());
+		tokenCQL.rebuild();
+		inject = last(tokenCQL);
+	}
+
+	private Token last(Token token) {
+		Token found = (token.getType() == TokenType.INJECT) ? token : null;
+		for (Token subToken : token.getSubTokens()) {
+			Token inject = last(subToken);
+			found = (inject == null) ? found : inject;
+		}
+		return found;
+	}
+
+	@Benchmark
+	public String rebuild() {
+		inject.setContent(String.valueOf(value++ & 0xFF));
+		tokenCQL.rebuild();
+		return tokenCQL.getContent();
+	}
+
+	@Benchmark
+	public StringBuilder writeTo() {
+		inject.setContent(String.valueOf(value++ & 0xFF));
+		buffer.setLength(0);
+		return tokenCQL.writeTo(buffer);
+	}
+}
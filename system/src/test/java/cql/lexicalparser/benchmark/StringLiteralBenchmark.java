@@ -0,0 +1,60 @@
+package cql.lexicalparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.LexicalParserException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringLiteralBenchmark {
+
+	// literal size in KB
+	@Param({ "1", "50", "1024", "4096" })
+	private int size;
+
+	private LexicalParser lexicalParser = null;
+
+	private String cql = null;
+
+	@Setup
+	public void setup() {
+		lexicalParser = new LexicalParser();
+		cql = "INSERT INTO test (field) VALUES ('" + json(size * 1024) + "')";
+	}
+
+	@Benchmark
+	public Token isCQL() throws LexicalParserException {
+		return lexicalParser.isCQL(cql);
+	}
+
+	// json like text with escaped single quotes
+	public static String json(int length) {
+		StringBuilder json = new StringBuilder("{");
+		for (int index = 0; json.length() < length; index++) {
+			if (index > 0) {
+				json.append(", ");
+			}
+			json.append("''key").append(index).append("'': {''name'':''it''''s ").append(index)
+					.append("'', \"values\": [1, 2, 3]}");
+		}
+		return json.append("}").toString();
+	}
+}
@@ -0,0 +1,99 @@
+package cql.lexicalparser.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cql.Binder;
+import cql.Template;
+import cql.Token;
+import cql.lexicalparser.LexicalParser;
+import cql.lexicalparser.exceptions.CQLException;
+
+// binds an INSERT of k columns on a parsed tree, with a replace by value or a
+// single bindAll, and with a template compiled once; the bytes for the wire
+// through getBytes or written straight to a direct buffer
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class TemplateBenchmark {
+
+	// columns of the INSERT
+	@Param({ "4", "32" })
+	private int columns;
+
+	private LexicalParser lexicalParser = null;
+
+	private Template template = null;
+
+	private String cql = null;
+
+	private Object[] values = null;
+
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+
+	@Setup
+	public void setup() throws CQLException {
+		lexicalParser = new LexicalParser();
+
+		StringBuilder fields = new StringBuilder();
+		StringBuilder injects = new StringBuilder();
+		values = new Object[columns];
+		for (int index = 0; index < columns; index++) {
+			fields.append((index == 0) ? "" : ",").append("field").append(index);
+			injects.append((index == 0) ? "" : ",").append("?");
+			values[index] = (index % 2 == 0) ? (Object) ("text " + index) : (Object) index;
+		}
+		cql = "INSERT INTO entity (" + fields + ") VALUES (" + injects + ")";
+		template = Template.compile(lexicalParser.isCQL(cql));
+	}
+
+	@Benchmark
+	public String replace() throws CQLException {
+		Token token = lexicalParser.isCQL(cql);
+		for (int index = 0; index < values.length; index++) {
+			token.replace(values[index], index);
+		}
+		return token.getContent();
+	}
+
+	@Benchmark
+	public String bindAll() throws CQLException {
+		return lexicalParser.isCQL(cql).bindAll(values);
+	}
+
+	@Benchmark
+	public String bind() throws CQLException {
+		return template.bind(values);
+	}
+
+	@Benchmark
+	public byte[] bindBytes() throws CQLException {
+		return template.bind(values).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public ByteBuffer writeTo() throws CQLException {
+		Binder binder = template.binder();
+		for (int index = 0; index < values.length; index++) {
+			binder.bind(index, values[index]);
+		}
+		buffer.clear();
+		return binder.writeTo(buffer);
+	}
+}
@@ -0,0 +1,621 @@
+package cql.lexicalparser.grammar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Rules of doc/BNF.txt and their FIRST sets.
+ *
+ * A rule starts with <NAME>::= at the beginning of a line and goes on up to a
+ * blank line or its Notes. The right side is read with the notation of the
+ * document: <NAME> for a rule, [ ] for an option, ( ) for a group, | between
+ * alternatives, ^ for a not token that does not consume, u( ) for a case
+ * insensitive part, ? for any character, "text" or a bare word for a literal
+ * and a-z for a range of characters, where a-Z stands for any letter. A
+ * bracket that opens right before a | or the end of the rule, or that closes
+ * no group, is the character itself, as in <SYMBOL>.
+ *
+ * Character sets are BitSets of the ASCII characters, with the bit UNICODE
+ * standing for the characters outside ASCII, that only letters and ? accept.
+ *
+ * */
+
+public class Grammar {
+
+	static final int UNICODE = 128;
+
+	private static final Pattern RULE = Pattern.compile("^<([^<>]+)>\\s*::\\s*=(.*)$");
+
+	private static final Pattern NAME = Pattern.compile("<([A-Za-z_ \\-]+)>");
+
+	private static final String STOP = " \t()[]|^\"<";
+
+	private final Map<String, Node> rules = new LinkedHashMap<>();
+
+	private final Map<String, String> texts = new LinkedHashMap<>();
+
+	private final Map<String, BitSet> firsts = new HashMap<>();
+
+	private final Map<String, BitSet> ones = new HashMap<>();
+
+	private final Set<String> nullables = new HashSet<>();
+
+	public static Grammar read(Path path) throws IOException {
+		return new Grammar(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+	}
+
+	public Grammar(String bnf) {
+		String name = null;
+		StringBuilder text = new StringBuilder();
+
+		for (String line : bnf.split("\r?\n")) {
+			Matcher matcher = RULE.matcher(line);
+			if (matcher.matches()) {
+				add(name, text);
+				name = matcher.group(1).trim();
+				text.setLength(0);
+				text.append(matcher.group(2).trim());
+				continue;
+			}
+
+			String trimmed = line.trim();
+			if (trimmed.isEmpty() || trimmed.startsWith("Notes:") || trimmed.startsWith("Obs:")) {
+				add(name, text);
+				name = null;
+				continue;
+			}
+
+			if (name != null) {
+				text.append(' ').append(trimmed);
+			}
+		}
+		add(name, text);
+	}
+
+	private void add(String name, StringBuilder text) {
+		if (name == null) {
+			return;
+		}
+		if (rules.containsKey(name)) {
+			throw new IllegalArgumentException("Rule <" + name + "> declared twice");
+		}
+
+		String rule = text.toString().replaceAll("\\s+", " ").trim();
+		texts.put(name, rule);
+		rules.put(name, new Reader(name, rule).read());
+	}
+
+	public Set<String> getRules() {
+		return rules.keySet();
+	}
+
+	// right side of the rule as written, in a single line
+	public String getText(String rule) {
+		return texts.get(rule);
+	}
+
+	// the alternatives of the rule, or of the group it starts with, each one
+	// named by the rule it starts with
+	public Map<String, BitSet> getAlternatives(String rule) {
+		Node node = rule(rule);
+		if (node instanceof Sequence) {
+			node = ((Sequence) node).items.get(0);
+		}
+		if (!(node instanceof Alternation)) {
+			throw new IllegalArgumentException("Rule <" + rule + "> is not an alternation");
+		}
+
+		compute(rule);
+
+		Map<String, BitSet> alternatives = new LinkedHashMap<>();
+		for (Node alternative : ((Alternation) node).items) {
+			Node start = (alternative instanceof Sequence) ? ((Sequence) alternative).items.get(0) : alternative;
+			if (!(start instanceof Rule)) {
+				throw new IllegalArgumentException("An alternative of <" + rule + "> does not start with a rule");
+			}
+			alternatives.put(((Rule) start).name, alternative.first(this));
+		}
+		return alternatives;
+	}
+
+	public BitSet getFirst(String rule) {
+		compute(rule);
+		return (BitSet) firsts.get(rule).clone();
+	}
+
+	public boolean isNullable(String rule) {
+		compute(rule);
+		return nullables.contains(rule);
+	}
+
+	private Node rule(String name) {
+		Node node = rules.get(name);
+		if (node == null) {
+			throw new IllegalArgumentException("Undefined rule <" + name + ">");
+		}
+		return node;
+	}
+
+	// nullable rules, single character matches and FIRST sets, up to a fixed
+	// point, of the rules reachable from the given one
+	private void compute(String start) {
+		if (firsts.containsKey(start)) {
+			return;
+		}
+
+		Set<String> reachable = new HashSet<>();
+		Deque<String> pending = new ArrayDeque<>();
+		pending.add(start);
+		while (!pending.isEmpty()) {
+			String name = pending.poll();
+			if (reachable.add(name)) {
+				rule(name).references(pending);
+			}
+		}
+
+		for (String name : reachable) {
+			firsts.putIfAbsent(name, new BitSet());
+			ones.putIfAbsent(name, new BitSet());
+		}
+
+		// the FIRST sets take out the single character matches of the not
+		// tokens, so these are complete before
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (String name : reachable) {
+				Node node = rules.get(name);
+				changed |= merge(ones.get(name), node.one(this));
+				if (node.nullable(this)) {
+					changed |= nullables.add(name);
+				}
+			}
+		}
+
+		changed = true;
+		while (changed) {
+			changed = false;
+			for (String name : reachable) {
+				changed |= merge(firsts.get(name), rules.get(name).first(this));
+			}
+		}
+	}
+
+	private static boolean merge(BitSet target, BitSet source) {
+		int cardinality = target.cardinality();
+		target.or(source);
+		return target.cardinality() != cardinality;
+	}
+
+	private static BitSet characters(char character, boolean insensitive) {
+		BitSet set = new BitSet();
+		add(set, character);
+		if (insensitive) {
+			add(set, Character.toUpperCase(character));
+			add(set, Character.toLowerCase(character));
+		}
+		return set;
+	}
+
+	private static void add(BitSet set, char character) {
+		set.set(Math.min(character, UNICODE));
+	}
+
+	private abstract static class Node {
+
+		abstract boolean nullable(Grammar grammar);
+
+		abstract BitSet first(Grammar grammar);
+
+		// characters that alone are a whole match
+		abstract BitSet one(Grammar grammar);
+
+		void references(Deque<String> names) {
+		}
+	}
+
+	private static class Characters extends Node {
+
+		private final BitSet first;
+
+		private final boolean single;
+
+		Characters(BitSet first, boolean single) {
+			this.first = first;
+			this.single = single;
+		}
+
+		boolean nullable(Grammar grammar) {
+			return first.isEmpty();
+		}
+
+		BitSet first(Grammar grammar) {
+			return (BitSet) first.clone();
+		}
+
+		BitSet one(Grammar grammar) {
+			return single ? (BitSet) first.clone() : new BitSet();
+		}
+	}
+
+	private static class Rule extends Node {
+
+		private final String name;
+
+		Rule(String name) {
+			this.name = name;
+		}
+
+		boolean nullable(Grammar grammar) {
+			return grammar.nullables.contains(name);
+		}
+
+		BitSet first(Grammar grammar) {
+			return (BitSet) grammar.firsts.get(name).clone();
+		}
+
+		BitSet one(Grammar grammar) {
+			return (BitSet) grammar.ones.get(name).clone();
+		}
+
+		void references(Deque<String> names) {
+			names.add(name);
+		}
+	}
+
+	// ^<TOKEN>: matches nothing and rules out, at the same position, the
+	// characters that alone match the token
+	private static class Not extends Node {
+
+		private final Node node;
+
+		Not(Node node) {
+			this.node = node;
+		}
+
+		boolean nullable(Grammar grammar) {
+			return true;
+		}
+
+		BitSet first(Grammar grammar) {
+			return new BitSet();
+		}
+
+		BitSet one(Grammar grammar) {
+			return new BitSet();
+		}
+
+		void references(Deque<String> names) {
+			node.references(names);
+		}
+	}
+
+	private static class Option extends Node {
+
+		private final Node node;
+
+		Option(Node node) {
+			this.node = node;
+		}
+
+		boolean nullable(Grammar grammar) {
+			return true;
+		}
+
+		BitSet first(Grammar grammar) {
+			return node.first(grammar);
+		}
+
+		BitSet one(Grammar grammar) {
+			return node.one(grammar);
+		}
+
+		void references(Deque<String> names) {
+			node.references(names);
+		}
+	}
+
+	private static class Alternation extends Node {
+
+		private final List<Node> items;
+
+		Alternation(List<Node> items) {
+			this.items = items;
+		}
+
+		boolean nullable(Grammar grammar) {
+			for (Node item : items) {
+				if (item.nullable(grammar)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		BitSet first(Grammar grammar) {
+			BitSet first = new BitSet();
+			for (Node item : items) {
+				first.or(item.first(grammar));
+			}
+			return first;
+		}
+
+		BitSet one(Grammar grammar) {
+			BitSet one = new BitSet();
+			for (Node item : items) {
+				one.or(item.one(grammar));
+			}
+			return one;
+		}
+
+		void references(Deque<String> names) {
+			for (Node item : items) {
+				item.references(names);
+			}
+		}
+	}
+
+	private static class Sequence extends Node {
+
+		private final List<Node> items;
+
+		Sequence(List<Node> items) {
+			this.items = items;
+		}
+
+		boolean nullable(Grammar grammar) {
+			for (Node item : items) {
+				if (!item.nullable(grammar)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		BitSet first(Grammar grammar) {
+			BitSet first = new BitSet();
+			BitSet excluded = new BitSet();
+			for (Node item : items) {
+				if (item instanceof Not) {
+					excluded.or(((Not) item).node.one(grammar));
+					continue;
+				}
+
+				BitSet itemFirst = item.first(grammar);
+				itemFirst.andNot(excluded);
+				first.or(itemFirst);
+				if (!item.nullable(grammar)) {
+					break;
+				}
+			}
+			return first;
+		}
+
+		BitSet one(Grammar grammar) {
+			BitSet one = new BitSet();
+			for (int index = 0; index < items.size(); index++) {
+				boolean others = true;
+				for (int other = 0; other < items.size() && others; other++) {
+					others = other == index || items.get(other).nullable(grammar);
+				}
+				if (others) {
+					one.or(items.get(index).one(grammar));
+				}
+			}
+			return one;
+		}
+
+		void references(Deque<String> names) {
+			for (Node item : items) {
+				item.references(names);
+			}
+		}
+	}
+
+	// recursive descent over the right side of a rule
+	private static class Reader {
+
+		private final String rule;
+
+		private final String text;
+
+		private int index = 0;
+
+		// open groups, with u for the case insensitive ones
+		private final Deque<Character> groups = new ArrayDeque<>();
+
+		private int insensitive = 0;
+
+		Reader(String rule, String text) {
+			this.rule = rule;
+			this.text = text;
+		}
+
+		Node read() {
+			Node node = alternation();
+			if (index < text.length()) {
+				throw error("unexpected " + text.charAt(index));
+			}
+			return node;
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException("Invalid rule <" + rule + ">, " + message + " at " + index);
+		}
+
+		private Node alternation() {
+			List<Node> items = new ArrayList<>();
+			items.add(sequence());
+			while (skipSpaces() && text.charAt(index) == '|') {
+				index++;
+				items.add(sequence());
+			}
+			return (items.size() == 1) ? items.get(0) : new Alternation(items);
+		}
+
+		private Node sequence() {
+			List<Node> items = new ArrayList<>();
+			while (skipSpaces() && text.charAt(index) != '|' && !isClose()) {
+				items.add(item());
+			}
+			return (items.size() == 1) ? items.get(0) : new Sequence(items);
+		}
+
+		private Node item() {
+			char character = text.charAt(index);
+
+			if (character == '^') {
+				index++;
+				skipSpaces();
+				return new Not(item());
+			}
+
+			if (character == 'u' && text.startsWith("u(", index)) {
+				index += 2;
+				return group('u');
+			}
+
+			if ((character == '(' || character == '[') && !isCharacter()) {
+				index++;
+				return group(character);
+			}
+
+			if (character == '<') {
+				Matcher matcher = NAME.matcher(text);
+				if (matcher.find(index) && matcher.start() == index) {
+					index = matcher.end();
+					return new Rule(matcher.group(1).trim());
+				}
+			}
+
+			if (character == '?') {
+				index++;
+				BitSet any = new BitSet();
+				any.set(0, UNICODE + 1);
+				return new Characters(any, true);
+			}
+
+			if (character == '"') {
+				int end = text.indexOf('"', index + 1);
+				if (end > 0) {
+					String literal = text.substring(index + 1, end).replace("/n", "\n");
+					index = end + 1;
+					return literal(literal);
+				}
+			}
+
+			int start = index;
+			index++;
+			while (index < text.length() && STOP.indexOf(text.charAt(index)) < 0) {
+				index++;
+			}
+			String word = text.substring(start, index);
+
+			if (word.length() >= 3 && word.charAt(1) == '-') {
+				return range(word);
+			}
+			return literal(word);
+		}
+
+		private Node group(char open) {
+			groups.push(open);
+			if (open == 'u') {
+				insensitive++;
+			}
+
+			Node node = alternation();
+			if (!skipSpaces() || !isClose()) {
+				throw error("group not closed");
+			}
+			index++;
+
+			groups.pop();
+			if (open == 'u') {
+				insensitive--;
+			}
+
+			return (open == '[') ? new Option(node) : node;
+		}
+
+		private Node literal(String literal) {
+			if (literal.isEmpty()) {
+				return new Characters(new BitSet(), true);
+			}
+			return new Characters(characters(literal.charAt(0), insensitive > 0), literal.length() == 1);
+		}
+
+		// a-Z0-9_: ranges and single characters
+		private Node range(String word) {
+			BitSet set = new BitSet();
+			for (int position = 0; position < word.length(); position++) {
+				char from = word.charAt(position);
+				if (position + 2 < word.length() && word.charAt(position + 1) == '-') {
+					char to = word.charAt(position + 2);
+					if (from == 'a' && to == 'Z') {
+						set.or(range('a', 'z'));
+						set.or(range('A', 'Z'));
+						set.set(UNICODE);
+					} else {
+						set.or(range(from, to));
+					}
+					position += 2;
+					continue;
+				}
+				set.or(characters(from, false));
+			}
+
+			if (insensitive > 0) {
+				for (int character = set.nextSetBit(0); character >= 0 && character < UNICODE; character = set
+						.nextSetBit(character + 1)) {
+					set.or(characters((char) character, true));
+				}
+			}
+			return new Characters(set, true);
+		}
+
+		private BitSet range(char from, char to) {
+			BitSet set = new BitSet();
+			set.set(from, to + 1);
+			return set;
+		}
+
+		// whether the bracket at the index is a character of the language, and
+		// not a group
+		private boolean isCharacter() {
+			int next = index + 1;
+			while (next < text.length() && text.charAt(next) == ' ') {
+				next++;
+			}
+			return next == text.length() || text.charAt(next) == '|';
+		}
+
+		private boolean isClose() {
+			char character = text.charAt(index);
+			if (groups.isEmpty() || (character != ')' && character != ']')) {
+				return false;
+			}
+			return (character == ']') == (groups.peek() == '[');
+		}
+
+		private boolean skipSpaces() {
+			while (index < text.length() && text.charAt(index) == ' ') {
+				index++;
+			}
+			return index < text.length();
+		}
+	}
+}
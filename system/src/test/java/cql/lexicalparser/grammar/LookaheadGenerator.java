@@ -0,0 +1,137 @@
+package cql.lexicalparser.grammar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.Map;
+
+import cql.TokenType;
+
+/*
+ * Generates cql/lexicalparser/LookaheadTables.java, the Lookahead tables of
+ * the alternations of the LexicalParser, from the FIRST sets of doc/BNF.txt.
+ *
+ * The alternatives of each table are the ones of the rule, in the order the
+ * grammar lists them, which is the order the parser tries them. Each one is
+ * named by the TokenType of the rule it starts with.
+ *
+ * Run it after changing doc/BNF.txt with the profile grammar, from the
+ * system module, and build again with the new tables:
+ *
+ * mvn -Pgrammar process-test-classes
+ *
+ * It takes the paths of the grammar and of the output as arguments, by
+ * default the ones of the module, resolved from the basedir property that
+ * Maven sets, or from the working directory without it.
+ *
+ * */
+
+public class LookaheadGenerator {
+
+	static final String BNF = "../doc/BNF.txt";
+
+	static final String OUTPUT = "src/main/java/cql/lexicalparser/LookaheadTables.java";
+
+	// rules of the alternations that the parser predicts
+	static final String[] ALTERNATIONS = { "COMMAND", "CONDITIONAL COMMAND", "LITERAL", "FIELD VALUE", "ARRAY",
+			"ITEM NAME", "KEY", "END COMMON COMMAND", "JOIN CONDITION", "BOOLEAN" };
+
+	private static final int WIDTH = 80;
+
+	public static void main(String[] args) throws IOException {
+		Path bnf = (args.length > 0) ? Paths.get(args[0]) : module(BNF);
+		Path output = (args.length > 1) ? Paths.get(args[1]) : module(OUTPUT);
+
+		String source = generate(Grammar.read(bnf));
+		Files.write(output, source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// path of the module, the system directory
+	static Path module(String path) {
+		return Paths.get(System.getProperty("basedir", ".")).resolve(path);
+	}
+
+	public static String generate(Grammar grammar) {
+		StringBuilder source = new StringBuilder();
+		source.append("package cql.lexicalparser;\n\n");
+		source.append("import cql.TokenType;\n\n");
+		source.append("/*\n");
+		source.append(" * Lookahead tables of the alternations of doc/BNF.txt.\n");
+		source.append(" *\n");
+		source.append(" * Generated by cql.lexicalparser.grammar.LookaheadGenerator from the FIRST\n");
+		source.append(" * sets of the grammar, do not edit. Run it again after changing the grammar,\n");
+		source.append(" * LookaheadGeneratorTest fails while this file is out of date.\n");
+		source.append(" *\n");
+		source.append(" * */\n\n");
+		source.append("final class LookaheadTables {\n\n");
+
+		for (String rule : ALTERNATIONS) {
+			comment(source, "<" + rule + ">::=" + grammar.getText(rule));
+			source.append("\tstatic final Lookahead ").append(field(rule)).append(" = new Lookahead()");
+
+			for (Map.Entry<String, BitSet> alternative : grammar.getAlternatives(rule).entrySet()) {
+				BitSet first = alternative.getValue();
+				source.append("\n\t\t\t.alternative(TokenType.").append(type(alternative.getKey()).name());
+				source.append(", \"").append(characters(first)).append('"');
+				if (first.get(Grammar.UNICODE)) {
+					source.append(", true");
+				}
+				source.append(')');
+			}
+			source.append(";\n\n");
+		}
+
+		source.append("\tprivate LookaheadTables() {\n");
+		source.append("\t}\n\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static String field(String rule) {
+		return rule.replace(' ', '_').replace('-', '_');
+	}
+
+	static TokenType type(String rule) {
+		if (rule.equals("HEXA")) {
+			return TokenType.HEX;
+		}
+		return TokenType.valueOf(field(rule));
+	}
+
+	private static String characters(BitSet first) {
+		StringBuilder characters = new StringBuilder();
+		for (int character = first.nextSetBit(0); character >= 0
+				&& character < Grammar.UNICODE; character = first.nextSetBit(character + 1)) {
+			if (character == '"' || character == '\\') {
+				characters.append('\\');
+			}
+			if (character < ' ') {
+				// octal, a unicode escape of a new line would end the literal
+				characters.append(String.format("\\%03o", character));
+				continue;
+			}
+			characters.append((char) character);
+		}
+		return characters.toString();
+	}
+
+	// the rule as a comment, wrapped at the width of the sources
+	private static void comment(StringBuilder source, String text) {
+		StringBuilder line = new StringBuilder("\t//");
+		int width = 4;
+		for (String word : text.split(" ")) {
+			if (width + 1 + word.length() > WIDTH && width > 4) {
+				source.append(line).append('\n');
+				line.setLength(0);
+				line.append("\t//");
+				width = 4;
+			}
+			line.append(' ').append(word);
+			width += 1 + word.length();
+		}
+		source.append(line).append('\n');
+	}
+}
@@ -0,0 +1,86 @@
+package cql.lexicalparser.grammar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LookaheadGeneratorTest {
+
+	// the tables in the sources are the ones of the grammar, so a change of
+	// doc/BNF.txt without running the profile grammar fails the build
+	@Test
+	public void generatedTables() throws IOException {
+		String generated = LookaheadGenerator.generate(Grammar.read(LookaheadGenerator.module(LookaheadGenerator.BNF)));
+		String source = new String(Files.readAllBytes(LookaheadGenerator.module(LookaheadGenerator.OUTPUT)), StandardCharsets.UTF_8);
+		Assert.assertEquals("LookaheadTables.java is out of date, run LookaheadGenerator", generated,
+				source.replace("\r\n", "\n"));
+	}
+
+	@Test
+	public void first() throws IOException {
+		Grammar grammar = Grammar.read(LookaheadGenerator.module(LookaheadGenerator.BNF));
+
+		// ^<NUMBER> <CHARS>
+		BitSet first = grammar.getFirst("ITEM NAME CASE INSENSITIVE");
+		Assert.assertTrue(first.get('a'));
+		Assert.assertTrue(first.get('_'));
+		Assert.assertFalse(first.get('1'));
+		Assert.assertTrue(first.get(Grammar.UNICODE));
+
+		// u(0X)
+		Assert.assertEquals(characters("0"), grammar.getFirst("START HEX"));
+		Assert.assertEquals(characters("Tt"), grammar.getFirst("TRUE"));
+		Assert.assertEquals(characters(" \n"), grammar.getFirst("SPACES"));
+		Assert.assertFalse(grammar.isNullable("SPACES"));
+		Assert.assertTrue(grammar.isNullable("EMPTY"));
+
+		Map<String, BitSet> alternatives = grammar.getAlternatives("ARRAY");
+		Assert.assertEquals(characters("["), alternatives.get("ARRAY BRACKET"));
+		Assert.assertEquals(characters("{"), alternatives.get("ARRAY BRACE"));
+	}
+
+	@Test
+	public void notation() {
+		Grammar grammar = new Grammar("<A>::=<B> | <D> [<C>]\n\n<B>::=u(x-z)\n\n<C>::=( | ) | [ | ]\n\n"
+				+ "<D>::=^<E> <F>\nNotes:\n1-) not a rule\n\n<E>::=\"7\"\n\n<F>::=(0-9)\n"
+				+ "<G>::=ONE |\nTWO");
+
+		Assert.assertEquals(characters("xyzXYZ"), grammar.getFirst("B"));
+		Assert.assertEquals(characters("()[]"), grammar.getFirst("C"));
+		Assert.assertEquals(characters("012345689"), grammar.getFirst("D"));
+		Assert.assertEquals(characters("xyzXYZ"), grammar.getAlternatives("A").get("B"));
+		Assert.assertEquals(characters("OT"), grammar.getFirst("G"));
+		Assert.assertEquals("ONE | TWO", grammar.getText("G"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void declaredTwice() {
+		new Grammar("<A>::=a\n\n<A>::=b\n");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notClosed() {
+		new Grammar("<A>::=(<B> | <C>\n");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void undefined() {
+		new Grammar("<A>::=<B>\n").getFirst("A");
+	}
+
+	private BitSet characters(String characters) {
+		BitSet set = new BitSet();
+		for (char character : characters.toCharArray()) {
+			set.set(character);
+		}
+		return set;
+	}
+}